@@ -15,7 +15,6 @@
 
 package org.apache.fluo.accumulo.iterators;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.function.LongPredicate;
 
@@ -24,30 +23,60 @@ import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Value;
 
 /**
- * This class buffers Keys that all have the same row+column. Internally it only stores one Key, a
- * list of timestamps and a list of values. At iteration time it materializes each Key+Value.
+ * This class buffers Keys that all have the same row+column. Internally it only stores one Key, an
+ * array of timestamps and the values appended into a single byte array. At iteration time it
+ * materializes each Key+Value. The arrays are reused after clearing, so buffering a column does not
+ * allocate per version.
  */
 class ColumnBuffer {
 
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int INITIAL_ARENA_SIZE = 1024;
+  // do not hold on to a large arena after a column with a lot of data was buffered
+  private static final int MAX_RETAINED_ARENA_SIZE = 1 << 20;
+
   private Key key;
-  private ArrayList<Long> timeStamps;
-  private ArrayList<byte[]> values;
+  private long[] timeStamps;
+  private int[] valueOffsets;
+  private int[] valueLengths;
+  private int size;
+
+  private byte[] arena;
+  private int arenaUsed;
 
   public ColumnBuffer() {
 
     this.key = null;
-    this.timeStamps = new ArrayList<>();
-    this.values = new ArrayList<>();
+    this.timeStamps = new long[INITIAL_CAPACITY];
+    this.valueOffsets = new int[INITIAL_CAPACITY];
+    this.valueLengths = new int[INITIAL_CAPACITY];
+    this.size = 0;
+    this.arena = new byte[INITIAL_ARENA_SIZE];
+    this.arenaUsed = 0;
   }
 
   /**
    * @param timestamp Timestamp to be added to buffer
-   * @param v Value to be added to buffer
+   * @param v Value data to be copied into the buffer
    */
-  private void add(long timestamp, byte[] v) {
+  private void add(long timestamp, byte[] v, int offset, int length) {
+    if (size == timeStamps.length) {
+      int newCapacity = size * 2;
+      timeStamps = Arrays.copyOf(timeStamps, newCapacity);
+      valueOffsets = Arrays.copyOf(valueOffsets, newCapacity);
+      valueLengths = Arrays.copyOf(valueLengths, newCapacity);
+    }
+
+    if (arena.length - arenaUsed < length) {
+      arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaUsed + length));
+    }
 
-    timeStamps.add(timestamp);
-    values.add(v);
+    System.arraycopy(v, offset, arena, arenaUsed, length);
+    timeStamps[size] = timestamp;
+    valueOffsets[size] = arenaUsed;
+    valueLengths[size] = length;
+    arenaUsed += length;
+    size++;
   }
 
   /**
@@ -58,16 +87,13 @@ class ColumnBuffer {
    * @param vByte Value to be added to buffer
    */
   public void add(Key k, byte[] vByte) throws IllegalArgumentException {
-    vByte = Arrays.copyOf(vByte, vByte.length);
-
     if (key == null) {
       key = new Key(k);
-      add(k.getTimestamp(), vByte);
-    } else if (key.equals(k, PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
-      add(k.getTimestamp(), vByte);
-    } else {
+    } else if (!key.equals(k, PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
       throw new IllegalArgumentException();
     }
+
+    add(k.getTimestamp(), vByte, 0, vByte.length);
   }
 
   /**
@@ -83,7 +109,7 @@ class ColumnBuffer {
 
   /**
    * Clears the dest ColumnBuffer and inserts all entries in dest where the timestamp passes the
-   * timestampTest.
+   * timestampTest. The arrays of dest are reused.
    *
    * @param dest Destination ColumnBuffer
    * @param timestampTest Test to determine which timestamps get added to dest
@@ -91,29 +117,31 @@ class ColumnBuffer {
   public void copyTo(ColumnBuffer dest, LongPredicate timestampTest) {
     dest.clear();
 
-    if (key != null) {
-      dest.key = new Key(key);
-    }
+    // keys held by a buffer are never modified, so they can be shared
+    dest.key = key;
 
-    for (int i = 0; i < timeStamps.size(); i++) {
-      long time = timeStamps.get(i);
+    for (int i = 0; i < size; i++) {
+      long time = timeStamps[i];
       if (timestampTest.test(time)) {
-        dest.add(time, values.get(i));
+        dest.add(time, arena, valueOffsets[i], valueLengths[i]);
       }
     }
   }
 
   public void clear() {
-    timeStamps.clear();
-    values.clear();
+    size = 0;
+    arenaUsed = 0;
     key = null;
+    if (arena.length > MAX_RETAINED_ARENA_SIZE) {
+      arena = new byte[INITIAL_ARENA_SIZE];
+    }
   }
 
   /**
    * @return the size of the current buffer
    */
   public int size() {
-    return timeStamps.size();
+    return size;
   }
 
   /**
@@ -122,7 +150,7 @@ class ColumnBuffer {
    */
   public Key getKey(int pos) {
     Key tmpKey = new Key(key);
-    tmpKey.setTimestamp(timeStamps.get(pos));
+    tmpKey.setTimestamp(timeStamps[pos]);
     return tmpKey;
   }
 
@@ -131,6 +159,6 @@ class ColumnBuffer {
    * @return The value at a given position
    */
   public Value getValue(int pos) {
-    return new Value(values.get(pos));
+    return new Value(arena, valueOffsets[pos], valueLengths[pos]);
   }
 }
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.accumulo.iterators;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.fluo.accumulo.util.ColumnType;
+
+/**
+ * Filters the output of {@link SnapshotIterator} in the tablet server, so that cells a scanner
+ * would discard never cross the wire. Qualifier filters apply to every entry, including locks,
+ * because a lock on a column that will not be returned does not need to be resolved. Value filters
+ * and the keys only mode only apply to data entries, locks always pass through so the client can
+ * resolve them.
+ */
+public class SnapshotFilterIterator implements SortedKeyValueIterator<Key, Value> {
+
+  static final String QUAL_PREFIX_OPT = "qualPrefix";
+  static final String QUAL_REGEX_OPT = "qualRegex";
+  static final String VAL_PREFIX_OPT = "valPrefix";
+  static final String VAL_MAX_SIZE_OPT = "valMaxSize";
+  static final String KEYS_ONLY_OPT = "keysOnly";
+
+  private SortedKeyValueIterator<Key, Value> source;
+
+  private byte[] qualPrefix;
+  private Pattern qualRegex;
+  private byte[] valPrefix;
+  private int valMaxSize = Integer.MAX_VALUE;
+  private boolean keysOnly;
+
+  private final Value emptyValue = new Value(new byte[0]);
+
+  private static boolean startsWith(ByteSequence bs, byte[] prefix) {
+    if (bs.length() < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (bs.byteAt(i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean startsWith(byte[] data, byte[] prefix) {
+    if (data.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (data[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean accept(Key key, Value value) {
+    if (qualPrefix != null || qualRegex != null) {
+      ByteSequence cq = key.getColumnQualifierData();
+      if (qualPrefix != null && !startsWith(cq, qualPrefix)) {
+        return false;
+      }
+      if (qualRegex != null
+          && !qualRegex.matcher(new String(cq.toArray(), StandardCharsets.UTF_8)).matches()) {
+        return false;
+      }
+    }
+
+    if (ColumnType.from(key) == ColumnType.DATA) {
+      if (value.getSize() > valMaxSize) {
+        return false;
+      }
+      if (valPrefix != null && !startsWith(value.get(), valPrefix)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private void findTop() throws IOException {
+    while (source.hasTop() && !accept(source.getTopKey(), source.getTopValue())) {
+      source.next();
+    }
+  }
+
+  @Override
+  public void init(SortedKeyValueIterator<Key, Value> source, Map<String, String> options,
+      IteratorEnvironment env) throws IOException {
+    this.source = source;
+
+    if (options.containsKey(QUAL_PREFIX_OPT)) {
+      qualPrefix = Base64.getDecoder().decode(options.get(QUAL_PREFIX_OPT));
+    }
+    if (options.containsKey(QUAL_REGEX_OPT)) {
+      qualRegex = Pattern.compile(options.get(QUAL_REGEX_OPT));
+    }
+    if (options.containsKey(VAL_PREFIX_OPT)) {
+      valPrefix = Base64.getDecoder().decode(options.get(VAL_PREFIX_OPT));
+    }
+    if (options.containsKey(VAL_MAX_SIZE_OPT)) {
+      valMaxSize = Integer.parseInt(options.get(VAL_MAX_SIZE_OPT));
+    }
+    keysOnly = Boolean.parseBoolean(options.getOrDefault(KEYS_ONLY_OPT, "false"));
+  }
+
+  @Override
+  public boolean hasTop() {
+    return source.hasTop();
+  }
+
+  @Override
+  public void next() throws IOException {
+    source.next();
+    findTop();
+  }
+
+  @Override
+  public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
+      throws IOException {
+    source.seek(range, columnFamilies, inclusive);
+    findTop();
+  }
+
+  @Override
+  public Key getTopKey() {
+    return source.getTopKey();
+  }
+
+  @Override
+  public Value getTopValue() {
+    if (keysOnly && ColumnType.from(source.getTopKey()) == ColumnType.DATA) {
+      return emptyValue;
+    }
+    return source.getTopValue();
+  }
+
+  @Override
+  public SortedKeyValueIterator<Key, Value> deepCopy(IteratorEnvironment env) {
+    throw new UnsupportedOperationException();
+  }
+
+  public static void setQualifierPrefix(IteratorSetting cfg, byte[] prefix) {
+    cfg.addOption(QUAL_PREFIX_OPT, Base64.getEncoder().encodeToString(prefix));
+  }
+
+  public static void setQualifierRegex(IteratorSetting cfg, String regex) {
+    // compile to fail fast on the client rather than in the tablet server
+    Pattern.compile(regex);
+    cfg.addOption(QUAL_REGEX_OPT, regex);
+  }
+
+  public static void setValuePrefix(IteratorSetting cfg, byte[] prefix) {
+    cfg.addOption(VAL_PREFIX_OPT, Base64.getEncoder().encodeToString(prefix));
+  }
+
+  public static void setValueMaxSize(IteratorSetting cfg, int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize < 0 : " + maxSize);
+    }
+    cfg.addOption(VAL_MAX_SIZE_OPT, maxSize + "");
+  }
+
+  public static void setKeysOnly(IteratorSetting cfg, boolean keysOnly) {
+    cfg.addOption(KEYS_ONLY_OPT, keysOnly + "");
+  }
+}
@@ -35,9 +35,13 @@ import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.fluo.accumulo.util.ColumnConstants;
 import org.apache.fluo.accumulo.util.ColumnType;
 import org.apache.fluo.accumulo.values.WriteValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SnapshotIterator implements SortedKeyValueIterator<Key, Value> {
 
+  private static final Logger log = LoggerFactory.getLogger(SnapshotIterator.class);
+
   @VisibleForTesting
   static final String TIMESTAMP_OPT = "timestampOpt";
 
@@ -60,6 +64,10 @@ public class SnapshotIterator implements SortedKeyValueIterator<Key, Value> {
   private Key readLockKey;
   private Value readLockValue;
 
+  // per scan counters, comparing these shows how many versions a scan had to look at
+  private long keysExamined = 0;
+  private long keysReturned = 0;
+
   private void rememberReadLock(Key key, Value val) {
     Preconditions.checkState(readLockKey == null && readLockValue == null);
     if (readLockIgnore == null
@@ -80,6 +88,19 @@ public class SnapshotIterator implements SortedKeyValueIterator<Key, Value> {
   }
 
   private void findTop() throws IOException {
+    findTopInColumns();
+
+    if (readLockKey != null || source.hasTop()) {
+      keysReturned++;
+    } else if (log.isDebugEnabled()) {
+      log.debug(
+          "Snapshot scan finished, examined {} keys, returned {} keys, skipped {} keys, "
+              + "sought {} times",
+          keysExamined, keysReturned, source.getKeysSkipped(), source.getSkipSeeks());
+    }
+  }
+
+  private void findTopInColumns() throws IOException {
     outer: while (source.hasTop() && readLockKey == null) {
       long invalidationTime = -1;
       long dataPointer = -1;
@@ -94,6 +115,7 @@ public class SnapshotIterator implements SortedKeyValueIterator<Key, Value> {
           && curCol.equals(source.getTopKey(), PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
         ColumnType colType = ColumnType.from(source.getTopKey());
         long ts = source.getTopKey().getTimestamp() & ColumnConstants.TIMESTAMP_MASK;
+        keysExamined++;
 
         switch (colType) {
           case TX_DONE: {
@@ -283,6 +305,18 @@ public class SnapshotIterator implements SortedKeyValueIterator<Key, Value> {
     throw new UnsupportedOperationException();
   }
 
+  long getKeysExamined() {
+    return keysExamined;
+  }
+
+  long getKeysReturned() {
+    return keysReturned;
+  }
+
+  TimestampSkippingIterator getSkippingIterator() {
+    return source;
+  }
+
   public static void setSnaptime(IteratorSetting cfg, long time) {
     if (time < 0 || (ColumnConstants.PREFIX_MASK & time) != 0) {
       throw new IllegalArgumentException();
@@ -36,11 +36,22 @@ import org.apache.fluo.accumulo.util.ColumnType;
 
 public class TimestampSkippingIterator implements SortedKeyValueIterator<Key, Value> {
 
+  // Skips call next() on the source up to a threshold and then seek. Seeking is much more expensive
+  // than next() when the target is a few keys away, but much cheaper when a column has a long
+  // version chain. The threshold adapts to what this iterator has seen, it is halved each time a
+  // skip has to seek and grows by one each time a skip reaches its target without seeking. So
+  // scans over columns with many versions quickly start seeking right away.
+  static final int MAX_SKIP_THRESHOLD = 10;
+
   private final SortedKeyValueIterator<Key, Value> source;
   private Range range;
   private Collection<ByteSequence> fams;
   private boolean inclusive;
 
+  private int skipThreshold = MAX_SKIP_THRESHOLD;
+  private long keysSkipped = 0;
+  private long skipSeeks = 0;
+
   public TimestampSkippingIterator(SortedKeyValueIterator<Key, Value> source) {
     this.source = source;
   }
@@ -61,23 +72,36 @@ public class TimestampSkippingIterator implements SortedKeyValueIterator<Key, Va
     source.next();
   }
 
+  private void skipDone(boolean sought) {
+    if (sought) {
+      skipSeeks++;
+      skipThreshold /= 2;
+    } else if (skipThreshold < MAX_SKIP_THRESHOLD) {
+      skipThreshold++;
+    }
+  }
+
   public void skipToTimestamp(Key curCol, long timestamp) throws IOException {
     source.next();
+    keysSkipped++;
     int count = 0;
     while (source.hasTop()
         && curCol.equals(source.getTopKey(), PartialKey.ROW_COLFAM_COLQUAL_COLVIS)
         && timestamp < source.getTopKey().getTimestamp()) {
-      if (count == 10) {
+      if (count >= skipThreshold) {
         // seek to prefix
         Key seekKey = new Key(curCol);
         seekKey.setTimestamp(timestamp);
         Range newRange = new Range(seekKey, true, range.getEndKey(), range.isEndKeyInclusive());
         seek(newRange);
-        break;
+        skipDone(true);
+        return;
       }
       source.next();
+      keysSkipped++;
       count++;
     }
+    skipDone(false);
   }
 
   public void skipToPrefix(Key curCol, ColumnType colType) throws IOException {
@@ -86,10 +110,11 @@ public class TimestampSkippingIterator implements SortedKeyValueIterator<Key, Va
 
   public void skipColumn(Key curCol) throws IOException {
     source.next();
+    keysSkipped++;
     int count = 0;
     while (source.hasTop()
         && curCol.equals(source.getTopKey(), PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
-      if (count == 10) {
+      if (count >= skipThreshold) {
         Key seekKey = curCol.followingKey(PartialKey.ROW_COLFAM_COLQUAL_COLVIS);
         Range newRange;
         if (range.afterEndKey(seekKey)) {
@@ -100,11 +125,32 @@ public class TimestampSkippingIterator implements SortedKeyValueIterator<Key, Va
           newRange = new Range(seekKey, true, range.getEndKey(), range.isEndKeyInclusive());
         }
         seek(newRange);
-        break;
+        skipDone(true);
+        return;
       }
       source.next();
+      keysSkipped++;
       count++;
     }
+    skipDone(false);
+  }
+
+  /**
+   * @return the number of keys passed over with next() while skipping
+   */
+  long getKeysSkipped() {
+    return keysSkipped;
+  }
+
+  /**
+   * @return the number of times skipping sought instead of calling next()
+   */
+  long getSkipSeeks() {
+    return skipSeeks;
+  }
+
+  int getSkipThreshold() {
+    return skipThreshold;
   }
 
   private void seek(Range range) throws IOException {
@@ -46,5 +46,8 @@ public class ZookeeperPath {
 
   public static final String TWILL = "/twill";
   public static final String FINDERS = "/finders";
+  public static final String FINDER_BALANCE = "/finder-balance";
+  public static final String FINDER_BALANCE_LOADS = FINDER_BALANCE + "/loads";
+  public static final String FINDER_BALANCE_WEIGHTS = FINDER_BALANCE + "/weights";
 
 }
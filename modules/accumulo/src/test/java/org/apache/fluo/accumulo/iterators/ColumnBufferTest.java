@@ -15,6 +15,8 @@
 
 package org.apache.fluo.accumulo.iterators;
 
+import java.nio.charset.StandardCharsets;
+
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.junit.Assert;
@@ -33,4 +35,39 @@ public class ColumnBufferTest {
 
     }
   }
+
+  @Test
+  public void testCopyTo() {
+    ColumnBuffer columnBuffer = new ColumnBuffer();
+    ColumnBuffer filtered = new ColumnBuffer();
+
+    for (int round = 0; round < 2; round++) {
+      columnBuffer.clear();
+      Key key = new Key("row" + round, "fam", "qual");
+      // enough versions and data to grow the arrays past their initial size
+      for (int i = 0; i < 100; i++) {
+        key.setTimestamp(100 - i);
+        byte[] val = ("v" + round + "_" + i + "_" + new String(new char[50]))
+            .getBytes(StandardCharsets.UTF_8);
+        columnBuffer.add(key, val);
+        // the buffer must copy the value
+        val[0] = 'x';
+      }
+
+      Assert.assertEquals(100, columnBuffer.size());
+      Assert.assertEquals(98, columnBuffer.getKey(2).getTimestamp());
+      Assert.assertTrue(columnBuffer.getValue(2).toString().startsWith("v" + round + "_2_"));
+
+      columnBuffer.copyTo(filtered, ts -> ts % 2 == 0);
+
+      Assert.assertEquals(50, filtered.size());
+      for (int i = 0; i < filtered.size(); i++) {
+        Key fk = filtered.getKey(i);
+        Assert.assertEquals(100 - 2 * i, fk.getTimestamp());
+        Assert.assertEquals("row" + round, fk.getRow().toString());
+        Assert.assertTrue(
+            filtered.getValue(i).toString().startsWith("v" + round + "_" + 2 * i + "_"));
+      }
+    }
+  }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.accumulo.iterators;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SnapshotFilterIteratorTest {
+
+  private static TestData newInput() {
+    TestData input = new TestData();
+
+    input.add("0 f a1 WRITE 16", "11");
+    input.add("0 f a1 DATA 11", "v1");
+    input.add("0 f a2 WRITE 16", "11");
+    input.add("0 f a2 DATA 11", "x2");
+    input.add("0 f b1 WRITE 16", "11");
+    input.add("0 f b1 DATA 11", "v3 is long");
+    input.add("1 f a1 WRITE 16", "11");
+    input.add("1 f a1 DATA 11", "v4");
+    input.add("1 f b2 LOCK 14", "0 f a1");
+    input.add("1 f b2 DATA 14", "v5");
+
+    return input;
+  }
+
+  private static SnapshotFilterIterator newFilter(TestData input, IteratorSetting cfg) {
+    SnapshotIterator si = new SnapshotIterator();
+    Map<String, String> siOpts = new HashMap<>();
+    siOpts.put(SnapshotIterator.TIMESTAMP_OPT, "20");
+
+    SnapshotFilterIterator sfi = new SnapshotFilterIterator();
+
+    IteratorEnvironment env = TestIteratorEnv.create(IteratorScope.scan, true);
+
+    try {
+      si.init(new SortedMapIterator(input.data), siOpts, env);
+      sfi.init(si, cfg.getOptions(), env);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return sfi;
+  }
+
+  private static void check(IteratorSetting cfg, TestData expected) {
+    TestData input = newInput();
+    Assert.assertEquals(expected, new TestData(newFilter(input, cfg)));
+    Assert.assertEquals(expected, new TestData(newFilter(input, cfg), new Range(), true));
+  }
+
+  private static IteratorSetting newSetting() {
+    return new IteratorSetting(11, SnapshotFilterIterator.class);
+  }
+
+  @Test
+  public void testNoFilter() {
+    TestData expected = new TestData();
+    expected.add("0 f a1 DATA 11", "v1");
+    expected.add("0 f a2 DATA 11", "x2");
+    expected.add("0 f b1 DATA 11", "v3 is long");
+    expected.add("1 f a1 DATA 11", "v4");
+    expected.add("1 f b2 LOCK 14", "0 f a1");
+    check(newSetting(), expected);
+  }
+
+  @Test
+  public void testQualifierPrefix() {
+    IteratorSetting cfg = newSetting();
+    SnapshotFilterIterator.setQualifierPrefix(cfg, "a".getBytes(StandardCharsets.UTF_8));
+
+    TestData expected = new TestData();
+    expected.add("0 f a1 DATA 11", "v1");
+    expected.add("0 f a2 DATA 11", "x2");
+    expected.add("1 f a1 DATA 11", "v4");
+    check(cfg, expected);
+  }
+
+  @Test
+  public void testQualifierRegex() {
+    IteratorSetting cfg = newSetting();
+    SnapshotFilterIterator.setQualifierRegex(cfg, ".2");
+
+    TestData expected = new TestData();
+    expected.add("0 f a2 DATA 11", "x2");
+    expected.add("1 f b2 LOCK 14", "0 f a1");
+    check(cfg, expected);
+  }
+
+  @Test
+  public void testValueFilters() {
+    IteratorSetting cfg = newSetting();
+    SnapshotFilterIterator.setValuePrefix(cfg, "v".getBytes(StandardCharsets.UTF_8));
+    SnapshotFilterIterator.setValueMaxSize(cfg, 2);
+
+    // locks are never filtered on value
+    TestData expected = new TestData();
+    expected.add("0 f a1 DATA 11", "v1");
+    expected.add("1 f a1 DATA 11", "v4");
+    expected.add("1 f b2 LOCK 14", "0 f a1");
+    check(cfg, expected);
+  }
+
+  @Test
+  public void testKeysOnly() {
+    IteratorSetting cfg = newSetting();
+    SnapshotFilterIterator.setKeysOnly(cfg, true);
+    SnapshotFilterIterator.setValuePrefix(cfg, "v".getBytes(StandardCharsets.UTF_8));
+
+    TestData expected = new TestData();
+    expected.add("0 f a1 DATA 11", "");
+    expected.add("0 f b1 DATA 11", "");
+    expected.add("1 f a1 DATA 11", "");
+    expected.add("1 f b2 LOCK 14", "0 f a1");
+    check(cfg, expected);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadRegex() {
+    SnapshotFilterIterator.setQualifierRegex(newSetting(), "a(");
+  }
+}
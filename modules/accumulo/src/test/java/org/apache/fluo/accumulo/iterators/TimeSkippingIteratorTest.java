@@ -75,4 +75,60 @@ public class TimeSkippingIteratorTest {
     Assert.assertFalse(tsi.hasTop());
 
   }
+
+  private static TimestampSkippingIterator createIterator(int numCols, int numVersions)
+      throws IOException {
+    SortedMap<Key, Value> data = new TreeMap<>();
+
+    for (int q = 0; q < numCols; q++) {
+      for (int i = 0; i < numVersions; i++) {
+        data.put(new Key("r1", "f1", String.format("q%04d", q), i), new Value(("" + i).getBytes()));
+      }
+    }
+
+    TimestampSkippingIterator tsi = new TimestampSkippingIterator(new SortedMapIterator(data));
+    tsi.seek(new Range(), Collections.<ByteSequence>emptySet(), false);
+    return tsi;
+  }
+
+  @Test
+  public void testAdaptiveSkip() throws IOException {
+    TimestampSkippingIterator tsi = createIterator(100, 1000);
+
+    int numCols = 0;
+    while (tsi.hasTop()) {
+      tsi.skipColumn(new Key(tsi.getTopKey()));
+      numCols++;
+    }
+
+    Assert.assertEquals(100, numCols);
+    // every column has a long version chain, so after a few columns skipping seeks right away
+    Assert.assertEquals(0, tsi.getSkipThreshold());
+    Assert.assertEquals(100, tsi.getSkipSeeks());
+    Assert.assertTrue(tsi.getKeysSkipped() < 200);
+
+    tsi = createIterator(100, 1);
+    while (tsi.hasTop()) {
+      tsi.skipColumn(new Key(tsi.getTopKey()));
+    }
+
+    // every column has a single version, so skipping should never seek
+    Assert.assertEquals(TimestampSkippingIterator.MAX_SKIP_THRESHOLD, tsi.getSkipThreshold());
+    Assert.assertEquals(0, tsi.getSkipSeeks());
+  }
+
+  @Test
+  public void testAdaptiveSkipRecovers() throws IOException {
+    TimestampSkippingIterator tsi = createIterator(1, 1000);
+    tsi.skipColumn(new Key(tsi.getTopKey()));
+    Assert.assertEquals(TimestampSkippingIterator.MAX_SKIP_THRESHOLD / 2, tsi.getSkipThreshold());
+
+    // short skips let the threshold grow back
+    Key curCol = new Key("r1", "f1", "q0000", 1000);
+    for (int i = 0; i < TimestampSkippingIterator.MAX_SKIP_THRESHOLD; i++) {
+      tsi.seek(new Range(), Collections.<ByteSequence>emptySet(), false);
+      tsi.skipToTimestamp(curCol, 998);
+    }
+    Assert.assertEquals(TimestampSkippingIterator.MAX_SKIP_THRESHOLD, tsi.getSkipThreshold());
+  }
 }
@@ -203,4 +203,14 @@ public interface SnapshotBase {
   default CompletableFuture<Bytes> getAsync(Bytes row, Column column, Bytes defaultValue) {
     return CompletableFuture.completedFuture(get(row, column, defaultValue));
   }
+
+  /**
+   * Asynchronous version of {@link #get(Collection)}, may retrieve the values in the background and
+   * return immediately.
+   *
+   * @since 2.0.0
+   */
+  default CompletableFuture<Map<RowColumn, Bytes>> getAsync(Collection<RowColumn> rowColumns) {
+    return CompletableFuture.completedFuture(get(rowColumns));
+  }
 }
@@ -141,6 +141,79 @@ public interface ScannerBuilder {
    */
   ScannerBuilder fetch(Collection<Column> columns);
 
+  /**
+   * Only return cells whose qualifier begins with the given prefix. This filter and the other
+   * filter methods are applied in the tablet servers, so cells that do not pass are never sent to
+   * the client.
+   *
+   * @param qualifierPrefix restrict the scanner to cells with a qualifier starting with this prefix
+   * @return self
+   * @since 2.0.0
+   */
+  ScannerBuilder filterQualifierPrefix(Bytes qualifierPrefix);
+
+  /**
+   * @param qualifierPrefix restrict the scanner to cells with a qualifier starting with this
+   *        prefix. String parameters will be encoded as UTF-8
+   * @return self
+   * @see #filterQualifierPrefix(Bytes)
+   * @since 2.0.0
+   */
+  default ScannerBuilder filterQualifierPrefix(CharSequence qualifierPrefix) {
+    return filterQualifierPrefix(Bytes.of(qualifierPrefix));
+  }
+
+  /**
+   * Only return cells whose qualifier, decoded as UTF-8, entirely matches the regular expression.
+   *
+   * @param regex a regular expression in {@link java.util.regex.Pattern} syntax
+   * @return self
+   * @see #filterQualifierPrefix(Bytes)
+   * @since 2.0.0
+   */
+  ScannerBuilder filterQualifierRegex(String regex);
+
+  /**
+   * Only return cells whose value begins with the given prefix.
+   *
+   * @param valuePrefix restrict the scanner to cells with a value starting with this prefix
+   * @return self
+   * @see #filterQualifierPrefix(Bytes)
+   * @since 2.0.0
+   */
+  ScannerBuilder filterValuePrefix(Bytes valuePrefix);
+
+  /**
+   * @param valuePrefix restrict the scanner to cells with a value starting with this prefix. String
+   *        parameters will be encoded as UTF-8
+   * @return self
+   * @see #filterValuePrefix(Bytes)
+   * @since 2.0.0
+   */
+  default ScannerBuilder filterValuePrefix(CharSequence valuePrefix) {
+    return filterValuePrefix(Bytes.of(valuePrefix));
+  }
+
+  /**
+   * Only return cells whose value is at most the given number of bytes.
+   *
+   * @param maxSize the largest value size, in bytes, to return
+   * @return self
+   * @see #filterQualifierPrefix(Bytes)
+   * @since 2.0.0
+   */
+  ScannerBuilder filterValueMaxSize(int maxSize);
+
+  /**
+   * Return the row and column of matching cells with an empty value. Useful for existence checks,
+   * since the values are dropped before leaving the tablet server. Value filters still apply to the
+   * original value.
+   *
+   * @return self
+   * @since 2.0.0
+   */
+  ScannerBuilder keysOnly();
+
   /**
    * @return a new scanner created with any previously set restrictions
    */
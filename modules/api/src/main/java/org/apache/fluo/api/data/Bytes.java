@@ -21,6 +21,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
@@ -31,6 +34,7 @@ import java.util.Objects;
 
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.UnsignedBytes;
+import org.apache.fluo.api.internal.InternalBytes;
 
 /**
  * Represents bytes in Fluo. Bytes is an immutable wrapper around a byte array. Bytes always copies
@@ -48,6 +52,10 @@ import com.google.common.primitives.UnsignedBytes;
  * <p>
  * Bytes.EMPTY is used to represent a Bytes object with no data.
  *
+ * <p>
+ * Users can only create Bytes by copying. Fluo's implementation can create Bytes that share arrays
+ * it owns through {@link InternalBytes}, which is internal to Fluo and not part of the public API.
+ *
  * @since 1.0.0
  */
 public final class Bytes implements Comparable<Bytes>, Serializable {
@@ -62,8 +70,26 @@ public final class Bytes implements Comparable<Bytes>, Serializable {
 
   public static final Bytes EMPTY = new Bytes(new byte[0]);
 
+  static {
+    InternalBytes.setFactory(Bytes::new);
+  }
+
   private int hashCode = 0;
 
+  // Arrays.compareUnsigned for array ranges is available in Java 9 and later. The JVM compares many
+  // bytes at a time with vector instructions, which is much faster than a loop for long rows.
+  private static final MethodHandle COMPARE_UNSIGNED = findCompareUnsigned();
+
+  private static MethodHandle findCompareUnsigned() {
+    try {
+      return MethodHandles.publicLookup().findStatic(Arrays.class, "compareUnsigned",
+          MethodType.methodType(int.class, byte[].class, int.class, int.class, byte[].class,
+              int.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
   public Bytes() {
     data = EMPTY.data;
     offset = 0;
@@ -83,7 +109,8 @@ public final class Bytes implements Comparable<Bytes>, Serializable {
     this.utf8String = new WeakReference<>(utf8String);
   }
 
-  private Bytes(byte[] data, int offset, int length) {
+  // does not copy, only reachable outside of this class through InternalBytes
+  Bytes(byte[] data, int offset, int length) {
     if (offset < 0 || offset > data.length || length < 0 || (offset + length) > data.length) {
       throw new IndexOutOfBoundsException(" Bad offset and/or length data.length = " + data.length
           + " offset = " + offset + " length = " + length);
@@ -251,16 +278,28 @@ public final class Bytes implements Comparable<Bytes>, Serializable {
     if (this.length == this.data.length && len == bytes.length) {
       return UnsignedBytes.lexicographicalComparator().compare(this.data, bytes);
     } else {
-      int minLen = Math.min(this.length, len);
-      for (int i = this.offset, j = offset; i < minLen; i++, j++) {
-        int a = (this.data[i] & 0xff);
-        int b = (bytes[j] & 0xff);
-        if (a != b) {
-          return a - b;
-        }
+      return compareUnsigned(this.data, this.offset, this.length, bytes, offset, len);
+    }
+  }
+
+  private static int compareUnsigned(byte[] a, int aOff, int aLen, byte[] b, int bOff, int bLen) {
+    if (COMPARE_UNSIGNED != null) {
+      try {
+        return (int) COMPARE_UNSIGNED.invokeExact(a, aOff, aOff + aLen, b, bOff, bOff + bLen);
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+
+    int minLen = Math.min(aLen, bLen);
+    for (int i = 0; i < minLen; i++) {
+      int x = (a[aOff + i] & 0xff);
+      int y = (b[bOff + i] & 0xff);
+      if (x != y) {
+        return x - y;
       }
-      return this.length - len;
     }
+    return aLen - bLen;
   }
 
   /**
@@ -276,6 +315,11 @@ public final class Bytes implements Comparable<Bytes>, Serializable {
     if (other instanceof Bytes) {
       Bytes ob = (Bytes) other;
 
+      // when both hash codes were already computed, differing hashes rule out equality cheaply
+      if (hashCode != 0 && ob.hashCode != 0 && hashCode != ob.hashCode) {
+        return false;
+      }
+
       return contentEqualsUnchecked(ob.data, ob.offset, ob.length);
     }
     return false;
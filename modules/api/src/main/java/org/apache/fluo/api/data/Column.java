@@ -207,6 +207,10 @@ public final class Column implements Comparable<Column>, Serializable {
     if (o instanceof Column) {
       Column oc = (Column) o;
 
+      if (hashCode != 0 && oc.hashCode != 0 && hashCode != oc.hashCode) {
+        return false;
+      }
+
       return family.equals(oc.getFamily()) && qualifier.equals(oc.getQualifier())
           && visibility.equals(oc.getVisibility());
     }
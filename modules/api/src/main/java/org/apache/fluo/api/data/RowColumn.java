@@ -121,6 +121,9 @@ public final class RowColumn implements Comparable<RowColumn>, Serializable {
 
     if (o instanceof RowColumn) {
       RowColumn other = (RowColumn) o;
+      if (hashCode != 0 && other.hashCode != 0 && hashCode != other.hashCode) {
+        return false;
+      }
       return row.equals(other.row) && col.equals(other.col);
     }
     return false;
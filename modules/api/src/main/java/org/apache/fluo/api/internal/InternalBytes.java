@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.api.internal;
+
+import java.util.Objects;
+
+import org.apache.fluo.api.data.Bytes;
+
+/**
+ * Creates {@link Bytes} objects that share an existing byte array instead of copying it.
+ *
+ * <p>
+ * <b>This package is internal to Fluo and is not part of the public API.</b> It is excluded from
+ * API checks and may change or be removed in any release. Bytes registers a factory that calls its
+ * package private constructor when it is initialized, so this class can create Bytes without giving
+ * the rest of the API a way to do so. Fluo's implementation uses it through {@code ByteUtil.wrap()}
+ * in fluo-core, which documents when wrapping is safe.
+ */
+public final class InternalBytes {
+
+  /**
+   * Creates Bytes backed by a slice of an array without copying it.
+   */
+  public interface Factory {
+    Bytes wrap(byte[] data, int offset, int length);
+  }
+
+  private static volatile Factory factory;
+
+  private InternalBytes() {}
+
+  /**
+   * Called once by Bytes when it is initialized.
+   *
+   * @throws IllegalStateException if a factory was already set
+   */
+  public static synchronized void setFactory(Factory bytesFactory) {
+    // initializes Bytes if this is not called by it, so the factory of Bytes is always set first
+    Objects.requireNonNull(Bytes.EMPTY);
+    if (factory != null) {
+      throw new IllegalStateException("Factory already set");
+    }
+    factory = bytesFactory;
+  }
+
+  /**
+   * Creates a Bytes object backed by the given slice of {@code data}, without copying it.
+   *
+   * @throws IndexOutOfBoundsException if offset and length do not fit within the array
+   */
+  public static Bytes wrap(byte[] data, int offset, int length) {
+    // initializes Bytes, which sets the factory
+    Bytes empty = Bytes.EMPTY;
+    if (length == 0) {
+      return empty;
+    }
+    return factory.wrap(data, offset, length);
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.api.observer;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.apache.fluo.api.client.TransactionBase;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.observer.Observer.NotificationType;
+
+/**
+ * An observer that processes multiple notifications for the same column in a single transaction.
+ * Notifications found near each other by a worker are grouped, up to the batch size given when
+ * registering. After the transaction commits, all of the notifications in the batch are deleted.
+ * This lowers the number of commits for columns that receive many notifications, like aggregation
+ * columns.
+ *
+ * <p>
+ * Batch observers can only observe columns configured for {@link NotificationType#WEAK}
+ * notifications. If the transaction for a batch fails because of a collision, the notifications in
+ * the batch are processed again one at a time using
+ * {@link #process(TransactionBase, Bytes, Column)}.
+ *
+ * @see ObserverProvider.Registry.ObserverArgument#useBatchObserver(BatchObserver, int)
+ * @since 2.0.0
+ */
+@FunctionalInterface
+public interface BatchObserver extends Observer {
+
+  /**
+   * Processes a batch of notifications that all occurred on the same column. After this method
+   * returns, the transaction will be committed and closed by Fluo.
+   *
+   * @param rows The rows where notifications occurred, each row is only present once
+   */
+  void process(TransactionBase tx, Collection<Bytes> rows, Column col) throws Exception;
+
+  /**
+   * Processes a single notification by passing a batch of one row to
+   * {@link #process(TransactionBase, Collection, Column)}.
+   */
+  @Override
+  default void process(TransactionBase tx, Bytes row, Column col) throws Exception {
+    process(tx, Collections.singletonList(row), col);
+  }
+}
@@ -19,11 +19,11 @@ import java.util.function.BiConsumer;
 
 import org.apache.fluo.api.data.Column;
 import org.apache.fluo.api.observer.Observer.NotificationType;
+import org.apache.fluo.api.observer.ObserverProvider.Registry.IdentityOption;
 import org.apache.fluo.api.observer.ObserverProvider.Registry.ObserverArgument;
 
 // Intentionally package private
-class ColumnProviderRegistry implements ObserverProvider.Registry.ObserverArgument,
-    ObserverProvider.Registry.IdentityOption {
+class ColumnProviderRegistry implements IdentityOption {
 
   private BiConsumer<Column, NotificationType> colRegistry;
   private NotificationType nt;
@@ -41,6 +41,16 @@ class ColumnProviderRegistry implements ObserverProvider.Registry.ObserverArgume
     return this;
   }
 
+  @Override
+  public IdentityOption withWeight(int weight) {
+    return this;
+  }
+
+  @Override
+  public IdentityOption withMaxConcurrency(int maxThreads) {
+    return this;
+  }
+
   @Override
   public void useObserver(Observer observer) {
     colRegistry.accept(col, nt);
@@ -51,4 +61,13 @@ class ColumnProviderRegistry implements ObserverProvider.Registry.ObserverArgume
     useObserver(observer);
   }
 
+  @Override
+  public void useBatchObserver(BatchObserver observer, int maxBatchSize) {
+    if (nt != NotificationType.WEAK) {
+      throw new IllegalArgumentException(
+          "Batch observers can only observe weak notifications, column : " + col);
+    }
+    useObserver(observer);
+  }
+
 }
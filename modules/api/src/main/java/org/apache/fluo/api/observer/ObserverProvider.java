@@ -98,19 +98,70 @@ public interface ObserverProvider {
        * </pre>
        */
       void useStrObserver(StringObserver observer);
+
+      /**
+       * Calling this method registers the given observer using the parameters previously passed to
+       * the Fluent API. Notifications will be passed to the observer in batches of up to
+       * maxBatchSize rows. Only {@link NotificationType#WEAK} notifications can be observed this
+       * way.
+       *
+       * @since 2.0.0
+       */
+      void useBatchObserver(BatchObserver observer, int maxBatchSize);
+    }
+
+    /**
+     * One part of a Fluent API for registering observers. Workers queue notifications separately
+     * for each observer and share their threads between observers with queued notifications, so a
+     * flood of notifications for one observer does not starve the others.
+     *
+     * @since 2.0.0
+     */
+    interface SchedulingOption extends ObserverArgument {
+      /**
+       * Optionally set the share of worker threads this observer gets when notifications for
+       * multiple observers are queued. An observer with weight 3 runs three times as often as an
+       * observer with weight 1. If not set, the weight is 1.
+       */
+      SchedulingOption withWeight(int weight);
+
+      /**
+       * Optionally limit the number of worker threads that may run this observer at the same time.
+       * If not set, the observer may use all worker threads.
+       */
+      SchedulingOption withMaxConcurrency(int maxThreads);
     }
 
     /**
-     * One part of a Fluent API for registering observers.
+     * One part of a Fluent API for registering observers. Scheduling options must be set before the
+     * identity, for example:
+     *
+     * <pre>
+     * <code>
+     *   or.forColumn(someColumn, WEAK).withWeight(3).withId("indexer").useObserver(obs);
+     * </code>
+     * </pre>
      *
      * @since 1.1.0
      */
-    interface IdentityOption extends ObserverArgument {
+    interface IdentityOption extends SchedulingOption {
       /**
        * Optionally set the name used to identify the observer in logging and metrics. If not set,
        * the column name is used.
        */
       ObserverArgument withId(String identity);
+
+      /**
+       * @since 2.0.0
+       */
+      @Override
+      IdentityOption withWeight(int weight);
+
+      /**
+       * @since 2.0.0
+       */
+      @Override
+      IdentityOption withMaxConcurrency(int maxThreads);
     }
 
     /**
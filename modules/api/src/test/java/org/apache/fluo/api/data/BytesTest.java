@@ -22,6 +22,7 @@ import java.nio.ReadOnlyBufferException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
+import org.apache.fluo.api.internal.InternalBytes;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -168,6 +169,23 @@ public class BytesTest {
     Assert.assertTrue(b6.compareTo(b1Arr) > 0);
   }
 
+  @Test
+  public void testCompareSubSequences() {
+    Bytes b1 = Bytes.of("xabcdefghijklmnop1").subSequence(1, 18);
+    Bytes b2 = Bytes.of("yyabcdefghijklmnop2").subSequence(2, 19);
+    Bytes b3 = Bytes.of("abcdefghijklmnop1");
+
+    Assert.assertTrue(b1.compareTo(b2) < 0);
+    Assert.assertTrue(b2.compareTo(b1) > 0);
+    Assert.assertEquals(0, b1.compareTo(b3));
+    Assert.assertEquals(0, b3.compareTo(b1));
+    Assert.assertNotEquals(b1, b2);
+    Assert.assertEquals(b1, b3);
+    Assert.assertTrue(b1.subSequence(0, 16).compareTo(b2) < 0);
+    Assert.assertTrue(b2.compareTo(b1.subSequence(0, 16)) > 0);
+    Assert.assertTrue(b1.subSequence(0, 3).compareTo(Bytes.of("abd")) < 0);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testCompareNegOffset() {
     Bytes b1 = Bytes.of("abc");
@@ -424,4 +442,33 @@ public class BytesTest {
     Assert.assertEquals("c†𝔊e", new String(copyTo2));
   }
 
+  @Test
+  public void testInternalWrap() {
+    byte[] data = "abcdef".getBytes(StandardCharsets.UTF_8);
+    Bytes wrapped = InternalBytes.wrap(data, 1, 3);
+    Assert.assertEquals(Bytes.of("bcd"), wrapped);
+    Assert.assertSame(Bytes.EMPTY, InternalBytes.wrap(data, 2, 0));
+
+    // the byte buffer view spans the whole backing array, showing that it was not copied
+    ByteBuffer bb = wrapped.toByteBuffer();
+    Assert.assertEquals(data.length, bb.capacity());
+    Assert.assertEquals(1, bb.position());
+    Assert.assertEquals(3, Bytes.of(data, 1, 3).toByteBuffer().capacity());
+
+    try {
+      InternalBytes.wrap(data, 4, 3);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+
+    // the factory is set by Bytes and can not be replaced
+    try {
+      InternalBytes.setFactory(Bytes::of);
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
 }
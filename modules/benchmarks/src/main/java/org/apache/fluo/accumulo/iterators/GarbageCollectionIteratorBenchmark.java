@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.accumulo.iterators;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs {@link GarbageCollectionIterator} over columns with varying numbers of committed versions,
+ * simulating a full major compaction where every version except the latest can be dropped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GarbageCollectionIteratorBenchmark {
+
+  @Param({"1", "10", "1000"})
+  public int numVersions;
+
+  private SyntheticData data;
+  private IteratorEnvironment iterEnv;
+
+  @Setup
+  public void setup() {
+    data = new SyntheticData(10, 10, numVersions);
+    iterEnv = SyntheticData.newIteratorEnv(IteratorScope.majc, true);
+  }
+
+  @Benchmark
+  public int fullMajc() throws IOException {
+    GarbageCollectionIterator gci = new GarbageCollectionIterator();
+    gci.init(data.newSource(), Collections.singletonMap(GarbageCollectionIterator.GC_TIMESTAMP_OPT,
+        data.getMaxTimestamp() + ""), iterEnv);
+    gci.seek(new Range(), Collections.emptySet(), false);
+
+    int count = 0;
+    while (gci.hasTop()) {
+      count++;
+      gci.next();
+    }
+    return count;
+  }
+}
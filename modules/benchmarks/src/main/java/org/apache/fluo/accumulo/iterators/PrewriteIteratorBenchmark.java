@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.accumulo.iterators;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs {@link PrewriteIterator} the way a conditional mutation does, one freshly initialized
+ * iterator per column. None of the columns have a conflict so every column is fully checked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrewriteIteratorBenchmark {
+
+  @Param({"1", "10", "1000"})
+  public int numVersions;
+
+  private SyntheticData data;
+  private IteratorEnvironment iterEnv;
+  private List<Range> columns;
+  private IteratorSetting iterConf;
+
+  @Setup
+  public void setup() {
+    data = new SyntheticData(10, 10, numVersions);
+    iterEnv = SyntheticData.newIteratorEnv(IteratorScope.scan, false);
+    columns = data.getData().keySet().stream()
+        .map(k -> new Key(k.getRow(), k.getColumnFamily(), k.getColumnQualifier())).distinct()
+        .map(k -> new Range(k, true, k.followingKey(PartialKey.ROW_COLFAM_COLQUAL_COLVIS), false))
+        .collect(Collectors.toList());
+
+    iterConf = new IteratorSetting(10, PrewriteIterator.class);
+    PrewriteIterator.setSnaptime(iterConf, data.getMaxTimestamp() + 1);
+  }
+
+  @Benchmark
+  public int checkColumns() throws IOException {
+    int conflicts = 0;
+    for (Range range : columns) {
+      PrewriteIterator pi = new PrewriteIterator();
+      pi.init(data.newSource(), iterConf.getOptions(), iterEnv);
+      pi.seek(range, Collections.emptySet(), false);
+      if (pi.hasTop()) {
+        conflicts++;
+      }
+    }
+    return conflicts;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.accumulo.iterators;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.fluo.accumulo.util.ColumnType;
+import org.apache.fluo.accumulo.values.DelLockValue;
+import org.apache.fluo.accumulo.values.WriteValue;
+
+/**
+ * Generates sorted in memory Fluo table data that iterators can be run over without a tablet
+ * server. Each column has a chain of committed versions, where version {@code i} was started at
+ * {@code 10*i+10} and committed at {@code 10*i+15}.
+ */
+public class SyntheticData {
+
+  private final TreeMap<Key, Value> data = new TreeMap<>();
+  private final long maxTs;
+
+  public SyntheticData(int numRows, int numCols, int numVersions) {
+    byte[] val = new byte[32];
+    Arrays.fill(val, (byte) 'v');
+
+    long ts = 0;
+    for (int r = 0; r < numRows; r++) {
+      String row = String.format("r%08d", r);
+      for (int c = 0; c < numCols; c++) {
+        String cq = String.format("q%04d", c);
+        for (int v = 0; v < numVersions; v++) {
+          long startTs = 10L * v + 10;
+          long commitTs = startTs + 5;
+          ts = Math.max(ts, commitTs);
+
+          data.put(new Key(row, "f", cq, ColumnType.WRITE.encode(commitTs)),
+              new Value(WriteValue.encode(startTs, false, false)));
+          data.put(new Key(row, "f", cq, ColumnType.DEL_LOCK.encode(startTs)),
+              new Value(DelLockValue.encodeCommit(commitTs, false)));
+          data.put(new Key(row, "f", cq, ColumnType.DATA.encode(startTs)), new Value(val.clone()));
+        }
+      }
+    }
+
+    this.maxTs = ts;
+  }
+
+  public long getMaxTimestamp() {
+    return maxTs;
+  }
+
+  public int size() {
+    return data.size();
+  }
+
+  public SortedMap<Key, Value> getData() {
+    return data;
+  }
+
+  public SortedKeyValueIterator<Key, Value> newSource() {
+    return new SortedMapIterator(data);
+  }
+
+  static IteratorEnvironment newIteratorEnv(IteratorScope scope, boolean fullMajc) {
+    return new IteratorEnvironment() {
+      @Override
+      public IteratorScope getIteratorScope() {
+        return scope;
+      }
+
+      @Override
+      public boolean isFullMajorCompaction() {
+        return fullMajc;
+      }
+    };
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.accumulo.values;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures encoding and decoding of the values stored in lock and write columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValuesBenchmark {
+
+  private Bytes prow;
+  private Column pcol;
+  private byte[] encodedLock;
+  private byte[] encodedWrite;
+
+  @Setup
+  public void setup() {
+    prow = Bytes.of("r00000042");
+    pcol = new Column("family", "qualifier0042");
+    encodedLock = LockValue.encode(prow, pcol, true, false, false, 42L);
+    encodedWrite = WriteValue.encode(123456789L, true, false);
+  }
+
+  @Benchmark
+  public byte[] lockEncode() {
+    return LockValue.encode(prow, pcol, true, false, false, 42L);
+  }
+
+  @Benchmark
+  public LockValue lockDecode() {
+    return new LockValue(encodedLock);
+  }
+
+  @Benchmark
+  public byte[] writeEncode() {
+    return WriteValue.encode(123456789L, true, false);
+  }
+
+  @Benchmark
+  public long writeDecode() {
+    return WriteValue.getTimestamp(encodedWrite);
+  }
+}
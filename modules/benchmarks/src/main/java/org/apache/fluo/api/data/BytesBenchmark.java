@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.api.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link Bytes} operations that are used as map keys all over the transaction code.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BytesBenchmark {
+
+  @Param({"8", "32", "128"})
+  public int length;
+
+  private byte[] data;
+  private byte[] data3;
+  private String string;
+
+  private Bytes bytes1;
+  // same content as bytes1, but a different object
+  private Bytes bytes2;
+  // differs from bytes1 in the last byte
+  private Bytes bytes3;
+  // a view into a larger array, exercises the offset code paths
+  private Bytes slice;
+
+  @Setup
+  public void setup() {
+    Random rand = new Random(42);
+    data = new byte[length];
+    rand.nextBytes(data);
+
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) ('a' + rand.nextInt(26));
+    }
+    string = new String(chars);
+
+    bytes1 = Bytes.of(data);
+    bytes2 = Bytes.of(data);
+    data3 = data.clone();
+    data3[length - 1]++;
+    bytes3 = Bytes.of(data3);
+
+    byte[] padded = new byte[length + 2];
+    System.arraycopy(data, 0, padded, 1, length);
+    slice = Bytes.of(padded).subSequence(1, length + 1);
+  }
+
+  @Benchmark
+  public int compareToEqual() {
+    return bytes1.compareTo(bytes2);
+  }
+
+  @Benchmark
+  public int compareToLastByteDiffers() {
+    return bytes1.compareTo(bytes3);
+  }
+
+  @Benchmark
+  public int compareToSlice() {
+    return slice.compareTo(bytes2);
+  }
+
+  @Benchmark
+  public int compareToSliceLastByteDiffers() {
+    return slice.compareTo(bytes3);
+  }
+
+  /**
+   * Compares one byte at a time the way Bytes did before comparing 8 bytes at a time, as a baseline
+   * for {@link #compareToSliceLastByteDiffers()}.
+   */
+  @Benchmark
+  public int compareByteAtATimeBaseline() {
+    for (int i = 0; i < length; i++) {
+      int a = (data[i] & 0xff);
+      int b = (data3[i] & 0xff);
+      if (a != b) {
+        return a - b;
+      }
+    }
+    return 0;
+  }
+
+  @Benchmark
+  public boolean equalsLastByteDiffers() {
+    return bytes1.equals(bytes3);
+  }
+
+  @Benchmark
+  public boolean equalsEqual() {
+    return bytes1.equals(bytes2);
+  }
+
+  @Benchmark
+  public int hashCodeCached() {
+    return bytes1.hashCode();
+  }
+
+  @Benchmark
+  public int hashCodeNew() {
+    return Bytes.of(data).hashCode();
+  }
+
+  @Benchmark
+  public Bytes ofString() {
+    return Bytes.of(string);
+  }
+
+  @Benchmark
+  public Bytes ofByteArray() {
+    return Bytes.of(data);
+  }
+
+  @Benchmark
+  public byte[] getBytesBaseline() {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running the Fluo benchmarks. Accepts the same command line options as JMH, but
+ * writes machine readable JSON results unless another result format is requested. This makes it
+ * easy to compare results across Fluo versions.
+ */
+public class BenchmarkRunner {
+
+  public static final String DEFAULT_RESULT_FILE = "fluo-benchmarks.json";
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmdOpts = new CommandLineOptions(args);
+
+    if (cmdOpts.shouldHelp()) {
+      cmdOpts.showHelp();
+      return;
+    }
+
+    if (cmdOpts.shouldList()) {
+      new Runner(cmdOpts).list();
+      return;
+    }
+
+    ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOpts);
+
+    if (!cmdOpts.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+      if (!cmdOpts.getResult().hasValue()) {
+        builder.result(DEFAULT_RESULT_FILE);
+      }
+    }
+
+    new Runner(builder.build()).run();
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.impl;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Iterators;
+import org.apache.accumulo.core.client.ConditionalWriter;
+import org.apache.accumulo.core.data.ConditionalMutation;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.fluo.accumulo.util.ColumnType;
+import org.apache.fluo.api.config.FluoConfiguration;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumn;
+import org.apache.fluo.api.observer.Observer.NotificationType;
+import org.apache.fluo.core.async.AsyncConditionalWriter;
+import org.apache.fluo.core.observer.RegisteredObservers;
+import org.apache.fluo.core.oracle.OracleClient;
+import org.apache.fluo.core.oracle.Stamp;
+import org.apache.fluo.core.util.ByteUtil;
+import org.apache.fluo.core.util.ColumnUtil;
+import org.apache.fluo.core.util.FluoExecutors;
+import org.easymock.EasyMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Exercises the client side of {@link TransactionImpl} without Accumulo or Zookeeper. The
+ * environment is mocked and conditional mutations are accepted by an in memory conditional writer,
+ * so these benchmarks measure the cost of buffering writes, building commit mutations and
+ * processing results rather than any server side work.
+ *
+ * <p>
+ * EasyMock needs to define classes to mock {@link Environment}, which newer JVMs only allow when
+ * java.lang is opened. Older JVMs ignore the option.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+IgnoreUnrecognizedVMOptions",
+    "--add-opens=java.base/java.lang=ALL-UNNAMED"})
+@State(Scope.Benchmark)
+public class TransactionImplBenchmark {
+
+  /**
+   * A conditional writer that immediately accepts every mutation.
+   */
+  private static class AcceptingConditionalWriter implements ConditionalWriter {
+    @Override
+    public Iterator<Result> write(Iterator<ConditionalMutation> mutations) {
+      return Iterators.transform(mutations, this::write);
+    }
+
+    @Override
+    public Result write(ConditionalMutation mutation) {
+      return new Result(Status.ACCEPTED, mutation, "localhost");
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  @Param({"10", "100", "1000"})
+  public int numColumns;
+
+  private Environment env;
+  private ExecutorService commitExecutor;
+  private AsyncConditionalWriter acw;
+  private TransactorNode tnode;
+  private List<RowColumn> rowColumns;
+  private Bytes value;
+  private List<Entry<Key, Value>> scanResults;
+  private long startTs = 1;
+
+  @Setup
+  public void setup() {
+    FluoConfiguration config = new FluoConfiguration();
+
+    RegisteredObservers observers = EasyMock.createMock(RegisteredObservers.class);
+    EasyMock.expect(observers.getObservedColumns(EasyMock.anyObject(NotificationType.class)))
+        .andReturn(Collections.emptySet()).anyTimes();
+
+    env = EasyMock.createMock(Environment.class);
+    SharedResources resources = EasyMock.createMock(SharedResources.class);
+    EasyMock.expect(env.getConfiguration()).andReturn(config).anyTimes();
+    EasyMock.expect(env.getConfiguredObservers()).andReturn(observers).anyTimes();
+    EasyMock.expect(env.getSharedResources()).andReturn(resources).anyTimes();
+
+    TransactorID tid = EasyMock.createMock(TransactorID.class);
+    EasyMock.expect(tid.getLongID()).andReturn(42L).anyTimes();
+    tnode = EasyMock.createMock(TransactorNode.class);
+    EasyMock.expect(tnode.getTransactorID()).andReturn(tid).anyTimes();
+
+    Stamp stamp = EasyMock.createMock(Stamp.class);
+    EasyMock.expect(stamp.getGcTimestamp()).andReturn(0L).anyTimes();
+    OracleClient oracle = EasyMock.createMock(OracleClient.class);
+    EasyMock.expect(oracle.getStamp()).andReturn(stamp).anyTimes();
+
+    EasyMock.replay(observers, env, tid, tnode, stamp, oracle);
+
+    commitExecutor = FluoExecutors.newFixedThreadPool(4, "benchCommit");
+    ConditionalWriter cw = new AcceptingConditionalWriter();
+    acw = new AsyncConditionalWriter(env, cw);
+
+    EasyMock.expect(resources.getVisCache()).andReturn(new VisibilityCache(config)).anyTimes();
+    EasyMock.expect(resources.getConditionalWriter()).andReturn(cw).anyTimes();
+    EasyMock.expect(resources.getAsyncConditionalWriter()).andReturn(acw).anyTimes();
+    EasyMock.expect(resources.getBulkAsyncConditionalWriter()).andReturn(acw).anyTimes();
+    EasyMock.expect(resources.getAsyncCommitExecutor()).andReturn(commitExecutor).anyTimes();
+    EasyMock.expect(resources.getSyncCommitExecutor()).andReturn(commitExecutor).anyTimes();
+    EasyMock.expect(resources.getOracleClient()).andReturn(oracle).anyTimes();
+    EasyMock.expect(resources.getTimestampTracker())
+        .andReturn(EasyMock.createNiceMock(TimestampTracker.class)).anyTimes();
+    EasyMock.replay(resources);
+
+    rowColumns = new ArrayList<>();
+    scanResults = new ArrayList<>();
+    for (int i = 0; i < numColumns; i++) {
+      RowColumn rc = new RowColumn(String.format("r%08d", i / 10),
+          new Column("f", String.format("q%04d", i % 10)));
+      rowColumns.add(rc);
+      Key k = new Key(rc.getRow().toArray(), rc.getColumn().getFamily().toArray(),
+          rc.getColumn().getQualifier().toArray(), new byte[0], ColumnType.DATA.encode(10));
+      scanResults.add(new AbstractMap.SimpleImmutableEntry<>(k, new Value(new byte[32])));
+    }
+    value = Bytes.of(new byte[32]);
+  }
+
+  @TearDown
+  public void tearDown() {
+    acw.close();
+    commitExecutor.shutdownNow();
+  }
+
+  private TransactionImpl newTransactionWithWrites() {
+    TransactionImpl tx = new TransactionImpl(env, startTs++).setTransactor(tnode);
+    for (RowColumn rc : rowColumns) {
+      tx.set(rc.getRow(), rc.getColumn(), value);
+    }
+    return tx;
+  }
+
+  /**
+   * Buffers writes in a transaction.
+   */
+  @Benchmark
+  public long set() {
+    try (TransactionImpl tx = newTransactionWithWrites()) {
+      return tx.getSize();
+    }
+  }
+
+  /**
+   * Buffers writes and then locks them all, which builds and processes a conditional mutation per
+   * row.
+   */
+  @Benchmark
+  public boolean setAndPreCommit() {
+    try (TransactionImpl tx = newTransactionWithWrites()) {
+      return tx.preCommit(tx.createCommitData());
+    }
+  }
+
+  /**
+   * Converts key values returned by a snapshot scan into the map returned by a get, the client side
+   * work done for each cell read.
+   */
+  @Benchmark
+  public Map<Column, Bytes> convertReadResults() {
+    Map<Column, Bytes> ret = new HashMap<>();
+    for (Entry<Key, Value> kve : scanResults) {
+      ret.put(ColumnUtil.wrap(kve.getKey()), ByteUtil.wrap(kve.getValue().get()));
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds the write set of a transaction that sets 100k cells, the way {@code TransactionImpl}
+ * stores it. Rows, columns and values are created up front, so the memory allocated by an operation
+ * is the memory the maps retain for the write set. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm} for the two map types.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompactColumnMapBenchmark {
+
+  private static final int NUM_CELLS = 100_000;
+
+  @Param({"HashMap", "CompactColumnMap"})
+  public String mapType;
+
+  @Param({"4", "32", "1000"})
+  public int columnsPerRow;
+
+  private List<Bytes> rows;
+  private List<Column> columns;
+  private Bytes value;
+
+  @Setup
+  public void setup() {
+    rows = new ArrayList<>();
+    for (int i = 0; i < NUM_CELLS / columnsPerRow; i++) {
+      rows.add(Bytes.of(String.format("r%08d", i)));
+    }
+    // the transaction interns columns, so every row shares the same column objects
+    columns = new ArrayList<>();
+    for (int i = 0; i < columnsPerRow; i++) {
+      columns.add(new Column("f", String.format("q%04d", i)));
+    }
+    value = Bytes.of(new byte[32]);
+  }
+
+  private Map<Column, Bytes> newColumnMap() {
+    return mapType.equals("HashMap") ? new HashMap<>() : new CompactColumnMap<>();
+  }
+
+  @Benchmark
+  public Map<Bytes, Map<Column, Bytes>> writeSet() {
+    Map<Bytes, Map<Column, Bytes>> updates = new HashMap<>();
+    for (Bytes row : rows) {
+      Map<Column, Bytes> colUpdates = updates.computeIfAbsent(row, k -> newColumnMap());
+      for (Column col : columns) {
+        colUpdates.put(col, value);
+      }
+    }
+    return updates;
+  }
+}
@@ -15,41 +15,182 @@
 
 package org.apache.fluo.core.async;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableList.Builder;
 import org.apache.accumulo.core.client.ConditionalWriter;
 import org.apache.accumulo.core.client.ConditionalWriter.Result;
 import org.apache.accumulo.core.data.ConditionalMutation;
+import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.core.impl.Environment;
 import org.apache.fluo.core.impl.FluoConfigurationImpl;
 import org.apache.fluo.core.util.FluoExecutors;
 import org.apache.fluo.core.util.Limit;
 
+/**
+ * Writes conditional mutations for many concurrent commits. Mutations from all commits are queued
+ * and each writer thread sends everything queued in a single call to the conditional writer, which
+ * bins them by tablet server. Results are handed back to the commit that owns them as they arrive,
+ * so a thread is not pinned per commit. The memory used by queued and in flight mutations is
+ * limited by a byte budget.
+ */
 public class AsyncConditionalWriter {
 
   private final ConditionalWriter cw;
   private final ExecutorService es;
-  private final Limit semaphore;
+  private final Limit memoryLimit;
+  private final LinkedBlockingQueue<PendingMutation> queue = new LinkedBlockingQueue<>();
+  private volatile boolean closed = false;
+
+  // tracks the results for the mutations passed to a single call to apply()
+  private class PendingWrite {
+    private final Result[] results;
+    private final AtomicInteger remaining;
+    private final long bytes;
+    private final CompletableFuture<Iterator<Result>> future = new CompletableFuture<>();
+
+    PendingWrite(int size, long bytes) {
+      this.results = new Result[size];
+      this.remaining = new AtomicInteger(size);
+      this.bytes = bytes;
+    }
+
+    void setResult(int index, Result result) {
+      results[index] = result;
+      if (remaining.decrementAndGet() == 0) {
+        memoryLimit.release(bytes);
+        future.complete(Arrays.asList(results).iterator());
+      }
+    }
+
+    void fail(Exception e) {
+      // only the first failure releases memory
+      if (remaining.getAndSet(-1) > 0) {
+        memoryLimit.release(bytes);
+        future.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static class PendingMutation {
+    private final ConditionalMutation mutation;
+    private final PendingWrite write;
+    private final int index;
+
+    PendingMutation(ConditionalMutation mutation, PendingWrite write, int index) {
+      this.mutation = mutation;
+      this.write = write;
+      this.index = index;
+    }
+  }
 
+  private class WriteTask implements Runnable {
+
+    @Override
+    public void run() {
+      List<PendingMutation> batch = new ArrayList<>();
+
+      while (!closed) {
+        try {
+          batch.add(queue.take());
+        } catch (InterruptedException e) {
+          break;
+        }
+        queue.drainTo(batch);
+
+        write(batch);
+        batch.clear();
+      }
+
+      failQueued();
+    }
+
+    private void write(List<PendingMutation> batch) {
+      // The conditional writer returns copies of the mutations in results, so results are matched
+      // back to the pending mutation using the row. Concurrent commits may write the same row.
+      Map<Bytes, List<PendingMutation>> byRow = new HashMap<>();
+      List<ConditionalMutation> mutations = new ArrayList<>(batch.size());
+      for (PendingMutation pm : batch) {
+        byRow.computeIfAbsent(Bytes.of(pm.mutation.getRow()), k -> new ArrayList<>(1)).add(pm);
+        mutations.add(pm.mutation);
+      }
+
+      try {
+        Iterator<Result> iter = cw.write(mutations.iterator());
+        while (iter.hasNext()) {
+          Result result = iter.next();
+          PendingMutation pm = removeMatch(byRow, result.getMutation());
+          if (pm != null) {
+            pm.write.setResult(pm.index, result);
+          }
+        }
+      } catch (RuntimeException e) {
+        for (PendingMutation pm : batch) {
+          pm.write.fail(e);
+        }
+        return;
+      }
+
+      if (!byRow.isEmpty()) {
+        IllegalStateException ise =
+            new IllegalStateException("Conditional writer did not return a result for mutation");
+        byRow.values().forEach(pms -> pms.forEach(pm -> pm.write.fail(ise)));
+      }
+    }
+
+    private PendingMutation removeMatch(Map<Bytes, List<PendingMutation>> byRow,
+        ConditionalMutation cm) {
+      Bytes row = Bytes.of(cm.getRow());
+      List<PendingMutation> pms = byRow.get(row);
+      if (pms == null) {
+        return null;
+      }
+
+      PendingMutation match = null;
+      if (pms.size() == 1) {
+        match = pms.remove(0);
+      } else {
+        ConditionalMutation copy = new ConditionalMutation(cm);
+        for (Iterator<PendingMutation> pmIter = pms.iterator(); pmIter.hasNext();) {
+          PendingMutation pm = pmIter.next();
+          if (pm.mutation.equals(copy)) {
+            match = pm;
+            pmIter.remove();
+            break;
+          }
+        }
+      }
+
+      if (pms.isEmpty()) {
+        byRow.remove(row);
+      }
+      return match;
+    }
+  }
 
   public AsyncConditionalWriter(Environment env, ConditionalWriter cw) {
     this.cw = cw;
     int numThreads = env.getConfiguration().getInt(FluoConfigurationImpl.ASYNC_CW_THREADS,
         FluoConfigurationImpl.ASYNC_CW_THREADS_DEFAULT);
-    int permits = env.getConfiguration().getInt(FluoConfigurationImpl.ASYNC_CW_LIMIT,
-        FluoConfigurationImpl.ASYNC_CW_LIMIT_DEFAULT);
+    int maxMemory = FluoConfigurationImpl.getAsyncCWMaxMemory(env.getConfiguration());
     this.es = FluoExecutors.newFixedThreadPool(numThreads, "asyncCw");
-    // the conditional writer currently has not memory limits... give it too much and it blows out
-    // memory.. need to fix this in conditional writer
-    // for now this needs to be memory based
-    this.semaphore = new Limit(permits);
+    // the conditional writer currently has no memory limits... give it too much and it blows out
+    // memory, so limit the bytes of mutations queued and in flight
+    this.memoryLimit = new Limit(maxMemory);
+    for (int i = 0; i < numThreads; i++) {
+      es.execute(new WriteTask());
+    }
   }
 
   public CompletableFuture<Iterator<Result>> apply(Collection<ConditionalMutation> input) {
@@ -57,28 +198,45 @@ public class AsyncConditionalWriter {
       return CompletableFuture.completedFuture(Collections.<Result>emptyList().iterator());
     }
 
-    semaphore.acquire(input.size());
-    Iterator<Result> iter = cw.write(input.iterator());
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        Builder<Result> imlb = ImmutableList.builder();
-        while (iter.hasNext()) {
-          Result result = iter.next();
-          imlb.add(result);
-        }
-        return imlb.build().iterator();
-      } finally {
-        semaphore.release(input.size());
-      }
-    }, es);
+    long bytes = 0;
+    for (ConditionalMutation cm : input) {
+      bytes += cm.numBytes();
+    }
+
+    PendingWrite write = new PendingWrite(input.size(), bytes);
+    memoryLimit.acquire(write.bytes);
+
+    int index = 0;
+    List<PendingMutation> pending = new ArrayList<>(input.size());
+    for (ConditionalMutation cm : input) {
+      pending.add(new PendingMutation(cm, write, index++));
+    }
+    queue.addAll(pending);
+
+    if (closed) {
+      failQueued();
+    }
+
+    return write.future;
+  }
+
+  private void failQueued() {
+    List<PendingMutation> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    IllegalStateException ise = new IllegalStateException("AsyncConditionalWriter is closed");
+    for (PendingMutation pm : remaining) {
+      pm.write.fail(ise);
+    }
   }
 
   public void close() {
+    closed = true;
     es.shutdownNow();
     try {
       es.awaitTermination(5, TimeUnit.SECONDS);
     } catch (InterruptedException e) {
       throw new RuntimeException(e);
     }
+    failQueued();
   }
 }
@@ -21,7 +21,7 @@ import org.apache.fluo.core.impl.TxStats;
 public interface AsyncTransaction extends Transaction {
   TxStats getStats();
 
-  int getSize();
+  long getSize();
 
   void commitAsync(AsyncCommitObserver commitCallback);
 }
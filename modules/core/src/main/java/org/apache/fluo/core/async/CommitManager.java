@@ -16,12 +16,17 @@
 package org.apache.fluo.core.async;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.apache.fluo.core.impl.Environment;
 import org.apache.fluo.core.impl.FluoConfigurationImpl;
+import org.apache.fluo.core.metrics.MetricNames;
+import org.apache.fluo.core.metrics.MetricsUtil;
 import org.apache.fluo.core.util.Limit;
 import org.apache.fluo.core.worker.TxResult;
 import org.slf4j.LoggerFactory;
@@ -39,14 +44,19 @@ public class CommitManager {
 
   private Limit memoryLimit;
   private AtomicInteger commitingTransactions;
+  private Timer memoryWaitTimer;
 
   public CommitManager(final Environment env) {
     memoryLimit = new Limit(FluoConfigurationImpl.getTxCommitMemory(env.getConfiguration()));
     commitingTransactions = new AtomicInteger(0);
 
-    env.getSharedResources().getMetricRegistry().register(
-        env.getMetricNames().getCommitsProcessing(),
+    MetricRegistry registry = env.getSharedResources().getMetricRegistry();
+    MetricNames names = env.getMetricNames();
+    registry.register(names.getCommitsProcessing(),
         (Gauge<Integer>) () -> commitingTransactions.get());
+    registry.register(names.getCommitMemory(), (Gauge<Long>) () -> memoryLimit.leased());
+    memoryWaitTimer =
+        MetricsUtil.getTimer(env.getConfiguration(), registry, names.getCommitMemoryWait());
   }
 
 
@@ -54,7 +64,7 @@ public class CommitManager {
 
     private final AsyncTransaction tx;
     private final AsyncCommitObserver aco;
-    private final int size;
+    private final long size;
     private final AtomicBoolean finished = new AtomicBoolean(false);
     private final String alias;
 
@@ -72,7 +82,7 @@ public class CommitManager {
       }
     }
 
-    public CQCommitObserver(AsyncTransaction tx, AsyncCommitObserver aco, String alias, int size) {
+    public CQCommitObserver(AsyncTransaction tx, AsyncCommitObserver aco, String alias, long size) {
       this.tx = tx;
       this.aco = aco;
       this.size = size;
@@ -126,8 +136,10 @@ public class CommitManager {
     Objects.requireNonNull(alias);
     Objects.requireNonNull(aco);
 
-    int size = tx.getSize();
+    long size = tx.getSize();
+    long t1 = System.nanoTime();
     memoryLimit.acquire(size);
+    memoryWaitTimer.update(System.nanoTime() - t1, TimeUnit.NANOSECONDS);
     commitingTransactions.incrementAndGet();
     CQCommitObserver myAco = new CQCommitObserver(tx, aco, alias, size);
     tx.getStats().setCommitBeginTime(System.currentTimeMillis());
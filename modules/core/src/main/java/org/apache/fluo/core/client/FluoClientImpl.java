@@ -16,6 +16,7 @@
 package org.apache.fluo.core.client;
 
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -28,6 +29,7 @@ import org.apache.fluo.api.config.FluoConfiguration;
 import org.apache.fluo.api.config.SimpleConfiguration;
 import org.apache.fluo.api.metrics.MetricsReporter;
 import org.apache.fluo.core.impl.Environment;
+import org.apache.fluo.core.impl.FluoConfigurationImpl;
 import org.apache.fluo.core.impl.TransactionImpl;
 import org.apache.fluo.core.log.TracingTransaction;
 import org.apache.fluo.core.metrics.ReporterUtil;
@@ -45,6 +47,7 @@ public class FluoClientImpl implements FluoClient {
   private FluoConfiguration config;
   private Environment env;
   private AutoCloseable reporter;
+  private long snapshotMaxStalenessMs;
 
   public static final AutoCloseable setupReporters(Environment env, String id,
       AtomicInteger reporterCounter) {
@@ -58,6 +61,8 @@ public class FluoClientImpl implements FluoClient {
         "missing required connection properties");
     config = FluoAdminImpl.mergeZookeeperConfig(connConfig);
     Preconditions.checkArgument(config.hasRequiredClientProps());
+    snapshotMaxStalenessMs =
+        FluoConfigurationImpl.getSnapshotMaxStaleness(config, TimeUnit.MILLISECONDS);
     try {
       this.env = new Environment(config);
     } catch (Exception e) {
@@ -78,7 +83,13 @@ public class FluoClientImpl implements FluoClient {
 
   @Override
   public Snapshot newSnapshot() {
-    TransactionImpl tx = new TransactionImpl(env);
+    TransactionImpl tx;
+    if (snapshotMaxStalenessMs > 0) {
+      tx = TransactionImpl.newBoundedStalenessSnapshot(env, snapshotMaxStalenessMs,
+          TimeUnit.MILLISECONDS);
+    } else {
+      tx = new TransactionImpl(env);
+    }
     if (TracingTransaction.isTracingEnabled()) {
       return new TracingTransaction(tx);
     }
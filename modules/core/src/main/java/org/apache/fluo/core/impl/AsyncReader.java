@@ -4,9 +4,9 @@
  * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
  * "License"); you may not use this file except in compliance with the License. You may obtain a
  * copy of the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software distributed under the License
  * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
  * or implied. See the License for the specific language governing permissions and limitations under
@@ -17,29 +17,45 @@ package org.apache.fluo.core.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
-import com.google.common.collect.Collections2;
 import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Column;
 import org.apache.fluo.api.data.RowColumn;
-import org.apache.fluo.core.impl.TransactionImpl;
 
+/**
+ * Runs the asynchronous gets of a transaction on an executor shared by all transactions. Gets that
+ * arrive while a read is running are batched into the next read, so a transaction has at most one
+ * read running at a time. This is needed because a transaction is not thread safe. A read blocks
+ * the thread running it, so the executor bounds how many transactions read at once and reads of
+ * other transactions wait in its queue.
+ */
 public class AsyncReader {
-  private BlockingQueue<AsyncGet> asyncGetsQueue;
-  private ExecutorService executorService;
-  private TransactionImpl tx;
-
-  public AsyncReader(TransactionImpl tx) {
-    this.tx = tx;
-    asyncGetsQueue = new LinkedBlockingQueue<>();
-    executorService = Executors.newSingleThreadExecutor();
+  private final Queue<AsyncGet> asyncGetsQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean readScheduled = new AtomicBoolean(false);
+  private final Executor executor;
+  private final Function<Collection<RowColumn>, Map<RowColumn, Bytes>> reader;
+  private volatile boolean closed = false;
+
+  /**
+   * @param reader reads the values of row columns for a transaction
+   */
+  public AsyncReader(Function<Collection<RowColumn>, Map<RowColumn, Bytes>> reader,
+      Executor executor) {
+    this.reader = reader;
+    this.executor = executor;
   }
 
   public CompletableFuture<Bytes> get(Bytes row, Column column) {
@@ -47,30 +63,22 @@ public class AsyncReader {
   }
 
   public CompletableFuture<Bytes> get(Bytes row, Column column, Bytes defaultValue) {
-    AsyncGet curAsyncGet = new AsyncGet(row, column, defaultValue);
-    asyncGetsQueue.add(curAsyncGet);
-
-    executorService.submit(() -> {
-      List<AsyncGet> getsList = new ArrayList<>();
-      asyncGetsQueue.drainTo(getsList);
-
-      try {
-        Collection<RowColumn> rowColumns = Collections2.transform(getsList, ag -> ag.rc);
-
-        Map<RowColumn, Bytes> getsMap = tx.get(rowColumns);
-
-        for (AsyncGet asyncGet : getsList) {
-          Bytes result = getsMap.get(asyncGet.rc);
-          asyncGet.res.complete(result == null ? asyncGet.defaultValue : result);
-        }
-      } catch (Exception e) {
-        for (AsyncGet asyncGet : getsList) {
-          asyncGet.res.completeExceptionally(e);
-        }
-      }
+    RowColumn rc = new RowColumn(row, column);
+    return get(Collections.singleton(rc)).thenApply(results -> {
+      Bytes result = results.get(rc);
+      return result == null ? defaultValue : result;
     });
+  }
 
-    return curAsyncGet.res;
+  public CompletableFuture<Map<RowColumn, Bytes>> get(Collection<RowColumn> rowColumns) {
+    AsyncGet asyncGet = new AsyncGet(rowColumns);
+    if (closed) {
+      asyncGet.res.completeExceptionally(new IllegalStateException("Transaction is closed"));
+    } else {
+      asyncGetsQueue.add(asyncGet);
+      scheduleRead();
+    }
+    return asyncGet.res;
   }
 
   public CompletableFuture<String> gets(String row, Column column) {
@@ -82,19 +90,79 @@ public class AsyncReader {
     return get(Bytes.of(row), column, defaultValueBytes).thenApply(b -> b.toString());
   }
 
+  private void scheduleRead() {
+    if (!asyncGetsQueue.isEmpty() && readScheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::read);
+      } catch (RejectedExecutionException e) {
+        readScheduled.set(false);
+        failQueued(e);
+      }
+    }
+  }
+
+  private void read() {
+    List<AsyncGet> getsList = new ArrayList<>();
+    try {
+      AsyncGet asyncGet;
+      while ((asyncGet = asyncGetsQueue.poll()) != null) {
+        getsList.add(asyncGet);
+      }
+
+      if (!getsList.isEmpty()) {
+        Set<RowColumn> rowColumns = new HashSet<>();
+        for (AsyncGet ag : getsList) {
+          rowColumns.addAll(ag.rowColumns);
+        }
+
+        Map<RowColumn, Bytes> getsMap = reader.apply(rowColumns);
+
+        for (AsyncGet ag : getsList) {
+          ag.complete(getsMap);
+        }
+      }
+    } catch (Exception e) {
+      for (AsyncGet asyncGet : getsList) {
+        asyncGet.res.completeExceptionally(e);
+      }
+    } finally {
+      readScheduled.set(false);
+    }
+
+    // gets may have been queued after the queue was drained
+    scheduleRead();
+  }
+
+  private void failQueued(Exception e) {
+    AsyncGet asyncGet;
+    while ((asyncGet = asyncGetsQueue.poll()) != null) {
+      asyncGet.res.completeExceptionally(e);
+    }
+  }
+
   public void close() {
-    executorService.shutdown();
+    closed = true;
+    failQueued(new IllegalStateException("Transaction is closed"));
   }
 
   static class AsyncGet {
-    RowColumn rc;
-    CompletableFuture<Bytes> res;
-    Bytes defaultValue;
+    Collection<RowColumn> rowColumns;
+    CompletableFuture<Map<RowColumn, Bytes>> res;
 
-    public AsyncGet(Bytes row, Column column, Bytes defaultValue) {
-      rc = new RowColumn(row, column);
+    public AsyncGet(Collection<RowColumn> rowColumns) {
+      this.rowColumns = rowColumns;
       res = new CompletableFuture<>();
-      this.defaultValue = defaultValue;
+    }
+
+    void complete(Map<RowColumn, Bytes> getsMap) {
+      Map<RowColumn, Bytes> results = new HashMap<>();
+      for (RowColumn rc : rowColumns) {
+        Bytes val = getsMap.get(rc);
+        if (val != null) {
+          results.put(rc, val);
+        }
+      }
+      res.complete(results);
     }
   }
 }
@@ -28,6 +28,83 @@ public class FluoConfigurationImpl {
   public static final String FLUO_IMPL_PREFIX = FluoConfiguration.FLUO_PREFIX + ".impl";
 
   public static final String ORACLE_PORT_PROP = FLUO_IMPL_PREFIX + ".oracle.port";
+
+  // The oracle reserves blocks of timestamps in Zookeeper. The size of a block adapts to the rate
+  // timestamps are requested, aiming for one Zookeeper update per target period.
+  public static final String ORACLE_BLOCK_MIN_PROP = FLUO_IMPL_PREFIX + ".oracle.block.min";
+  public static final long ORACLE_BLOCK_MIN_DEFAULT = 1000;
+  public static final String ORACLE_BLOCK_MAX_PROP = FLUO_IMPL_PREFIX + ".oracle.block.max";
+  public static final long ORACLE_BLOCK_MAX_DEFAULT = 1_000_000;
+  public static final String ORACLE_BLOCK_PERIOD_PROP =
+      FLUO_IMPL_PREFIX + ".oracle.block.period.ms";
+  public static final long ORACLE_BLOCK_PERIOD_MS_DEFAULT = 1000;
+
+  public static long getOracleMinBlockSize(FluoConfiguration conf) {
+    long min = conf.getLong(ORACLE_BLOCK_MIN_PROP, ORACLE_BLOCK_MIN_DEFAULT);
+    long max = conf.getLong(ORACLE_BLOCK_MAX_PROP, ORACLE_BLOCK_MAX_DEFAULT);
+    if (min <= 0 || min > max) {
+      throw new IllegalArgumentException("Bad oracle block size props " + min + " " + max);
+    }
+    return min;
+  }
+
+  public static long getOracleMaxBlockSize(FluoConfiguration conf) {
+    long max = conf.getLong(ORACLE_BLOCK_MAX_PROP, ORACLE_BLOCK_MAX_DEFAULT);
+    if (max < getOracleMinBlockSize(conf)) {
+      throw new IllegalArgumentException("Bad value for " + ORACLE_BLOCK_MAX_PROP + " " + max);
+    }
+    return max;
+  }
+
+  public static long getOracleBlockPeriod(FluoConfiguration conf, TimeUnit tu) {
+    long millis = conf.getLong(ORACLE_BLOCK_PERIOD_PROP, ORACLE_BLOCK_PERIOD_MS_DEFAULT);
+    if (millis <= 0) {
+      throw new IllegalArgumentException("Period must be positive for " + ORACLE_BLOCK_PERIOD_PROP);
+    }
+    return tu.convert(millis, TimeUnit.MILLISECONDS);
+  }
+
+  // The oracle client may wait a short time to gather more timestamp requests into one RPC. The
+  // wait adapts to the arrival rate and oracle response time, this property only bounds it.
+  public static final String ORACLE_CLIENT_BATCH_WINDOW_PROP =
+      FLUO_IMPL_PREFIX + ".oracle.client.batch.window.max.us";
+  public static final long ORACLE_CLIENT_BATCH_WINDOW_US_DEFAULT = 500;
+  public static final String ORACLE_CLIENT_RPCS_PROP = FLUO_IMPL_PREFIX + ".oracle.client.rpcs.max";
+  public static final int ORACLE_CLIENT_RPCS_DEFAULT = 1;
+
+  public static long getOracleClientBatchWindow(FluoConfiguration conf, TimeUnit tu) {
+    long micros =
+        conf.getLong(ORACLE_CLIENT_BATCH_WINDOW_PROP, ORACLE_CLIENT_BATCH_WINDOW_US_DEFAULT);
+    if (micros < 0) {
+      throw new IllegalArgumentException(
+          "Bad value for " + ORACLE_CLIENT_BATCH_WINDOW_PROP + " " + micros);
+    }
+    return tu.convert(micros, TimeUnit.MICROSECONDS);
+  }
+
+  public static int getOracleClientMaxRpcs(FluoConfiguration conf) {
+    int rpcs = conf.getInt(ORACLE_CLIENT_RPCS_PROP, ORACLE_CLIENT_RPCS_DEFAULT);
+    if (rpcs <= 0) {
+      throw new IllegalArgumentException("Bad value for " + ORACLE_CLIENT_RPCS_PROP + " " + rpcs);
+    }
+    return rpcs;
+  }
+
+  // Snapshots opened by a client may reuse a start timestamp requested from the oracle up to this
+  // long ago, trading a bounded amount of staleness for fewer oracle requests. Zero disables.
+  public static final String SNAPSHOT_MAX_STALENESS_PROP =
+      FLUO_IMPL_PREFIX + ".client.snapshot.staleness.max.ms";
+  public static final long SNAPSHOT_MAX_STALENESS_MS_DEFAULT = 0;
+
+  public static long getSnapshotMaxStaleness(FluoConfiguration conf, TimeUnit tu) {
+    long millis = conf.getLong(SNAPSHOT_MAX_STALENESS_PROP, SNAPSHOT_MAX_STALENESS_MS_DEFAULT);
+    if (millis < 0) {
+      throw new IllegalArgumentException(
+          "Bad value for " + SNAPSHOT_MAX_STALENESS_PROP + " " + millis);
+    }
+    return tu.convert(millis, TimeUnit.MILLISECONDS);
+  }
+
   public static final String WORKER_FINDER_PROP = FLUO_IMPL_PREFIX + ".worker.finder";
   public static final String WORKER_PARTITION_GROUP_SIZE =
       FLUO_IMPL_PREFIX + ".worker.finder.partition.groupSize";
@@ -40,6 +117,107 @@ public class FluoConfigurationImpl {
       FLUO_IMPL_PREFIX + ".worker.finder.maxSleep";
   public static final int NTFY_FINDER_MAX_SLEEP_TIME_DEFAULT = 5 * 60 * 1000;
 
+  // Number of tablets a worker scans for notifications concurrently
+  public static final String NTFY_FINDER_SCAN_THREADS_PROP =
+      FLUO_IMPL_PREFIX + ".worker.finder.scanThreads";
+  public static final int NTFY_FINDER_SCAN_THREADS_DEFAULT = 4;
+
+  public static int getNotificationFinderScanThreads(FluoConfiguration conf) {
+    int t = conf.getInt(NTFY_FINDER_SCAN_THREADS_PROP, NTFY_FINDER_SCAN_THREADS_DEFAULT);
+    if (t <= 0) {
+      throw new IllegalArgumentException(
+          "Bad value for " + NTFY_FINDER_SCAN_THREADS_PROP + " " + t);
+    }
+    return t;
+  }
+
+  // Notifications written by transactions committed in the same process as a worker are handed to
+  // its finder through a queue of this size, so they can run before the next scan. Zero disables.
+  public static final String NTFY_FINDER_PUSH_QUEUE_PROP =
+      FLUO_IMPL_PREFIX + ".worker.finder.push.queue.max";
+  public static final int NTFY_FINDER_PUSH_QUEUE_DEFAULT = 10000;
+
+  public static int getNotificationPushQueueSize(FluoConfiguration conf) {
+    int s = conf.getInt(NTFY_FINDER_PUSH_QUEUE_PROP, NTFY_FINDER_PUSH_QUEUE_DEFAULT);
+    if (s < 0) {
+      throw new IllegalArgumentException("Bad value for " + NTFY_FINDER_PUSH_QUEUE_PROP + " " + s);
+    }
+    return s;
+  }
+
+  // Max memory used by the row and columns of notifications queued for processing in a worker. When
+  // full, finding notifications will wait for queued notifications to be processed.
+  public static final String WORKER_NTFY_MEMORY_PROP = FLUO_IMPL_PREFIX + ".worker.ntfy.memory.max";
+  public static final long WORKER_NTFY_MEMORY_DEFAULT = 1 << 24;
+
+  public static long getWorkerNotificationMaxMemory(FluoConfiguration conf) {
+    long m = conf.getLong(WORKER_NTFY_MEMORY_PROP, WORKER_NTFY_MEMORY_DEFAULT);
+    if (m <= 0) {
+      throw new IllegalArgumentException("Bad value for " + WORKER_NTFY_MEMORY_PROP + " " + m);
+    }
+    return m;
+  }
+
+  // Weak notifications found by a worker wait this long before being queued for processing. Newer
+  // notifications for the same row and column found while waiting replace the waiting one, so a
+  // burst is processed once. Zero disables.
+  public static final String WORKER_WEAK_DEBOUNCE_PROP =
+      FLUO_IMPL_PREFIX + ".worker.ntfy.weak.debounce.ms";
+  public static final long WORKER_WEAK_DEBOUNCE_MS_DEFAULT = 0;
+
+  public static long getWorkerWeakDebounce(FluoConfiguration conf, TimeUnit tu) {
+    long millis = conf.getLong(WORKER_WEAK_DEBOUNCE_PROP, WORKER_WEAK_DEBOUNCE_MS_DEFAULT);
+    if (millis < 0) {
+      throw new IllegalArgumentException(
+          "Bad value for " + WORKER_WEAK_DEBOUNCE_PROP + " " + millis);
+    }
+    return tu.convert(millis, TimeUnit.MILLISECONDS);
+  }
+
+  // When greater than zero, workers run each notification on its own virtual thread and this is the
+  // max number running at once, instead of using a pool of fluo.worker.num.threads platform
+  // threads.
+  // Needs a JDK with virtual threads, otherwise workers fall back to the platform thread pool.
+  public static final String WORKER_VIRTUAL_THREADS_PROP =
+      FLUO_IMPL_PREFIX + ".worker.virtual.threads.max";
+  public static final int WORKER_VIRTUAL_THREADS_DEFAULT = 0;
+
+  public static int getWorkerVirtualThreads(FluoConfiguration conf) {
+    int t = conf.getInt(WORKER_VIRTUAL_THREADS_PROP, WORKER_VIRTUAL_THREADS_DEFAULT);
+    if (t < 0) {
+      throw new IllegalArgumentException("Bad value for " + WORKER_VIRTUAL_THREADS_PROP + " " + t);
+    }
+    return t;
+  }
+
+  // Extra time the shared batch writer waits for more mutations to join a group before flushing it,
+  // when no flush is in flight. Zero flushes an idle writer at once. Mutations written while a
+  // flush
+  // is in flight always accumulate into the next group.
+  public static final String BW_GROUP_LATENCY_PROP = FLUO_IMPL_PREFIX + ".bw.group.latency.max.ms";
+  public static final long BW_GROUP_LATENCY_DEFAULT = 0;
+
+  public static long getBWGroupMaxLatency(FluoConfiguration conf, TimeUnit tu) {
+    long millis = conf.getLong(BW_GROUP_LATENCY_PROP, BW_GROUP_LATENCY_DEFAULT);
+    if (millis < 0) {
+      throw new IllegalArgumentException("Bad value for " + BW_GROUP_LATENCY_PROP + " " + millis);
+    }
+    return tu.convert(millis, TimeUnit.MILLISECONDS);
+  }
+
+  // Size in bytes at which a group of mutations is flushed without waiting. Writers block while the
+  // next group is this full and a flush is in flight.
+  public static final String BW_GROUP_BYTES_PROP = FLUO_IMPL_PREFIX + ".bw.group.bytes.max";
+  public static final long BW_GROUP_BYTES_DEFAULT = 1 << 24;
+
+  public static long getBWGroupMaxBytes(FluoConfiguration conf) {
+    long b = conf.getLong(BW_GROUP_BYTES_PROP, BW_GROUP_BYTES_DEFAULT);
+    if (b <= 0) {
+      throw new IllegalArgumentException("Bad value for " + BW_GROUP_BYTES_PROP + " " + b);
+    }
+    return b;
+  }
+
   public static final String ACCUMULO_JARS_REGEX_PROP = FLUO_IMPL_PREFIX + ".accumulo.jars.regex";
   public static final String ACCUMULO_JARS_REGEX_DEFAULT = "^fluo-(api|accumulo).*";
 
@@ -91,6 +269,31 @@ public class FluoConfigurationImpl {
     return numThreads;
   }
 
+  // Max number of query threads used by a batch scanner when reading multiple rows or cells. The
+  // number used for a read is the number of tablets the read spans, capped by this max.
+  public static final String SCAN_MAX_THREADS_PROP = FLUO_IMPL_PREFIX + ".scan.threads.max";
+  public static final int SCAN_MAX_THREADS_DEFAULT = 8;
+
+  public static int getMaxScanThreads(FluoConfiguration conf) {
+    int max = conf.getInt(SCAN_MAX_THREADS_PROP, SCAN_MAX_THREADS_DEFAULT);
+    if (max <= 0) {
+      throw new IllegalArgumentException("Bad value for " + SCAN_MAX_THREADS_PROP + " " + max);
+    }
+    return max;
+  }
+
+  // Max number of cells a transaction caches from its reads, zero disables the cache
+  public static final String TX_READ_CACHE_SIZE_PROP = FLUO_IMPL_PREFIX + ".tx.read.cache.size";
+  public static final int TX_READ_CACHE_SIZE_DEFAULT = 10_000;
+
+  public static int getTxReadCacheSize(FluoConfiguration conf) {
+    int size = conf.getInt(TX_READ_CACHE_SIZE_PROP, TX_READ_CACHE_SIZE_DEFAULT);
+    if (size < 0) {
+      throw new IllegalArgumentException("Bad value for " + TX_READ_CACHE_SIZE_PROP + " " + size);
+    }
+    return size;
+  }
+
   // max memory to buffer committing transactions.. when this is full submitting transactions for
   // commit will wait
   public static final String COMMIT_MEMORY_PROP = FLUO_IMPL_PREFIX + ".tx.commit.memory";
@@ -222,12 +425,28 @@ public class FluoConfigurationImpl {
 
   public static final String ASYNC_CW_THREADS = FLUO_IMPL_PREFIX + ".async.cw.threads";
   public static final int ASYNC_CW_THREADS_DEFAULT = 8;
-  public static final String ASYNC_CW_LIMIT = FLUO_IMPL_PREFIX + ".async.cw.limit";
-  public static final int ASYNC_CW_LIMIT_DEFAULT = 100000;
+  // Max bytes of conditional mutations queued or in flight in an async conditional writer. Commits
+  // block when this is exceeded.
+  public static final String ASYNC_CW_MEMORY_PROP = FLUO_IMPL_PREFIX + ".async.cw.memory.max";
+  public static final int ASYNC_CW_MEMORY_DEFAULT = 1 << 26;
+
+  public static int getAsyncCWMaxMemory(FluoConfiguration conf) {
+    int m = conf.getInt(ASYNC_CW_MEMORY_PROP, ASYNC_CW_MEMORY_DEFAULT);
+    if (m <= 0) {
+      throw new IllegalArgumentException("Bad value for " + ASYNC_CW_MEMORY_PROP + " " + m);
+    }
+    return m;
+  }
 
   public static final String ASYNC_COMMIT_THREADS = FLUO_IMPL_PREFIX + ".tx.commit.threads.async";
   public static final int ASYNC_COMMIT_THREADS_DEFAULT = 8;
 
+  // Max number of async gets running at once, across all transactions in a process. Each running
+  // get blocks a thread until Accumulo returns its data, further gets wait in a queue. The threads
+  // are virtual when workers use virtual threads, otherwise this is the size of a thread pool.
+  public static final String ASYNC_READ_THREADS = FLUO_IMPL_PREFIX + ".tx.read.threads.async";
+  public static final int ASYNC_READ_THREADS_DEFAULT = 16;
+
   public static final String SYNC_COMMIT_THREADS = FLUO_IMPL_PREFIX + ".tx.commit.threads.sync";
   public static final int SYNC_COMMIT_THREADS_DEFAULT = 32;
 }
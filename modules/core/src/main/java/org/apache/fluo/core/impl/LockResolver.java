@@ -273,7 +273,7 @@ public class LockResolver {
       }
 
       Mutation mut = getMutation(lockInfo.entry.getKey().getRowData(), mutations);
-      Column col = ColumnUtil.convert(lockInfo.entry.getKey());
+      Column col = ColumnUtil.wrap(lockInfo.entry.getKey());
 
       if (lockInfo.isReadLock) {
         ColumnUtil.commitColumn(env, false, false, col, false, false, true, lockTs, commitTs,
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passes the notifications written by transactions that committed in this process to workers of the
+ * same application running in this process, so they can be processed without waiting for the next
+ * scan of the notification column. Delivery is best effort, the periodic scan remains responsible
+ * for finding every notification.
+ */
+public class NotificationBus {
+
+  private static final Logger log = LoggerFactory.getLogger(NotificationBus.class);
+
+  private static final Map<String, List<Consumer<Collection<Notification>>>> subscribers =
+      new ConcurrentHashMap<>();
+
+  private NotificationBus() {}
+
+  /**
+   * The subscriber is called on the thread that completed a commit, so it must not block.
+   */
+  public static void subscribe(String fluoAppId, Consumer<Collection<Notification>> subscriber) {
+    subscribers.computeIfAbsent(fluoAppId, k -> new CopyOnWriteArrayList<>()).add(subscriber);
+  }
+
+  public static void unsubscribe(String fluoAppId, Consumer<Collection<Notification>> subscriber) {
+    subscribers.computeIfPresent(fluoAppId, (k, subs) -> {
+      subs.remove(subscriber);
+      return subs.isEmpty() ? null : subs;
+    });
+  }
+
+  /**
+   * Lets transactions skip collecting the notifications they write when nobody would receive them.
+   */
+  public static boolean hasSubscribers(String fluoAppId) {
+    return subscribers.containsKey(fluoAppId);
+  }
+
+  static void publish(String fluoAppId, Collection<Notification> notifications) {
+    if (notifications.isEmpty()) {
+      return;
+    }
+
+    List<Consumer<Collection<Notification>>> subs = subscribers.get(fluoAppId);
+    if (subs == null) {
+      return;
+    }
+
+    for (Consumer<Collection<Notification>> subscriber : subs) {
+      try {
+        subscriber.accept(notifications);
+      } catch (RuntimeException e) {
+        log.warn("Failed to publish notifications", e);
+      }
+    }
+  }
+}
@@ -27,6 +27,8 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.ByteSequence;
@@ -88,47 +90,71 @@ public class ParallelSnapshotScanner {
     this.env = env;
     this.startTs = startTs;
     this.stats = stats;
-    this.rowConverter = ByteUtil::toBytes;
-    this.columnConverter = ColumnUtil::convert;
+    this.rowConverter = ByteUtil::wrap;
+    this.columnConverter = ColumnUtil::wrap;
     this.readLocksSeen = readLocksSeen;
     this.writeLocksSeen = writeLocksSeen;
   }
 
   private BatchScanner setupBatchScanner() {
 
-    BatchScanner scanner;
-    try {
-      // TODO hardcoded number of threads!
-      // one thread is probably good.. going for throughput
-      scanner =
-          env.getAccumuloClient().createBatchScanner(env.getTable(), env.getAuthorizations(), 1);
-    } catch (TableNotFoundException e) {
-      throw new RuntimeException(e);
-    }
-
-    scanner.clearColumns();
-    scanner.clearScanIterators();
+    List<Range> ranges;
+    Set<Column> fetchColumns;
 
     if (!rangesToScan.isEmpty()) {
-      scanner.setRanges(rangesToScan);
-      SnapshotScanner.setupScanner(scanner, Collections.<Column>emptySet(), startTs, true);
+      ranges = rangesToScan;
+      fetchColumns = Collections.<Column>emptySet();
     } else if (rows != null) {
-      List<Range> ranges = new ArrayList<>(rows.size());
+      ranges = new ArrayList<>(rows.size());
 
       for (Bytes row : rows) {
         ranges.add(Range.exact(ByteUtil.toText(row)));
       }
 
-      scanner.setRanges(ranges);
-
-      SnapshotScanner.setupScanner(scanner, columns, startTs, true);
+      fetchColumns = columns;
     } else {
       return null;
     }
 
+    // The batch scanner clips ranges to tablets, so merging before binning gives the same result as
+    // merging per tablet and avoids scanning a range that spans tablets more than once.
+    ranges = Range.mergeOverlapping(ranges);
+
+    BatchScanner scanner;
+    try {
+      scanner = env.getAccumuloClient().createBatchScanner(env.getTable(), env.getAuthorizations(),
+          getNumQueryThreads(ranges));
+    } catch (TableNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+
+    scanner.clearColumns();
+    scanner.clearScanIterators();
+    scanner.setRanges(ranges);
+    SnapshotScanner.setupScanner(scanner, fetchColumns, startTs, true);
+
     return scanner;
   }
 
+  /**
+   * Uses one query thread per tablet the ranges span, up to the configured max. Tablet locations
+   * come from the client side cache that the batch scanner also uses.
+   */
+  private int getNumQueryThreads(List<Range> ranges) {
+    int maxThreads = env.getSharedResources().getMaxScanThreads();
+    if (maxThreads == 1 || ranges.size() == 1) {
+      return 1;
+    }
+
+    try {
+      int numTablets = env.getAccumuloClient().tableOperations().locate(env.getTable(), ranges)
+          .groupByTablet().size();
+      return Math.max(1, Math.min(maxThreads, numTablets));
+    } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   Map<Bytes, Map<Column, Bytes>> scan() {
 
     long waitTime = SnapshotScanner.INITIAL_WAIT_TIME;
@@ -189,7 +215,7 @@ public class ParallelSnapshotScanner {
             break;
           case DATA:
             ret.computeIfAbsent(row, k -> new HashMap<>()).put(col,
-                Bytes.of(entry.getValue().get()));
+                ByteUtil.wrap(entry.getValue().get()));
             break;
           case RLOCK:
             readLocksSeen.computeIfAbsent(row, k -> new HashSet<>()).add(col);
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumn;
+
+/**
+ * A bounded cache of values read by a transaction. All reads in a transaction are done at its start
+ * timestamp, so a value read once can not change for the life of the transaction. When full, the
+ * least recently used entry is evicted.
+ */
+class ReadCache {
+
+  // cached for cells that were read and did not exist
+  static final Bytes ABSENT =
+      Bytes.of("special absent value 3b8f0d6c2a1e94c7d05f6b8e2c4a7d9e1f3b5c60");
+
+  private final int maxSize;
+  private final Map<RowColumn, Bytes> cache;
+
+  ReadCache(int maxSize) {
+    this.maxSize = maxSize;
+    this.cache = new LinkedHashMap<RowColumn, Bytes>(16, .75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<RowColumn, Bytes> eldest) {
+        return size() > ReadCache.this.maxSize;
+      }
+    };
+  }
+
+  /**
+   * @return the cached value, {@link #ABSENT} if the cell was read and did not exist, or null if
+   *         the cell is not cached
+   */
+  Bytes get(RowColumn rc) {
+    return cache.get(rc);
+  }
+
+  Bytes get(Bytes row, Column col) {
+    return get(new RowColumn(row, col));
+  }
+
+  /**
+   * @param val the value read, null if the cell did not exist
+   */
+  void put(RowColumn rc, Bytes val) {
+    if (maxSize > 0) {
+      cache.put(rc, val == null ? ABSENT : val);
+    }
+  }
+
+  void put(Bytes row, Column col, Bytes val) {
+    put(new RowColumn(row, col), val);
+  }
+
+  int size() {
+    return cache.size();
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.impl;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.ScannerBase;
+import org.apache.fluo.accumulo.iterators.SnapshotFilterIterator;
+import org.apache.fluo.api.data.Bytes;
+
+/**
+ * Immutable set of filters that a {@link SnapshotScanner} pushes into the tablet server using
+ * {@link SnapshotFilterIterator}.
+ */
+public final class ScanFilter {
+
+  public static final ScanFilter NONE = new ScanFilter(null, null, null, -1, false);
+
+  private final Bytes qualifierPrefix;
+  private final String qualifierRegex;
+  private final Bytes valuePrefix;
+  private final int valueMaxSize;
+  private final boolean keysOnly;
+
+  /**
+   * @param valueMaxSize a negative value means there is no limit
+   */
+  public ScanFilter(Bytes qualifierPrefix, String qualifierRegex, Bytes valuePrefix,
+      int valueMaxSize, boolean keysOnly) {
+    this.qualifierPrefix = qualifierPrefix;
+    this.qualifierRegex = qualifierRegex;
+    this.valuePrefix = valuePrefix;
+    this.valueMaxSize = valueMaxSize;
+    this.keysOnly = keysOnly;
+  }
+
+  public boolean isEmpty() {
+    return qualifierPrefix == null && qualifierRegex == null && valuePrefix == null
+        && valueMaxSize < 0 && !keysOnly;
+  }
+
+  void setupScanner(ScannerBase scanner) {
+    if (isEmpty()) {
+      return;
+    }
+
+    IteratorSetting iterConf = new IteratorSetting(11, SnapshotFilterIterator.class);
+    if (qualifierPrefix != null) {
+      SnapshotFilterIterator.setQualifierPrefix(iterConf, qualifierPrefix.toArray());
+    }
+    if (qualifierRegex != null) {
+      SnapshotFilterIterator.setQualifierRegex(iterConf, qualifierRegex);
+    }
+    if (valuePrefix != null) {
+      SnapshotFilterIterator.setValuePrefix(iterConf, valuePrefix.toArray());
+    }
+    if (valueMaxSize >= 0) {
+      SnapshotFilterIterator.setValueMaxSize(iterConf, valueMaxSize);
+    }
+    SnapshotFilterIterator.setKeysOnly(iterConf, keysOnly);
+    scanner.addScanIterator(iterConf);
+  }
+}
@@ -19,27 +19,58 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.fluo.core.metrics.MetricNames;
+import org.apache.fluo.core.metrics.MetricsUtil;
 import org.apache.fluo.core.util.FluoThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-// created this class because batch writer blocks adding mutations while its flushing
+// created this class because batch writer blocks adding mutations while its flushing. Mutations
+// are group committed, while one group is flushed the next group accumulates. When the writer is
+// idle a group is flushed as soon as it has mutations, unless a max latency is configured, in which
+// case it is flushed once its first batch has waited that long or it reached the max size.
 
 public class SharedBatchWriter {
 
+  private static final Logger log = LoggerFactory.getLogger(SharedBatchWriter.class);
+
+  private final Environment env;
   private final BatchWriter bw;
-  private ArrayBlockingQueue<MutationBatch> mutQueue;
+  private final long maxLatencyNanos;
+  private final long maxBytes;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition groupReady = lock.newCondition();
+  private final Condition groupTaken = lock.newCondition();
+  // guarded by lock
+  private MutationGroup nextGroup = new MutationGroup();
+  private boolean closed = false;
+
   private MutationBatch end = new MutationBatch(new ArrayList<Mutation>(), false);
 
   private AtomicLong asyncBatchesAdded = new AtomicLong(0);
   private long asyncBatchesProcessed = 0;
+
+  // only used by the flush thread, created on first flush because metric names are not available
+  // while shared resources are being constructed
+  private Histogram groupSizeHistogram;
+  private Timer flushTimer;
+
   // added to avoid findbugs false positive
   private static final Supplier<Void> NULLS = () -> null;
 
@@ -49,6 +80,7 @@ public class SharedBatchWriter {
     private CountDownLatch cdl;
     private boolean isAsync = false;
     private CompletableFuture<Void> cf;
+    private volatile Exception exception;
 
     public MutationBatch(Collection<Mutation> mutations, boolean isAsync) {
       this.mutations = mutations;
@@ -74,6 +106,50 @@ public class SharedBatchWriter {
         cf.complete(NULLS.get());
       }
     }
+
+    public void fail(Exception e) {
+      exception = e;
+
+      if (cdl != null) {
+        cdl.countDown();
+      }
+
+      if (cf != null) {
+        cf.completeExceptionally(e);
+      }
+    }
+
+    public void await() throws Exception {
+      cdl.await();
+      if (exception != null) {
+        throw exception;
+      }
+    }
+
+    long numBytes() {
+      long size = 0;
+      for (Mutation m : mutations) {
+        size += m.numBytes();
+      }
+      return size;
+    }
+  }
+
+  private static class MutationGroup {
+    private List<MutationBatch> batches = new ArrayList<>();
+    private long bytes = 0;
+    private int numMutations = 0;
+    private long deadline;
+    private boolean hasEnd = false;
+
+    void add(MutationBatch mb, long maxLatencyNanos) {
+      if (batches.isEmpty()) {
+        deadline = System.nanoTime() + maxLatencyNanos;
+      }
+      batches.add(mb);
+      bytes += mb.numBytes();
+      numMutations += mb.mutations.size();
+    }
   }
 
   private class FlushTask implements Runnable {
@@ -81,52 +157,86 @@ public class SharedBatchWriter {
     @Override
     public void run() {
       boolean keepRunning = true;
-      ArrayList<MutationBatch> batches = new ArrayList<>();
 
-      while (keepRunning || !batches.isEmpty()) {
+      while (keepRunning) {
+        MutationGroup group;
         try {
-          if (batches.isEmpty()) {
-            batches.add(mutQueue.take());
-          }
-          mutQueue.drainTo(batches);
+          group = takeGroup();
+        } catch (InterruptedException e) {
+          log.warn("Shared batch writer interrupted while waiting for mutations", e);
+          continue;
+        }
 
-          processBatches(batches);
+        processGroup(group);
+        keepRunning = !group.hasEnd;
+      }
+    }
 
-          for (MutationBatch mutationBatch : batches) {
-            if (mutationBatch == end) {
-              keepRunning = false;
-            }
+    private MutationGroup takeGroup() throws InterruptedException {
+      lock.lock();
+      try {
+        while (true) {
+          if (nextGroup.batches.isEmpty()) {
+            groupReady.await();
+            continue;
           }
 
-          batches.clear();
-        } catch (Exception e) {
-          // TODO error handling
-          e.printStackTrace();
+          long remaining = nextGroup.deadline - System.nanoTime();
+          if (remaining <= 0 || nextGroup.bytes >= maxBytes || nextGroup.hasEnd) {
+            break;
+          }
+          groupReady.awaitNanos(remaining);
         }
-      }
 
+        MutationGroup group = nextGroup;
+        nextGroup = new MutationGroup();
+        groupTaken.signalAll();
+        return group;
+      } finally {
+        lock.unlock();
+      }
     }
 
-    private void processBatches(ArrayList<MutationBatch> batches)
-        throws MutationsRejectedException {
-      for (MutationBatch mutationBatch : batches) {
-        if (mutationBatch != end) {
-          bw.addMutations(mutationBatch.mutations);
-        }
+    private void processGroup(MutationGroup group) {
+      if (flushTimer == null) {
+        initMetrics();
       }
 
-      bw.flush();
+      Exception failure = null;
+      long t1 = System.nanoTime();
+      try {
+        for (MutationBatch mutationBatch : group.batches) {
+          if (mutationBatch != end) {
+            bw.addMutations(mutationBatch.mutations);
+          }
+        }
+
+        bw.flush();
+      } catch (MutationsRejectedException | RuntimeException e) {
+        failure = e;
+      }
+      flushTimer.update(System.nanoTime() - t1, TimeUnit.NANOSECONDS);
+      groupSizeHistogram.update(group.numMutations);
 
       int numAsync = 0;
 
-      for (MutationBatch mutationBatch : batches) {
-        mutationBatch.countDown();
+      for (MutationBatch mutationBatch : group.batches) {
+        if (failure == null) {
+          mutationBatch.countDown();
+        } else {
+          mutationBatch.fail(failure);
+        }
 
         if (mutationBatch.isAsync) {
           numAsync++;
         }
       }
 
+      if (failure != null && numAsync > 0) {
+        // nothing waits on the result of these, so log the failure
+        log.error("Failed to write {} async mutation batches", numAsync, failure);
+      }
+
       if (numAsync > 0) {
         synchronized (SharedBatchWriter.this) {
           asyncBatchesProcessed += numAsync;
@@ -136,9 +246,12 @@ public class SharedBatchWriter {
     }
   }
 
-  SharedBatchWriter(BatchWriter bw) {
+  SharedBatchWriter(Environment env, BatchWriter bw) {
+    this.env = env;
     this.bw = bw;
-    this.mutQueue = new ArrayBlockingQueue<>(100000);
+    this.maxLatencyNanos =
+        FluoConfigurationImpl.getBWGroupMaxLatency(env.getConfiguration(), TimeUnit.NANOSECONDS);
+    this.maxBytes = FluoConfigurationImpl.getBWGroupMaxBytes(env.getConfiguration());
     Thread thread = new FluoThreadFactory("sharedBW").newThread(new FlushTask());
     thread.setUncaughtExceptionHandler((t, e) -> {
       System.err.println("Uncaught exception in shared batch writer");
@@ -148,6 +261,60 @@ public class SharedBatchWriter {
     thread.start();
   }
 
+  private void initMetrics() {
+    MetricRegistry registry = env.getSharedResources().getMetricRegistry();
+    MetricNames names = env.getMetricNames();
+    groupSizeHistogram =
+        MetricsUtil.getHistogram(env.getConfiguration(), registry, names.getBatchWriterGroupSize());
+    flushTimer =
+        MetricsUtil.getTimer(env.getConfiguration(), registry, names.getBatchWriterFlushTime());
+    registry.register(names.getBatchWriterQueueDepth(), (Gauge<Integer>) this::getQueueDepth);
+  }
+
+  private int getQueueDepth() {
+    lock.lock();
+    try {
+      return nextGroup.batches.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void add(MutationBatch mb) throws InterruptedException {
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("SharedBatchWriter is closed");
+      }
+
+      // the next group is full and the previous one is still flushing, so push back on writers
+      while (nextGroup.bytes >= maxBytes && !closed) {
+        groupTaken.await();
+      }
+
+      // closed while waiting, the flush thread stops after the group with the end, so nothing
+      // added now would ever be written
+      if (closed) {
+        throw new IllegalStateException("SharedBatchWriter is closed");
+      }
+
+      nextGroup.add(mb, maxLatencyNanos);
+
+      if (mb == end) {
+        closed = true;
+        nextGroup.hasEnd = true;
+        // writers waiting for room can fail now
+        groupTaken.signalAll();
+      }
+
+      if (nextGroup.batches.size() == 1 || nextGroup.bytes >= maxBytes || closed) {
+        groupReady.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
   void writeMutation(Mutation m) {
     writeMutations(Collections.singletonList(m));
   }
@@ -160,8 +327,8 @@ public class SharedBatchWriter {
 
     try {
       MutationBatch mb = new MutationBatch(ml, false);
-      mutQueue.put(mb);
-      mb.cdl.await();
+      add(mb);
+      mb.await();
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -175,7 +342,7 @@ public class SharedBatchWriter {
     CompletableFuture<Void> cf = new CompletableFuture<>();
     try {
       MutationBatch mb = new MutationBatch(ml, cf);
-      mutQueue.put(mb);
+      add(mb);
       return cf;
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -188,7 +355,7 @@ public class SharedBatchWriter {
 
   void close() {
     try {
-      mutQueue.put(end);
+      add(end);
       end.cdl.await();
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -199,7 +366,12 @@ public class SharedBatchWriter {
     try {
       MutationBatch mb = new MutationBatch(ml, true);
       asyncBatchesAdded.incrementAndGet();
-      mutQueue.put(mb);
+      try {
+        add(mb);
+      } catch (Exception e) {
+        asyncBatchesAdded.decrementAndGet();
+        throw e;
+      }
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
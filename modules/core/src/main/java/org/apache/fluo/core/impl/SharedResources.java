@@ -17,6 +17,8 @@ package org.apache.fluo.core.impl;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import com.codahale.metrics.MetricRegistry;
@@ -34,6 +36,7 @@ import org.apache.fluo.core.impl.TransactorNode.TrStatus;
 import org.apache.fluo.core.oracle.OracleClient;
 import org.apache.fluo.core.util.CuratorUtil;
 import org.apache.fluo.core.util.FluoExecutors;
+import org.apache.fluo.core.util.TaskPerThreadExecutor;
 
 /**
  * Shared Fluo resources that must be closed
@@ -60,6 +63,9 @@ public class SharedResources implements AutoCloseable {
   private AsyncConditionalWriter bulkAcw;
   private ExecutorService asyncCommitExecutor;
   private ExecutorService syncCommitExecutor;
+  private ExecutorService asyncReadExecutor;
+  private final int maxScanThreads;
+  private final int txReadCacheSize;
   private CommitManager commitManager;
 
 
@@ -72,7 +78,7 @@ public class SharedResources implements AutoCloseable {
     int numBWThreads = FluoConfigurationImpl.getNumBWThreads(env.getConfiguration(), numTservers);
     bw = env.getAccumuloClient().createBatchWriter(env.getTable(),
         new BatchWriterConfig().setMaxWriteThreads(numBWThreads));
-    sbw = new SharedBatchWriter(bw);
+    sbw = new SharedBatchWriter(env, bw);
 
     int numCWThreads = FluoConfigurationImpl.getNumCWThreads(env.getConfiguration(), numTservers);
     cw = env.getAccumuloClient().createConditionalWriter(env.getTable(),
@@ -94,6 +100,22 @@ public class SharedResources implements AutoCloseable {
         FluoConfigurationImpl.SYNC_COMMIT_THREADS_DEFAULT);
     syncCommitExecutor = FluoExecutors.newFixedThreadPool(commitThreads, "sync-commits");
 
+    int readThreads = env.getConfiguration().getInt(FluoConfigurationImpl.ASYNC_READ_THREADS,
+        FluoConfigurationImpl.ASYNC_READ_THREADS_DEFAULT);
+    ThreadFactory virtualFactory = null;
+    if (FluoConfigurationImpl.getWorkerVirtualThreads(env.getConfiguration()) > 0) {
+      virtualFactory = FluoExecutors.newVirtualThreadFactory("async-reads");
+    }
+    if (virtualFactory != null) {
+      asyncReadExecutor = new TaskPerThreadExecutor(new LinkedBlockingQueue<>(), readThreads,
+          virtualFactory, "async-reads");
+    } else {
+      asyncReadExecutor = FluoExecutors.newFixedThreadPool(readThreads, "async-reads");
+    }
+
+    maxScanThreads = FluoConfigurationImpl.getMaxScanThreads(env.getConfiguration());
+    txReadCacheSize = FluoConfigurationImpl.getTxReadCacheSize(env.getConfiguration());
+
     acw = new AsyncConditionalWriter(env, cw);
     bulkAcw = new AsyncConditionalWriter(env, bulkCw);
   }
@@ -192,6 +214,13 @@ public class SharedResources implements AutoCloseable {
       throw new RuntimeException(e1);
     }
 
+    asyncReadExecutor.shutdownNow();
+    try {
+      asyncReadExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e1) {
+      throw new RuntimeException(e1);
+    }
+
     if (tnode != null) {
       tnode.close();
     }
@@ -231,6 +260,18 @@ public class SharedResources implements AutoCloseable {
     return asyncCommitExecutor;
   }
 
+  public Executor getAsyncReadExecutor() {
+    return asyncReadExecutor;
+  }
+
+  public int getMaxScanThreads() {
+    return maxScanThreads;
+  }
+
+  public int getTxReadCacheSize() {
+    return txReadCacheSize;
+  }
+
   public AsyncConditionalWriter getAsyncConditionalWriter() {
     return acw;
   }
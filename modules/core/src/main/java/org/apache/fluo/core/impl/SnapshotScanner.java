@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.function.Consumer;
 
 import com.google.common.collect.ImmutableSet;
@@ -51,11 +52,17 @@ public class SnapshotScanner implements Iterable<Entry<Key, Value>> {
     private final Span span;
     private final Collection<Column> columns;
     private final boolean showReadLocks;
+    private final ScanFilter filter;
 
     public Opts(Span span, Collection<Column> columns, boolean showReadLocks) {
+      this(span, columns, showReadLocks, ScanFilter.NONE);
+    }
+
+    public Opts(Span span, Collection<Column> columns, boolean showReadLocks, ScanFilter filter) {
       this.span = span;
       this.columns = ImmutableSet.copyOf(columns);
       this.showReadLocks = showReadLocks;
+      this.filter = Objects.requireNonNull(filter);
     }
 
     public Span getSpan() {
@@ -69,6 +76,10 @@ public class SnapshotScanner implements Iterable<Entry<Key, Value>> {
     public boolean getShowReadLocks() {
       return showReadLocks;
     }
+
+    public ScanFilter getFilter() {
+      return filter;
+    }
   }
 
   private final long startTs;
@@ -100,17 +111,13 @@ public class SnapshotScanner implements Iterable<Entry<Key, Value>> {
 
   private class SnapIter implements Iterator<Entry<Key, Value>> {
 
+    private final Scanner scanner;
     private Iterator<Entry<Key, Value>> iterator;
     private Entry<Key, Value> next;
     private Opts snapIterConfig;
 
     SnapIter(Opts config) {
       this.snapIterConfig = config;
-      setUpIterator();
-    }
-
-    private void setUpIterator() {
-      Scanner scanner;
       try {
         scanner = env.getAccumuloClient().createScanner(env.getTable(), env.getAuthorizations());
       } catch (TableNotFoundException e) {
@@ -118,10 +125,17 @@ public class SnapshotScanner implements Iterable<Entry<Key, Value>> {
       }
       scanner.clearColumns();
       scanner.clearScanIterators();
-      scanner.setRange(SpanUtil.toRange(snapIterConfig.getSpan()));
 
       setupScanner(scanner, snapIterConfig.getColumns(), startTs, snapIterConfig.showReadLocks);
+      snapIterConfig.getFilter().setupScanner(scanner);
 
+      setUpIterator();
+    }
+
+    private void setUpIterator() {
+      // The columns and iterators never change, so lock resolution only needs to point the same
+      // scanner at a new range.
+      scanner.setRange(SpanUtil.toRange(snapIterConfig.getSpan()));
       this.iterator = scanner.iterator();
     }
 
@@ -146,7 +160,8 @@ public class SnapshotScanner implements Iterable<Entry<Key, Value>> {
     }
 
     private void resetScanner(Span span) {
-      snapIterConfig = new Opts(span, snapIterConfig.columns, snapIterConfig.showReadLocks);
+      snapIterConfig = new Opts(span, snapIterConfig.columns, snapIterConfig.showReadLocks,
+          snapIterConfig.filter);
       setUpIterator();
     }
 
@@ -18,10 +18,11 @@ package org.apache.fluo.core.impl;
 import java.io.IOException;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.SortedSet;
+import java.util.SortedMap;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.TreeSet;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -36,14 +37,16 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Allocates timestamps from Oracle for transactions and tracks the oldest active timestamp in
- * Zookeeper for garbage collection
+ * Zookeeper for garbage collection. The most recent timestamp from the Oracle is leased, so that
+ * snapshots which tolerate bounded staleness can share it instead of each going to the Oracle.
  */
 public class TimestampTracker implements AutoCloseable {
 
   private static final Logger log = LoggerFactory.getLogger(TimestampTracker.class);
   private volatile long zkTimestamp = -1;
   private final Environment env;
-  private final SortedSet<Long> timestamps = new TreeSet<>();
+  // active timestamps mapped to the number of transactions using them
+  private final SortedMap<Long, Integer> timestamps = new TreeMap<>();
   private volatile PersistentNode node = null;
   private final TransactorID tid;
   private final Timer timer;
@@ -52,6 +55,10 @@ public class TimestampTracker implements AutoCloseable {
   private int allocationsInProgress = 0;
   private boolean updatingZk = false;
 
+  // most recent timestamp retrieved from the Oracle and the time it was requested
+  private Stamp lease = null;
+  private long leaseTime;
+
   public TimestampTracker(Environment env, TransactorID tid, long updatePeriodMs) {
     Objects.requireNonNull(env, "environment cannot be null");
     Objects.requireNonNull(tid, "tid cannot be null");
@@ -79,7 +86,7 @@ public class TimestampTracker implements AutoCloseable {
                 if (updatingZk) {
                   throw new IllegalStateException("expected updatingZk to be false");
                 }
-                ts = timestamps.first();
+                ts = timestamps.firstKey();
                 updatingZk = true;
               }
             } else if (allocationsInProgress == 0) {
@@ -139,10 +146,12 @@ public class TimestampTracker implements AutoCloseable {
     }
 
     try {
+      long requestTime = System.nanoTime();
       Stamp ts = getTimestamp();
 
       synchronized (this) {
-        timestamps.add(ts.getTxTimestamp());
+        addTimestamp(ts.getTxTimestamp());
+        updateLease(ts, requestTime);
       }
 
       return ts;
@@ -154,6 +163,74 @@ public class TimestampTracker implements AutoCloseable {
     }
   }
 
+  /**
+   * Allocate a timestamp that may be up to maxStaleness old. If a timestamp was requested from the
+   * Oracle within maxStaleness it is reused, otherwise a new timestamp is allocated. A transaction
+   * using a reused timestamp may not see transactions that committed within maxStaleness before it
+   * started.
+   */
+  public Stamp allocateTimestamp(long maxStaleness, TimeUnit tu) {
+    synchronized (this) {
+      Preconditions.checkState(!closed, "tracker closed ");
+
+      if (isLeaseReusable(tu.toNanos(maxStaleness))) {
+        allocationsInProgress++;
+        addTimestamp(lease.getTxTimestamp());
+        return lease;
+      }
+    }
+
+    return allocateTimestamp();
+  }
+
+  /**
+   * Get a stamp that may be up to maxStaleness old, without tracking it. Only goes to the Oracle if
+   * no stamp was requested within maxStaleness.
+   */
+  public Stamp getStamp(long maxStaleness, TimeUnit tu) {
+    synchronized (this) {
+      if (lease != null && System.nanoTime() - leaseTime <= tu.toNanos(maxStaleness)) {
+        return lease;
+      }
+    }
+
+    long requestTime = System.nanoTime();
+    Stamp ts = getTimestamp();
+    synchronized (this) {
+      updateLease(ts, requestTime);
+    }
+    return ts;
+  }
+
+  // caller must hold lock
+  private boolean isLeaseReusable(long maxStalenessNanos) {
+    if (lease == null || System.nanoTime() - leaseTime > maxStalenessNanos) {
+      return false;
+    }
+
+    if (timestamps.containsKey(lease.getTxTimestamp())) {
+      // the timestamp is active, so garbage collection can not have moved past it
+      return true;
+    }
+
+    // Safe to start tracking an inactive timestamp only if the oldest timestamp advertised in
+    // Zookeeper is not newer and no update is about to advertise a newer one.
+    return node != null && !updatingZk && zkTimestamp <= lease.getTxTimestamp();
+  }
+
+  // caller must hold lock
+  private void updateLease(Stamp ts, long requestTime) {
+    if (lease == null || ts.getTxTimestamp() > lease.getTxTimestamp()) {
+      lease = ts;
+      leaseTime = requestTime;
+    }
+  }
+
+  // caller must hold lock
+  private void addTimestamp(long ts) {
+    timestamps.merge(ts, 1, Integer::sum);
+  }
+
   /**
    * Remove a timestamp (of completed transaction)
    */
@@ -162,9 +239,14 @@ public class TimestampTracker implements AutoCloseable {
     Preconditions.checkState(allocationsInProgress > 0,
         "allocationsInProgress should be > 0 " + allocationsInProgress);
     Objects.requireNonNull(node);
-    if (timestamps.remove(ts) == false) {
+    Integer count = timestamps.get(ts);
+    if (count == null) {
       throw new NoSuchElementException(
           "Timestamp " + ts + " was previously removed or does not exist");
+    } else if (count == 1) {
+      timestamps.remove(ts);
+    } else {
+      timestamps.put(ts, count - 1);
     }
 
     allocationsInProgress--;
@@ -211,7 +293,7 @@ public class TimestampTracker implements AutoCloseable {
 
     if (allocationsInProgress > 0) {
       if (!timestamps.isEmpty()) {
-        updateZkNode(timestamps.first());
+        updateZkNode(timestamps.firstKey());
       }
     } else if (allocationsInProgress == 0) {
       closeZkNode();
@@ -222,7 +304,7 @@ public class TimestampTracker implements AutoCloseable {
 
   @VisibleForTesting
   public long getOldestActiveTimestamp() {
-    return timestamps.first();
+    return timestamps.firstKey();
   }
 
   @VisibleForTesting
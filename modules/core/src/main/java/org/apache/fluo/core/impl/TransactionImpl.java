@@ -29,6 +29,7 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -80,6 +81,7 @@ import org.apache.fluo.core.impl.scanner.ScannerBuilderImpl;
 import org.apache.fluo.core.oracle.Stamp;
 import org.apache.fluo.core.util.ByteUtil;
 import org.apache.fluo.core.util.ColumnUtil;
+import org.apache.fluo.core.util.CompactColumnMap;
 import org.apache.fluo.core.util.ConditionalFlutation;
 import org.apache.fluo.core.util.FluoCondition;
 import org.apache.fluo.core.util.Flutation;
@@ -109,6 +111,8 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
   // added to avoid findbugs false positive
   private static final Supplier<Void> NULLS = () -> null;
 
+  private static final int MAX_INTERNED_COLUMNS = 1 << 12;
+
   private static boolean isWrite(Bytes val) {
     return val != NTFY_VAL && val != RLOCK_VAL;
   }
@@ -131,15 +135,22 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
   private final Set<Column> observedColumns;
   private final Environment env;
   private final Map<Bytes, Set<Column>> columnsRead = new HashMap<>();
+  // Transactions often set the same columns on many rows. Equal columns are shared so the write set
+  // only holds one copy of each, up to a limit so this does not grow when most columns differ.
+  private final Map<Column, Column> internedColumns = new HashMap<>();
   // Tracks row columns that were observed to have had a read lock in the past.
   private final Map<Bytes, Set<Column>> readLocksSeen = new HashMap<>();
   private final TxStats stats;
   private Notification notification;
-  private Notification weakNotification;
+  // weak notifications that triggered this transaction, deleted after commit
+  private List<Notification> weakTriggers = Collections.emptyList();
   private TransactorNode tnode = null;
   private TxStatus status = TxStatus.OPEN;
   private boolean commitAttempted = false;
   private AsyncReader asyncReader = null;
+  private ReadCache readCache = null;
+  // when positive, stamps up to this old may be used when checking for a stale scan
+  private long maxStalenessNanos = 0;
 
 
   public TransactionImpl(Environment env, Notification trigger, long startTs) {
@@ -152,13 +163,13 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
 
     if (trigger != null
         && env.getConfiguredObservers().getObservedColumns(WEAK).contains(trigger.getColumn())) {
-      this.weakNotification = trigger;
+      this.weakTriggers = Collections.singletonList(trigger);
     } else {
       this.notification = trigger;
     }
 
     if (notification != null) {
-      Map<Column, Bytes> colUpdates = new HashMap<>();
+      Map<Column, Bytes> colUpdates = new CompactColumnMap<>();
       colUpdates.put(notification.getColumn(), NTFY_VAL);
       updates.put(notification.getRow(), colUpdates);
     }
@@ -172,6 +183,22 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     this(env, null, allocateTimestamp(env).getTxTimestamp());
   }
 
+  /**
+   * Creates a transaction triggered by multiple weak notifications. All of the notifications are
+   * deleted after the transaction commits.
+   */
+  public TransactionImpl(Environment env, List<Notification> weakTriggers) {
+    this(env, null, allocateTimestamp(env).getTxTimestamp());
+    Set<Column> weakColumns = env.getConfiguredObservers().getObservedColumns(WEAK);
+    for (Notification trigger : weakTriggers) {
+      if (!weakColumns.contains(trigger.getColumn())) {
+        throw new IllegalArgumentException(
+            "Column not configured for weak notifications " + trigger.getColumn());
+      }
+    }
+    this.weakTriggers = new ArrayList<>(weakTriggers);
+  }
+
   public TransactionImpl(Environment env, long startTs) {
     this(env, null, startTs);
   }
@@ -180,17 +207,65 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     return env.getSharedResources().getTimestampTracker().allocateTimestamp();
   }
 
+  /**
+   * Creates a transaction whose start timestamp may be up to maxStaleness old, avoiding a round
+   * trip to the Oracle when a recent timestamp can be reused. Reads will not see transactions that
+   * committed within maxStaleness before this transaction started, so this should only be used for
+   * read only snapshots.
+   *
+   * @see TimestampTracker#allocateTimestamp(long, TimeUnit)
+   */
+  public static TransactionImpl newBoundedStalenessSnapshot(Environment env, long maxStaleness,
+      TimeUnit tu) {
+    long startTs = env.getSharedResources().getTimestampTracker()
+        .allocateTimestamp(maxStaleness, tu).getTxTimestamp();
+    TransactionImpl tx = new TransactionImpl(env, startTs);
+    tx.maxStalenessNanos = tu.toNanos(maxStaleness);
+    return tx;
+  }
+
   @Override
   public Bytes get(Bytes row, Column column) {
     checkIfOpen();
-    // TODO cache? precache?
     return get(row, Collections.singleton(column)).get(column);
   }
 
   @Override
   public Map<Column, Bytes> get(Bytes row, Set<Column> columns) {
     checkIfOpen();
-    return getImpl(row, columns);
+
+    if (columns.isEmpty()) {
+      return getImpl(row, columns);
+    }
+
+    Map<Column, Bytes> ret = new HashMap<>();
+    Set<Column> columnsToRead = null;
+
+    for (Column column : columns) {
+      Bytes val = getLocal(row, column);
+      if (val == null) {
+        if (columnsToRead == null) {
+          columnsToRead = new HashSet<>();
+        }
+        columnsToRead.add(column);
+      } else {
+        stats.incrementCacheHits(1);
+        if (val != ReadCache.ABSENT) {
+          ret.put(column, val);
+        }
+      }
+    }
+
+    if (columnsToRead != null) {
+      Map<Column, Bytes> read = getImpl(row, columnsToRead);
+      ReadCache cache = getReadCache();
+      for (Column column : columnsToRead) {
+        cache.put(row, column, read.get(column));
+      }
+      ret.putAll(read);
+    }
+
+    return ret;
   }
 
   @Override
@@ -201,16 +276,48 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
       return Collections.emptyMap();
     }
 
+    Map<Bytes, Map<Column, Bytes>> ret = new HashMap<>();
+    List<Bytes> rowsToRead = new ArrayList<>();
+
+    // only rows where every column is known locally are skipped, partially known rows are read
+    for (Bytes row : rows) {
+      Map<Column, Bytes> local = getLocal(row, columns);
+      if (local == null) {
+        rowsToRead.add(row);
+      } else {
+        stats.incrementCacheHits(columns.size());
+        if (!local.isEmpty()) {
+          ret.put(row, local);
+        }
+      }
+    }
+
+    if (rowsToRead.isEmpty()) {
+      return ret;
+    }
+
     env.getSharedResources().getVisCache().validate(columns);
 
-    ParallelSnapshotScanner pss =
-        new ParallelSnapshotScanner(rows, columns, env, startTs, stats, readLocksSeen, kve -> {
+    ParallelSnapshotScanner pss = new ParallelSnapshotScanner(rowsToRead, columns, env, startTs,
+        stats, readLocksSeen, kve -> {
         });
 
-    Map<Bytes, Map<Column, Bytes>> ret = pss.scan();
+    Map<Bytes, Map<Column, Bytes>> read = pss.scan();
 
-    for (Entry<Bytes, Map<Column, Bytes>> entry : ret.entrySet()) {
-      updateColumnsRead(entry.getKey(), entry.getValue().keySet());
+    ReadCache cache = getReadCache();
+    for (Bytes row : rowsToRead) {
+      Map<Column, Bytes> rowVals = read.getOrDefault(row, Collections.emptyMap());
+      if (!rowVals.isEmpty()) {
+        updateColumnsRead(row, rowVals.keySet());
+      }
+      for (Column column : columns) {
+        cache.put(row, column, rowVals.get(column));
+      }
+
+      rowVals = overlayWrites(row, columns, rowVals);
+      if (!rowVals.isEmpty()) {
+        ret.put(row, rowVals);
+      }
     }
 
     return ret;
@@ -219,8 +326,108 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
   @Override
   public Map<RowColumn, Bytes> get(Collection<RowColumn> rowColumns) {
     checkIfOpen();
-    return getImpl(rowColumns, kve -> {
-    });
+
+    Map<RowColumn, Bytes> ret = new HashMap<>();
+    List<RowColumn> rowColumnsToRead = new ArrayList<>();
+
+    for (RowColumn rc : rowColumns) {
+      Bytes val = getLocal(rc.getRow(), rc.getColumn());
+      if (val == null) {
+        rowColumnsToRead.add(rc);
+      } else {
+        stats.incrementCacheHits(1);
+        if (val != ReadCache.ABSENT) {
+          ret.put(rc, val);
+        }
+      }
+    }
+
+    if (!rowColumnsToRead.isEmpty()) {
+      Map<RowColumn, Bytes> read = getImpl(rowColumnsToRead, kve -> {
+      });
+      ReadCache cache = getReadCache();
+      for (RowColumn rc : rowColumnsToRead) {
+        cache.put(rc, read.get(rc));
+      }
+      ret.putAll(read);
+    }
+
+    return ret;
+  }
+
+  private ReadCache getReadCache() {
+    if (readCache == null) {
+      readCache = new ReadCache(env.getSharedResources().getTxReadCacheSize());
+    }
+    return readCache;
+  }
+
+  /**
+   * Answers a read without going to Accumulo when this transaction wrote the cell or read it
+   * before.
+   *
+   * @return the value, {@link ReadCache#ABSENT} if the cell is known to not exist, or null if the
+   *         cell must be read
+   */
+  private Bytes getLocal(Bytes row, Column column) {
+    Map<Column, Bytes> colUpdates = updates.get(row);
+    if (colUpdates != null) {
+      Bytes val = colUpdates.get(column);
+      if (val != null && isWrite(val)) {
+        return isDelete(val) ? ReadCache.ABSENT : val;
+      }
+    }
+
+    return readCache == null ? null : readCache.get(row, column);
+  }
+
+  /**
+   * @return the values of the columns if all of them are known locally, else null
+   */
+  private Map<Column, Bytes> getLocal(Bytes row, Set<Column> columns) {
+    if (readCache == null && !updates.containsKey(row)) {
+      return null;
+    }
+
+    Map<Column, Bytes> ret = new HashMap<>();
+    for (Column column : columns) {
+      Bytes val = getLocal(row, column);
+      if (val == null) {
+        return null;
+      }
+      if (val != ReadCache.ABSENT) {
+        ret.put(column, val);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Replaces values read from Accumulo with any values this transaction set or deleted.
+   */
+  private Map<Column, Bytes> overlayWrites(Bytes row, Set<Column> columns,
+      Map<Column, Bytes> rowVals) {
+    Map<Column, Bytes> colUpdates = updates.get(row);
+    if (colUpdates == null) {
+      return rowVals;
+    }
+
+    Map<Column, Bytes> ret = null;
+    for (Entry<Column, Bytes> entry : colUpdates.entrySet()) {
+      Bytes val = entry.getValue();
+      if (isWrite(val) && columns.contains(entry.getKey())) {
+        if (ret == null) {
+          ret = new HashMap<>(rowVals);
+        }
+        if (isDelete(val)) {
+          ret.remove(entry.getKey());
+        } else {
+          ret.put(entry.getKey(), val);
+        }
+      }
+    }
+
+    return ret == null ? rowVals : ret;
   }
 
   private Map<Column, Bytes> getImpl(Bytes row, Set<Column> columns) {
@@ -257,7 +464,7 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
 
     for (Entry<Key, Value> kve : new SnapshotScanner(env, opts, startTs, stats)) {
 
-      Column col = ColumnUtil.convert(kve.getKey());
+      Column col = ColumnUtil.wrap(kve.getKey());
       if (shouldCopy && !columns.contains(col)) {
         continue;
       }
@@ -268,7 +475,7 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
         }
         readLockCols.add(col);
       } else {
-        ret.put(col, Bytes.of(kve.getValue().get()));
+        ret.put(col, ByteUtil.wrap(kve.getValue().get()));
       }
     }
 
@@ -310,6 +517,11 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     return getAsyncReader().get(row, column, defaultValue);
   }
 
+  @Override
+  public CompletableFuture<Map<RowColumn, Bytes>> getAsync(Collection<RowColumn> rowColumns) {
+    return getAsyncReader().get(rowColumns);
+  }
+
   @Override
   public CompletableFuture<String> getsAsync(String row, Column column) {
     return getAsyncReader().gets(row, column);
@@ -322,7 +534,7 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
 
   private AsyncReader getAsyncReader() {
     if (asyncReader == null) {
-      asyncReader = new AsyncReader(this);
+      asyncReader = new AsyncReader(this::get, env.getSharedResources().getAsyncReadExecutor());
     }
     return asyncReader;
   }
@@ -336,10 +548,23 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
   private void updateColumnsRead(Bytes row, Set<Column> columns) {
     Set<Column> colsRead = columnsRead.get(row);
     if (colsRead == null) {
-      colsRead = new HashSet<>();
+      colsRead = CompactColumnMap.newSet();
       columnsRead.put(row, colsRead);
     }
-    colsRead.addAll(columns);
+    for (Column col : columns) {
+      colsRead.add(internColumn(col));
+    }
+  }
+
+  private Column internColumn(Column col) {
+    Column interned = internedColumns.get(col);
+    if (interned != null) {
+      return interned;
+    }
+    if (internedColumns.size() < MAX_INTERNED_COLUMNS) {
+      internedColumns.put(col, col);
+    }
+    return col;
   }
 
   void setReadLock(Bytes row, Column col) {
@@ -353,13 +578,13 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
 
     env.getSharedResources().getVisCache().validate(col);
 
-    Map<Column, Bytes> colUpdates = updates.computeIfAbsent(row, k -> new HashMap<>());
+    Map<Column, Bytes> colUpdates = updates.computeIfAbsent(row, k -> new CompactColumnMap<>());
     Bytes curVal = colUpdates.get(col);
     if (curVal != null && (isWrite(curVal) || isDelete(curVal))) {
       throw new AlreadySetException("Attemped read lock after write lock " + row + " " + col);
     }
 
-    colUpdates.put(col, RLOCK_VAL);
+    colUpdates.put(internColumn(col), RLOCK_VAL);
   }
 
   @Override
@@ -380,13 +605,13 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
 
     env.getSharedResources().getVisCache().validate(col);
 
-    Map<Column, Bytes> colUpdates = updates.computeIfAbsent(row, k -> new HashMap<>());
+    Map<Column, Bytes> colUpdates = updates.computeIfAbsent(row, k -> new CompactColumnMap<>());
 
     Bytes curVal = colUpdates.get(col);
     if (curVal != null && isWrite(curVal)) {
       throw new AlreadySetException("Value already set " + row + " " + col);
     }
-    colUpdates.put(col, value);
+    colUpdates.put(internColumn(col), value);
   }
 
   @Override
@@ -471,7 +696,11 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     private Bytes pval;
 
     private HashSet<Bytes> acceptedRows;
+    // the updates other than the primary sorted by row, mutations are built in this order
+    private List<Entry<Bytes, Map<Column, Bytes>>> sortedUpdates;
     private Map<Bytes, Set<Column>> rejected = null;
+    // notifications written by this commit, published in process once it completes
+    private List<Notification> notifications = new ArrayList<>();
 
     private void addPrimaryToRejected() {
       rejected = Collections.singletonMap(prow, Collections.singleton(pcol));
@@ -680,8 +909,8 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     Map<Bytes, Set<Column>> writeLocksSeen = new HashMap<>();
 
     readUnread(cd, kve -> {
-      Bytes row = ByteUtil.toBytes(kve.getKey().getRowData());
-      Column col = ColumnUtil.convert(kve.getKey());
+      Bytes row = ByteUtil.wrap(kve.getKey().getRowData());
+      Column col = ColumnUtil.wrap(kve.getKey());
       writeLocksSeen.computeIfAbsent(row, k -> new HashSet<>()).add(col);
     });
 
@@ -748,15 +977,19 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
       sco.waitForCommit();
     } finally {
       updates.clear();
-      weakNotification = null;
+      weakTriggers = Collections.emptyList();
       columnsRead.clear();
+      internedColumns.clear();
     }
   }
 
   void deleteWeakRow() {
-    if (weakNotification != null) {
-      env.getSharedResources().getBatchWriter()
-          .writeMutation(weakNotification.newDelete(env, startTs));
+    if (!weakTriggers.isEmpty()) {
+      List<Mutation> deletes = new ArrayList<>(weakTriggers.size());
+      for (Notification trigger : weakTriggers) {
+        deletes.add(trigger.newDelete(env, startTs));
+      }
+      env.getSharedResources().getBatchWriter().writeMutations(deletes);
     }
   }
 
@@ -801,7 +1034,13 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
       status = TxStatus.CLOSED;
 
       if (checkForStaleScan && !commitAttempted) {
-        Stamp stamp = env.getSharedResources().getOracleClient().getStamp();
+        Stamp stamp;
+        if (maxStalenessNanos > 0) {
+          stamp = env.getSharedResources().getTimestampTracker().getStamp(maxStalenessNanos,
+              TimeUnit.NANOSECONDS);
+        } else {
+          stamp = env.getSharedResources().getOracleClient().getStamp();
+        }
         if (startTs < stamp.getGcTimestamp()) {
           throw new StaleScanException();
         }
@@ -835,28 +1074,52 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     return startTs;
   }
 
+  // Rough per object overheads used to estimate the heap retained by a transaction. These are
+  // intentionally on the high side for a 64 bit JVM with compressed oops.
+  private static final int BYTES_OVERHEAD = 48;
+  private static final int COLUMN_OVERHEAD = 32 + 3 * BYTES_OVERHEAD;
+  private static final int MAP_ENTRY_OVERHEAD = 48;
+  private static final int MAP_OVERHEAD = 64;
+  // A CompactColumnMap holds a column and value reference per slot, and up to half of the slots of
+  // its hash table may be empty.
+  private static final int COMPACT_MAP_SLOT_OVERHEAD = 24;
+
+  private static long estimateSize(Column c) {
+    return COLUMN_OVERHEAD + c.getFamily().length() + c.getQualifier().length()
+        + c.getVisibility().length();
+  }
+
+  /**
+   * Interned columns are shared by all rows and are counted once, by {@link #getSize()}.
+   */
+  private long estimateSizeInRow(Column c) {
+    return internedColumns.get(c) == c ? 0 : estimateSize(c);
+  }
+
   @Override
-  public int getSize() {
+  public long getSize() {
     // TODO could calculate as items are added/set
-    int size = 0;
+    long size = 0;
+
+    for (Column c : internedColumns.keySet()) {
+      size += MAP_ENTRY_OVERHEAD + estimateSize(c);
+    }
 
     for (Entry<Bytes, Map<Column, Bytes>> entry : updates.entrySet()) {
-      size += entry.getKey().length();
+      size += MAP_ENTRY_OVERHEAD + MAP_OVERHEAD + BYTES_OVERHEAD + entry.getKey().length();
       for (Entry<Column, Bytes> entry2 : entry.getValue().entrySet()) {
-        Column c = entry2.getKey();
-        size += c.getFamily().length();
-        size += c.getQualifier().length();
-        size += c.getVisibility().length();
-        size += entry2.getValue().length();
+        // the value is copied again into a mutation when committing
+        size += COMPACT_MAP_SLOT_OVERHEAD + estimateSizeInRow(entry2.getKey()) + BYTES_OVERHEAD
+            + 2L * entry2.getValue().length();
       }
+      // the commit tracks each row written as accepted or rejected
+      size += MAP_ENTRY_OVERHEAD;
     }
 
     for (Entry<Bytes, Set<Column>> entry : columnsRead.entrySet()) {
-      size += entry.getKey().length();
+      size += MAP_ENTRY_OVERHEAD + MAP_OVERHEAD + BYTES_OVERHEAD + entry.getKey().length();
       for (Column c : entry.getValue()) {
-        size += c.getFamily().length();
-        size += c.getQualifier().length();
-        size += c.getVisibility().length();
+        size += COMPACT_MAP_SLOT_OVERHEAD + estimateSizeInRow(c);
       }
     }
 
@@ -1046,7 +1309,7 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
 
       ArrayList<ConditionalMutation> mutations = new ArrayList<>();
 
-      for (Entry<Bytes, Map<Column, Bytes>> rowUpdates : updates.entrySet()) {
+      for (Entry<Bytes, Map<Column, Bytes>> rowUpdates : cd.sortedUpdates) {
         ConditionalFlutation cm = null;
 
         for (Entry<Column, Bytes> colUpdates : rowUpdates.getValue().entrySet()) {
@@ -1257,14 +1520,20 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     public Collection<Mutation> createMutations(CommitData cd) {
       long commitTs = getStats().getCommitTs();
       HashMap<Bytes, Mutation> mutations = new HashMap<>();
+      cd.notifications.clear();
+      // only collect the notifications when a worker in this process would receive them
+      boolean publish = NotificationBus.hasSubscribers(env.getFluoApplicationID());
 
       if (observedColumns.contains(cd.pcol) && isWrite(cd.pval) && !isDelete(cd.pval)) {
         Flutation m = new Flutation(env, cd.prow);
         Notification.put(env, m, cd.pcol, commitTs);
+        if (publish) {
+          cd.notifications.add(new Notification(cd.prow, cd.pcol, commitTs));
+        }
         mutations.put(cd.prow, m);
       }
 
-      for (Entry<Bytes, Map<Column, Bytes>> rowUpdates : updates.entrySet()) {
+      for (Entry<Bytes, Map<Column, Bytes>> rowUpdates : cd.sortedUpdates) {
 
         for (Entry<Column, Bytes> colUpdates : rowUpdates.getValue().entrySet()) {
           if (observedColumns.contains(colUpdates.getKey())) {
@@ -1276,6 +1545,10 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
                 mutations.put(rowUpdates.getKey(), m);
               }
               Notification.put(env, m, colUpdates.getKey(), commitTs);
+              if (publish) {
+                cd.notifications
+                    .add(new Notification(rowUpdates.getKey(), colUpdates.getKey(), commitTs));
+              }
             }
           }
         }
@@ -1289,6 +1562,9 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
         }
         for (Column col : entry.getValue()) {
           Notification.put(env, m, col, commitTs);
+          if (publish) {
+            cd.notifications.add(new Notification(entry.getKey(), col, commitTs));
+          }
         }
       }
       return mutations.values();
@@ -1389,7 +1665,7 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     public Collection<Mutation> createMutations(CommitData cd) {
       long commitTs = getStats().getCommitTs();
       ArrayList<Mutation> mutations = new ArrayList<>(updates.size() + 1);
-      for (Entry<Bytes, Map<Column, Bytes>> rowUpdates : updates.entrySet()) {
+      for (Entry<Bytes, Map<Column, Bytes>> rowUpdates : cd.sortedUpdates) {
         Flutation m = new Flutation(env, rowUpdates.getKey());
         boolean isTriggerRow = isTriggerRow(rowUpdates.getKey());
         for (Entry<Column, Bytes> colUpdates : rowUpdates.getValue().entrySet()) {
@@ -1413,6 +1689,7 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     CompletableFuture<Boolean> getMainOp(CommitData cd) {
       return super.getMainOp(cd).thenApply(b -> {
         Preconditions.checkArgument(b);
+        NotificationBus.publish(env.getFluoApplicationID(), cd.notifications);
         cd.commitObserver.committed();
         return true;
       });
@@ -1421,15 +1698,15 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
     @Override
     public Collection<Mutation> createMutations(CommitData cd) {
       long commitTs = getStats().getCommitTs();
-      ArrayList<Mutation> afterFlushMutations = new ArrayList<>(2);
+      ArrayList<Mutation> afterFlushMutations = new ArrayList<>(2 + weakTriggers.size());
 
       Flutation m = new Flutation(env, cd.prow);
       // mark transaction as complete for garbage collection purposes
       m.put(cd.pcol, ColumnType.TX_DONE.encode(commitTs), EMPTY);
       afterFlushMutations.add(m);
 
-      if (weakNotification != null) {
-        afterFlushMutations.add(weakNotification.newDelete(env, startTs));
+      for (Notification trigger : weakTriggers) {
+        afterFlushMutations.add(trigger.newDelete(env, startTs));
       }
 
       if (notification != null) {
@@ -1514,6 +1791,9 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
       updates.remove(cd.prow);
     }
 
+    cd.sortedUpdates = new ArrayList<>(updates.entrySet());
+    cd.sortedUpdates.sort(Entry.comparingByKey());
+
     cd.commitObserver = commitCallback;
 
     return cd;
@@ -1571,6 +1851,12 @@ public class TransactionImpl extends AbstractTransactionBase implements AsyncTra
   }
 
   public SnapshotScanner newSnapshotScanner(Span span, Collection<Column> columns) {
-    return new SnapshotScanner(env, new SnapshotScanner.Opts(span, columns, false), startTs, stats);
+    return newSnapshotScanner(span, columns, ScanFilter.NONE);
+  }
+
+  public SnapshotScanner newSnapshotScanner(Span span, Collection<Column> columns,
+      ScanFilter filter) {
+    return new SnapshotScanner(env, new SnapshotScanner.Opts(span, columns, false, filter), startTs,
+        stats);
   }
 }
@@ -35,6 +35,8 @@ public class TxStats {
   private long lockWaitTime = 0;
   private long entriesReturned = 0;
   private long entriesSet = 0;
+  // number of cells read that were answered without going to Accumulo
+  private long cacheHits = 0;
   private long collisions = -1;
   // number of entries recovered from other transactions
   private long recovered = 0;
@@ -57,6 +59,10 @@ public class TxStats {
     return entriesReturned;
   }
 
+  public long getCacheHits() {
+    return cacheHits;
+  }
+
   public long getEntriesSet() {
     return entriesSet;
   }
@@ -115,6 +121,10 @@ public class TxStats {
     entriesReturned += l;
   }
 
+  void incrementCacheHits(long l) {
+    cacheHits += l;
+  }
+
   void incrementEntriesSet(long l) {
     entriesSet += l;
   }
@@ -157,6 +167,9 @@ public class TxStats {
     }
     registry.meter(names.getTxEntriesSet(alias)).mark(getEntriesSet());
     registry.meter(names.getTxEntriesRead(alias)).mark(getEntriesReturned());
+    if (getCacheHits() > 0) {
+      registry.meter(names.getTxCacheHits(alias)).mark(getCacheHits());
+    }
     if (getTimedOutLocks() > 0) {
       registry.meter(names.getTxLocksTimedout(alias)).mark(getTimedOutLocks());
     }
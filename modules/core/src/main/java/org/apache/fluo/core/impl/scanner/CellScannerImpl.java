@@ -50,18 +50,18 @@ public class CellScannerImpl implements CellScanner {
       row = prevRowBytes;
     } else {
       prevRowBs = rowBS;
-      prevRowBytes = row = ByteUtil.toBytes(rowBS);
+      prevRowBytes = row = ByteUtil.wrap(rowBS);
     }
 
     Column col = columnConverter.apply(entry.getKey());
-    Bytes val = Bytes.of(entry.getValue().get());
+    Bytes val = ByteUtil.wrap(entry.getValue().get());
     return new RowColumnValue(row, col, val);
   }
 
   CellScannerImpl(Iterable<Entry<Key, Value>> snapshot, Collection<Column> columns) {
     this.snapshot = snapshot;
     if (columns.isEmpty()) {
-      columnConverter = ColumnUtil::convert;
+      columnConverter = ColumnUtil::wrap;
     } else {
       columnConverter = new CachedColumnConverter(columns);
     }
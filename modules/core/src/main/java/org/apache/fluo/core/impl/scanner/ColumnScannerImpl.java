@@ -34,7 +34,7 @@ public class ColumnScannerImpl implements ColumnScanner {
 
   public ColumnValue entry2cv(Entry<Key, Value> entry) {
     Column col = columnConverter.apply(entry.getKey());
-    Bytes val = Bytes.of(entry.getValue().get());
+    Bytes val = ByteUtil.wrap(entry.getValue().get());
     return new ColumnValue(col, val);
   }
 
@@ -47,7 +47,7 @@ public class ColumnScannerImpl implements ColumnScanner {
   ColumnScannerImpl(Iterator<Entry<Key, Value>> e, Function<Key, Column> columnConverter) {
     peekingIter = Iterators.peekingIterator(e);
     this.columnConverter = columnConverter;
-    row = ByteUtil.toBytes(peekingIter.peek().getKey().getRowData());
+    row = ByteUtil.wrap(peekingIter.peek().getKey().getRowData());
     iter = Iterators.transform(peekingIter, this::entry2cv);
   }
 
@@ -18,10 +18,12 @@ package org.apache.fluo.core.impl.scanner;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 
 import com.google.common.collect.Iterators;
-import org.apache.accumulo.core.client.RowIterator;
+import com.google.common.collect.PeekingIterator;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.fluo.api.client.scanner.ColumnScanner;
@@ -32,13 +34,82 @@ import org.apache.fluo.core.util.ColumnUtil;
 
 public class RowScannerImpl implements RowScanner {
 
+  /**
+   * Splits a sorted stream of entries into rows. Unlike Accumulo's RowIterator, row data is
+   * compared in place instead of being copied into a Text for every entry, and the next entry is
+   * only read when asked for. Moving to the next row skips whatever the previous row iterator did
+   * not consume and disables it.
+   */
+  private static class RowIter implements Iterator<Iterator<Entry<Key, Value>>> {
+
+    private final PeekingIterator<Entry<Key, Value>> source;
+    private SingleRowIter current;
+
+    RowIter(Iterator<Entry<Key, Value>> source) {
+      this.source = Iterators.peekingIterator(source);
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (current != null) {
+        current.consume();
+        current = null;
+      }
+      return source.hasNext();
+    }
+
+    @Override
+    public Iterator<Entry<Key, Value>> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      current = new SingleRowIter(source);
+      return current;
+    }
+  }
+
+  private static class SingleRowIter implements Iterator<Entry<Key, Value>> {
+
+    private final PeekingIterator<Entry<Key, Value>> source;
+    // compare the row data in place, instead of copying each row into a Text
+    private final ByteSequence row;
+    private boolean done = false;
+
+    SingleRowIter(PeekingIterator<Entry<Key, Value>> source) {
+      this.source = source;
+      this.row = source.peek().getKey().getRowData();
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (!done && !(source.hasNext() && source.peek().getKey().getRowData().equals(row))) {
+        done = true;
+      }
+      return !done;
+    }
+
+    @Override
+    public Entry<Key, Value> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return source.next();
+    }
+
+    void consume() {
+      while (hasNext()) {
+        source.next();
+      }
+    }
+  }
+
   private Iterable<Entry<Key, Value>> snapshot;
   private Function<Key, Column> columnConverter;
 
   RowScannerImpl(Iterable<Entry<Key, Value>> snapshot, Collection<Column> columns) {
     this.snapshot = snapshot;
     if (columns.isEmpty()) {
-      columnConverter = ColumnUtil::convert;
+      columnConverter = ColumnUtil::wrap;
     } else {
       columnConverter = new CachedColumnConverter(columns);
     }
@@ -46,7 +117,7 @@ public class RowScannerImpl implements RowScanner {
 
   @Override
   public Iterator<ColumnScanner> iterator() {
-    RowIterator rowiter = new RowIterator(snapshot.iterator());
+    RowIter rowiter = new RowIter(snapshot.iterator());
     return Iterators.transform(rowiter, e -> new ColumnScannerImpl(e, columnConverter));
   }
 }
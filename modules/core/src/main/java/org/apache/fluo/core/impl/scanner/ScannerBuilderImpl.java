@@ -18,14 +18,17 @@ package org.apache.fluo.core.impl.scanner;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import org.apache.fluo.api.client.scanner.CellScanner;
 import org.apache.fluo.api.client.scanner.RowScannerBuilder;
 import org.apache.fluo.api.client.scanner.ScannerBuilder;
+import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Column;
 import org.apache.fluo.api.data.Span;
+import org.apache.fluo.core.impl.ScanFilter;
 import org.apache.fluo.core.impl.SnapshotScanner;
 import org.apache.fluo.core.impl.TransactionImpl;
 
@@ -36,6 +39,11 @@ public class ScannerBuilderImpl implements ScannerBuilder {
   private TransactionImpl tx;
   private Span span = EMPTY_SPAN;
   private Collection<Column> columns = Collections.emptyList();
+  private Bytes qualifierPrefix;
+  private String qualifierRegex;
+  private Bytes valuePrefix;
+  private int valueMaxSize = -1;
+  private boolean keysOnly = false;
 
   public ScannerBuilderImpl(TransactionImpl tx) {
     this.tx = tx;
@@ -70,16 +78,54 @@ public class ScannerBuilderImpl implements ScannerBuilder {
     return this;
   }
 
+  @Override
+  public ScannerBuilder filterQualifierPrefix(Bytes qualifierPrefix) {
+    this.qualifierPrefix = Objects.requireNonNull(qualifierPrefix);
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder filterQualifierRegex(String regex) {
+    // fail here on a bad pattern instead of in the tablet server
+    Pattern.compile(regex);
+    this.qualifierRegex = regex;
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder filterValuePrefix(Bytes valuePrefix) {
+    this.valuePrefix = Objects.requireNonNull(valuePrefix);
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder filterValueMaxSize(int maxSize) {
+    Preconditions.checkArgument(maxSize >= 0, "maxSize < 0 : %s", maxSize);
+    this.valueMaxSize = maxSize;
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder keysOnly() {
+    this.keysOnly = true;
+    return this;
+  }
+
+  private ScanFilter getFilter() {
+    return new ScanFilter(qualifierPrefix, qualifierRegex, valuePrefix, valueMaxSize, keysOnly);
+  }
+
   @Override
   public CellScanner build() {
-    SnapshotScanner snapScanner = tx.newSnapshotScanner(span, columns);
+    SnapshotScanner snapScanner = tx.newSnapshotScanner(span, columns, getFilter());
     return new CellScannerImpl(snapScanner, columns);
   }
 
   @Override
   public RowScannerBuilder byRow() {
+    ScanFilter filter = getFilter();
     return () -> {
-      SnapshotScanner snapScanner = tx.newSnapshotScanner(span, columns);
+      SnapshotScanner snapScanner = tx.newSnapshotScanner(span, columns, filter);
       return new RowScannerImpl(snapScanner, columns);
     };
   }
@@ -24,6 +24,7 @@ import org.apache.fluo.api.client.scanner.CellScanner;
 import org.apache.fluo.api.client.scanner.RowScannerBuilder;
 import org.apache.fluo.api.client.scanner.ScannerBuilder;
 import org.apache.fluo.api.config.FluoConfiguration;
+import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Column;
 import org.apache.fluo.api.data.Span;
 import org.apache.fluo.core.util.Hex;
@@ -71,6 +72,36 @@ public class TracingScannerBuilder implements ScannerBuilder {
     return this;
   }
 
+  @Override
+  public ScannerBuilder filterQualifierPrefix(Bytes qualifierPrefix) {
+    wrappedBuilder.filterQualifierPrefix(qualifierPrefix);
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder filterQualifierRegex(String regex) {
+    wrappedBuilder.filterQualifierRegex(regex);
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder filterValuePrefix(Bytes valuePrefix) {
+    wrappedBuilder.filterValuePrefix(valuePrefix);
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder filterValueMaxSize(int maxSize) {
+    wrappedBuilder.filterValueMaxSize(maxSize);
+    return this;
+  }
+
+  @Override
+  public ScannerBuilder keysOnly() {
+    wrappedBuilder.keysOnly();
+    return this;
+  }
+
   @Override
   public CellScanner build() {
     String scanId = Integer.toHexString(Math.abs(Objects.hash(span, columns, txid)));
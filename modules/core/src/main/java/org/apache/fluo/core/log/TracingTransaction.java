@@ -320,7 +320,7 @@ public class TracingTransaction extends AbstractTransactionBase
   }
 
   @Override
-  public int getSize() {
+  public long getSize() {
     return tx.getSize();
   }
 
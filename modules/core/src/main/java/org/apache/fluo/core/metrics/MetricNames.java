@@ -36,15 +36,30 @@ public class MetricNames {
   private final String txCollisions;
   private final String txEntriesSet;
   private final String txEntriesRead;
+  private final String txCacheHits;
   private final String txLocksTimedOut;
   private final String txLocksDead;
   private final String txStatusPrefix;
   private final String txCommitting;
+  private final String txCommitMemory;
+  private final String txCommitMemoryWait;
+
+  private final String observerQueued;
+  private final String observerQueueWait;
 
   private final String notificationsQueued;
+  private final String notificationsAdmitted;
+  private final String notificationsRejected;
+  private final String notificationsCoalesced;
+  private final String notificationsMemory;
+
+  private final String bwGroupSize;
+  private final String bwFlushTime;
+  private final String bwQueueDepth;
 
   private final String oracleResponseTime;
   private final String oracleClientStamps;
+  private final String oracleClientQueueWait;
   private final String oracleServerStamps;
 
   public MetricNames(String metricsReporterId, String appName) {
@@ -62,17 +77,30 @@ public class MetricNames {
     txCollisions = classMetric + "tx_collisions";
     txEntriesSet = classMetric + "tx_entries_set";
     txEntriesRead = classMetric + "tx_entries_read";
+    txCacheHits = classMetric + "tx_cache_hits";
     txLocksTimedOut = classMetric + "tx_locks_timedout";
     txLocksDead = classMetric + "tx_locks_dead";
     txStatusPrefix = classMetric + "tx_status_"; // status appended to metric name
+    observerQueued = classMetric + "worker_observer_queued";
+    observerQueueWait = classMetric + "worker_observer_queue_wait";
 
     // System-wide metrics
     // FORMAT: fluo.system.APPLICATION.REPORTER_ID.METRIC
     final String systemMetric = SYSTEM_PREFIX + "." + appName + "." + metricsReporterId + ".";
     txCommitting = systemMetric + "transactor_committing";
+    txCommitMemory = systemMetric + "transactor_commit_memory";
+    txCommitMemoryWait = systemMetric + "transactor_commit_memory_wait";
     notificationsQueued = systemMetric + "worker_notifications_queued";
+    notificationsAdmitted = systemMetric + "worker_notifications_admitted";
+    notificationsRejected = systemMetric + "worker_notifications_rejected";
+    notificationsCoalesced = systemMetric + "worker_notifications_coalesced";
+    notificationsMemory = systemMetric + "worker_notifications_memory";
+    bwGroupSize = systemMetric + "bw_group_size";
+    bwFlushTime = systemMetric + "bw_flush_time";
+    bwQueueDepth = systemMetric + "bw_queue_depth";
     oracleResponseTime = systemMetric + "oracle_response_time";
     oracleClientStamps = systemMetric + "oracle_client_stamps";
+    oracleClientQueueWait = systemMetric + "oracle_client_queue_wait";
     oracleServerStamps = systemMetric + "oracle_server_stamps";
   }
 
@@ -100,6 +128,10 @@ public class MetricNames {
     return txEntriesRead + "." + className;
   }
 
+  public String getTxCacheHits(String className) {
+    return txCacheHits + "." + className;
+  }
+
   public String getTxLocksTimedout(String className) {
     return txLocksTimedOut + "." + className;
   }
@@ -112,10 +144,46 @@ public class MetricNames {
     return txStatusPrefix + status + "." + className;
   }
 
+  public String getObserverQueued(String observerId) {
+    return observerQueued + "." + observerId;
+  }
+
+  public String getObserverQueueWait(String observerId) {
+    return observerQueueWait + "." + observerId;
+  }
+
   public String getNotificationQueued() {
     return notificationsQueued;
   }
 
+  public String getNotificationAdmitted() {
+    return notificationsAdmitted;
+  }
+
+  public String getNotificationRejected() {
+    return notificationsRejected;
+  }
+
+  public String getNotificationCoalesced() {
+    return notificationsCoalesced;
+  }
+
+  public String getNotificationMemory() {
+    return notificationsMemory;
+  }
+
+  public String getBatchWriterGroupSize() {
+    return bwGroupSize;
+  }
+
+  public String getBatchWriterFlushTime() {
+    return bwFlushTime;
+  }
+
+  public String getBatchWriterQueueDepth() {
+    return bwQueueDepth;
+  }
+
   public String getOracleResponseTime() {
     return oracleResponseTime;
   }
@@ -124,6 +192,10 @@ public class MetricNames {
     return oracleClientStamps;
   }
 
+  public String getOracleClientQueueWait() {
+    return oracleClientQueueWait;
+  }
+
   public String getOracleServerStamps() {
     return oracleServerStamps;
   }
@@ -131,4 +203,12 @@ public class MetricNames {
   public String getCommitsProcessing() {
     return txCommitting;
   }
+
+  public String getCommitMemory() {
+    return txCommitMemory;
+  }
+
+  public String getCommitMemoryWait() {
+    return txCommitMemoryWait;
+  }
 }
@@ -16,6 +16,7 @@
 package org.apache.fluo.core.observer;
 
 import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.observer.BatchObserver;
 import org.apache.fluo.api.observer.Observer;
 
 public interface Observers extends AutoCloseable {
@@ -23,6 +24,29 @@ public interface Observers extends AutoCloseable {
 
   Observer getObserver(Column col);
 
+  /**
+   * @return the max number of notifications to pass to a {@link BatchObserver} at once, or 1 if the
+   *         column is not observed by a batch observer
+   */
+  default int getMaxBatchSize(Column col) {
+    return 1;
+  }
+
+  /**
+   * @return the share of worker threads given to the observer of the column relative to other
+   *         observers with queued notifications
+   */
+  default int getWeight(Column col) {
+    return 1;
+  }
+
+  /**
+   * @return the max number of worker threads that may run the observer of the column at once
+   */
+  default int getMaxConcurrency(Column col) {
+    return Integer.MAX_VALUE;
+  }
+
   void returnObserver(Observer o);
 
   @Override
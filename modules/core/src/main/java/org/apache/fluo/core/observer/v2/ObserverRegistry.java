@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.observer.BatchObserver;
 import org.apache.fluo.api.observer.Observer;
 import org.apache.fluo.api.observer.Observer.NotificationType;
 import org.apache.fluo.api.observer.ObserverProvider;
@@ -34,15 +35,19 @@ public class ObserverRegistry implements ObserverProvider.Registry {
 
   Map<Column, Observer> observers;
   Map<Column, String> aliases;
+  Map<Column, Integer> batchSizes;
+  Map<Column, Integer> weights;
+  Map<Column, Integer> maxConcurrency;
   private Set<Column> strongColumns;
   private Set<Column> weakColumns;
 
-  private class FluentRegistration implements ObserverProvider.Registry.IdentityOption,
-      ObserverProvider.Registry.ObserverArgument {
+  private class FluentRegistration implements ObserverProvider.Registry.IdentityOption {
 
     private Column col;
     private NotificationType ntfyType;
     private String alias;
+    private Integer weight;
+    private Integer maxThreads;
 
     FluentRegistration(Column col, NotificationType ntfyType) {
       this.col = col;
@@ -59,16 +64,60 @@ public class ObserverRegistry implements ObserverProvider.Registry {
       register(col, ntfyType, alias, observer);
     }
 
+    @Override
+    public void useBatchObserver(BatchObserver observer, int maxBatchSize) {
+      if (ntfyType != NotificationType.WEAK) {
+        throw new IllegalArgumentException(
+            "Batch observers can only observe weak notifications, column : " + col);
+      }
+      if (maxBatchSize <= 0) {
+        throw new IllegalArgumentException("Bad max batch size " + maxBatchSize + " for " + col);
+      }
+      register(col, ntfyType, alias, observer);
+      batchSizes.put(col, maxBatchSize);
+    }
+
     @Override
     public ObserverArgument withId(String alias) {
       this.alias = alias;
       return this;
     }
+
+    @Override
+    public IdentityOption withWeight(int weight) {
+      if (weight <= 0) {
+        throw new IllegalArgumentException("Bad weight " + weight + " for " + col);
+      }
+      this.weight = weight;
+      return this;
+    }
+
+    @Override
+    public IdentityOption withMaxConcurrency(int maxThreads) {
+      if (maxThreads <= 0) {
+        throw new IllegalArgumentException("Bad max concurrency " + maxThreads + " for " + col);
+      }
+      this.maxThreads = maxThreads;
+      return this;
+    }
+
+    private void register(Column col, NotificationType nt, String alias, Observer obs) {
+      ObserverRegistry.this.register(col, nt, alias, obs);
+      if (weight != null) {
+        weights.put(col, weight);
+      }
+      if (maxThreads != null) {
+        maxConcurrency.put(col, maxThreads);
+      }
+    }
   }
 
   ObserverRegistry(Set<Column> strongColumns, Set<Column> weakColumns) {
     this.observers = new HashMap<>();
     this.aliases = new HashMap<>();
+    this.batchSizes = new HashMap<>();
+    this.weights = new HashMap<>();
+    this.maxConcurrency = new HashMap<>();
     this.strongColumns = strongColumns;
     this.weakColumns = weakColumns;
   }
@@ -32,6 +32,9 @@ class ObserversV2 implements Observers {
 
   Map<Column, Observer> observers;
   Map<Column, String> aliases;
+  Map<Column, Integer> batchSizes;
+  Map<Column, Integer> weights;
+  Map<Column, Integer> maxConcurrency;
 
   public ObserversV2(Environment env, JsonObservers jco, Set<Column> strongColumns,
       Set<Column> weakColumns) {
@@ -46,6 +49,9 @@ class ObserversV2 implements Observers {
 
     this.observers = or.observers;
     this.aliases = or.aliases;
+    this.batchSizes = or.batchSizes;
+    this.weights = or.weights;
+    this.maxConcurrency = or.maxConcurrency;
     this.observers.forEach((k, v) -> aliases.computeIfAbsent(k, col -> Hex.encNonAscii(col, ":")));
 
     // the following check ensures observers are provided for all previously configured columns
@@ -62,6 +68,21 @@ class ObserversV2 implements Observers {
     return observers.get(col);
   }
 
+  @Override
+  public int getMaxBatchSize(Column col) {
+    return batchSizes.getOrDefault(col, 1);
+  }
+
+  @Override
+  public int getWeight(Column col) {
+    return weights.getOrDefault(col, 1);
+  }
+
+  @Override
+  public int getMaxConcurrency(Column col) {
+    return maxConcurrency.getOrDefault(col, Integer.MAX_VALUE);
+  }
+
   @Override
   public void returnObserver(Observer o) {}
 
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.oracle;
+
+/**
+ * Decides how long the oracle client should wait to gather more timestamp requests into one RPC.
+ * Waiting only pays off when more requests are likely to arrive, so the window is derived from the
+ * observed arrival rate and oracle response time. When requests are sparse the window is zero and
+ * requests are sent right away.
+ */
+class BatchWindow {
+
+  // weight given to new samples in the moving averages
+  private static final double ALPHA = 0.2;
+
+  private final long maxWindowNanos;
+
+  // moving averages, negative until the first sample is seen
+  private double arrivalNanos = -1;
+  private double responseNanos = -1;
+  private long lastBatchTime;
+  private boolean seenBatch = false;
+
+  BatchWindow(long maxWindowNanos) {
+    this.maxWindowNanos = maxWindowNanos;
+  }
+
+  private static double average(double avg, double sample) {
+    return avg < 0 ? sample : ALPHA * sample + (1 - ALPHA) * avg;
+  }
+
+  /**
+   * Records that a batch of requests is being sent.
+   */
+  synchronized void batchSent(int size, long timeNanos) {
+    if (seenBatch) {
+      arrivalNanos = average(arrivalNanos, (double) (timeNanos - lastBatchTime) / size);
+    }
+    lastBatchTime = timeNanos;
+    seenBatch = true;
+  }
+
+  synchronized void responseReceived(long elapsedNanos) {
+    responseNanos = average(responseNanos, elapsedNanos);
+  }
+
+  /**
+   * @return nanoseconds to wait for more requests before sending a batch
+   */
+  synchronized long getWindowNanos() {
+    if (arrivalNanos < 0 || responseNanos < 0) {
+      return 0;
+    }
+
+    // waiting longer than half a round trip would hurt latency more than batching helps
+    long window = Math.min(maxWindowNanos, (long) (responseNanos / 2));
+
+    // only wait if at least one more request is expected to arrive in the window
+    return arrivalNanos < window ? window : 0;
+  }
+}
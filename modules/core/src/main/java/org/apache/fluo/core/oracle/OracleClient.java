@@ -17,6 +17,7 @@ package org.apache.fluo.core.oracle;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
@@ -38,6 +39,7 @@ import org.apache.fluo.accumulo.util.ZookeeperPath;
 import org.apache.fluo.api.exceptions.FluoException;
 import org.apache.fluo.core.impl.CuratorCnxnListener;
 import org.apache.fluo.core.impl.Environment;
+import org.apache.fluo.core.impl.FluoConfigurationImpl;
 import org.apache.fluo.core.metrics.MetricsUtil;
 import org.apache.fluo.core.thrift.OracleService;
 import org.apache.fluo.core.thrift.Stamps;
@@ -64,53 +66,85 @@ public class OracleClient implements AutoCloseable {
   private static final int MAX_ORACLE_WAIT_PERIOD = 60;
 
   private final Timer responseTimer;
+  private final Timer queueWaitTimer;
+  // number of stamps requested per RPC, which is the batch size
   private final Histogram stampsHistogram;
+  private final BatchWindow batchWindow;
 
+  // The following fields watch for the oracle leader and are shared by all retrievers. They are
+  // guarded by synchronizing on this OracleClient.
+  private CuratorFramework curatorFramework;
+  private LeaderLatch leaderLatch;
+  private PathChildrenCache pathChildrenCache;
   private Participant currentLeader;
 
   private static final class TimeRequest {
+    final long enqueueTime = System.nanoTime();
     CountDownLatch cdl = new CountDownLatch(1);
     AtomicReference<Stamp> stampRef = new AtomicReference<>();
     CompletableFuture<Stamp> cf = null;
   }
 
-  private class TimestampRetriever extends LeaderSelectorListenerAdapter
-      implements Runnable, PathChildrenCacheListener {
+  /**
+   * Watches Zookeeper for changes to the oracle leader. One watcher is shared by all retrievers, so
+   * a client only opens one Zookeeper session no matter how many RPCs it allows in flight.
+   */
+  private class LeaderWatcher extends LeaderSelectorListenerAdapter
+      implements PathChildrenCacheListener {
 
-    private LeaderLatch leaderLatch;
-    private CuratorFramework curatorFramework;
-    private OracleService.Client client;
-    private PathChildrenCache pathChildrenCache;
+    /**
+     * It's possible an Oracle has gone into a bad state. Upon the leader being changed, we want to
+     * update our state
+     */
+    @Override
+    public void childEvent(CuratorFramework curatorFramework, PathChildrenCacheEvent event)
+        throws Exception {
+
+      if (event.getType().equals(PathChildrenCacheEvent.Type.CHILD_REMOVED)
+          || event.getType().equals(PathChildrenCacheEvent.Type.CHILD_ADDED)
+          || event.getType().equals(PathChildrenCacheEvent.Type.CHILD_UPDATED)) {
+
+        synchronized (OracleClient.this) {
+          if (leaderLatch == null) {
+            return;
+          }
+          Participant participant = leaderLatch.getLeader();
+          if (isLeader(participant)) {
+            currentLeader = participant;
+          } else {
+            currentLeader = null;
+          }
+        }
+      }
+    }
+
+    /**
+     * NOTE: This isn't competing for leadership, so it doesn't need to be started.
+     */
+    @Override
+    public void takeLeadership(CuratorFramework curatorFramework) throws Exception {}
+  }
+
+  private class TimestampRetriever implements Runnable {
 
+    private OracleService.Client client;
     private TTransport transport;
+    // the id of the oracle this retriever's transport is connected to
+    private String connectedLeaderId;
 
     @Override
     public void run() {
 
       try {
+        if (!startLeaderWatcher()) {
+          return;
+        }
         synchronized (this) {
           // want this code to be mutually exclusive with close() .. so if in middle of setup, close
           // method will wait till finished
           if (closed.get()) {
             return;
           }
-
-          curatorFramework = CuratorUtil.newAppCurator(env.getConfiguration());
-          CuratorCnxnListener cnxnListener = new CuratorCnxnListener();
-          curatorFramework.getConnectionStateListenable().addListener(cnxnListener);
-          curatorFramework.start();
-
-          while (!cnxnListener.isConnected()) {
-            UtilWaitThread.sleep(200);
-          }
-
-          leaderLatch = new LeaderLatch(curatorFramework, ZookeeperPath.ORACLE_SERVER);
-
-          pathChildrenCache =
-              new PathChildrenCache(curatorFramework, ZookeeperPath.ORACLE_SERVER, true);
-          pathChildrenCache.getListenable().addListener(this);
-          pathChildrenCache.start();
-
           connect();
         }
         doWork();
@@ -123,29 +157,6 @@ public class OracleClient implements AutoCloseable {
       }
     }
 
-    /**
-     * It's possible an Oracle has gone into a bad state. Upon the leader being changed, we want to
-     * update our state
-     */
-    @Override
-    public void childEvent(CuratorFramework curatorFramework, PathChildrenCacheEvent event)
-        throws Exception {
-
-      if (event.getType().equals(PathChildrenCacheEvent.Type.CHILD_REMOVED)
-          || event.getType().equals(PathChildrenCacheEvent.Type.CHILD_ADDED)
-          || event.getType().equals(PathChildrenCacheEvent.Type.CHILD_UPDATED)) {
-
-        Participant participant = leaderLatch.getLeader();
-        synchronized (this) {
-          if (isLeader(participant)) {
-            currentLeader = leaderLatch.getLeader();
-          } else {
-            currentLeader = null;
-          }
-        }
-      }
-    }
-
     private void doWork() {
 
       ArrayList<TimeRequest> request = new ArrayList<>();
@@ -162,7 +173,7 @@ public class OracleClient implements AutoCloseable {
             trh = queue.poll(1, TimeUnit.SECONDS);
           }
           request.add(trh);
-          queue.drainTo(request);
+          gatherRequests(request);
 
           long txStampsStart;
           long gcStamp;
@@ -173,7 +184,7 @@ public class OracleClient implements AutoCloseable {
               String currentLeaderId;
               OracleService.Client localClient;
               synchronized (this) {
-                currentLeaderId = getOracle();
+                currentLeaderId = connectedLeaderId;
                 localClient = client;
               }
 
@@ -190,7 +201,7 @@ public class OracleClient implements AutoCloseable {
               }
 
               stampsHistogram.update(request.size());
-              timerContext.close();
+              batchWindow.responseReceived(timerContext.stop());
 
               break;
 
@@ -224,13 +235,40 @@ public class OracleClient implements AutoCloseable {
       }
     }
 
+    /**
+     * Adds queued requests to the batch, waiting for more to arrive if the batch window is open.
+     */
+    private void gatherRequests(ArrayList<TimeRequest> request) throws InterruptedException {
+      queue.drainTo(request);
+
+      long window = batchWindow.getWindowNanos();
+      if (window > 0) {
+        long deadline = System.nanoTime() + window;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+          TimeRequest trh = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (trh == null) {
+            break;
+          }
+          request.add(trh);
+          queue.drainTo(request);
+        }
+      }
+
+      long now = System.nanoTime();
+      batchWindow.batchSent(request.size(), now);
+      for (TimeRequest tr : request) {
+        queueWaitTimer.update(now - tr.enqueueTime, TimeUnit.NANOSECONDS);
+      }
+    }
+
     private synchronized void connect()
         throws IOException, KeeperException, InterruptedException, TTransportException {
 
-      getLeader();
+      String leaderId = getLeader();
       while (true) {
-        log.debug("Connecting to oracle at " + currentLeader.getId());
-        String[] hostAndPort = currentLeader.getId().split(":");
+        log.debug("Connecting to oracle at " + leaderId);
+        String[] hostAndPort = leaderId.split(":");
 
         String host = hostAndPort[0];
         int port = Integer.parseInt(hostAndPort[1]);
@@ -240,11 +278,12 @@ public class OracleClient implements AutoCloseable {
           transport.open();
           TProtocol protocol = new TCompactProtocol(transport);
           client = new OracleService.Client(protocol);
-          log.info("Connected to oracle at " + getOracle());
+          connectedLeaderId = leaderId;
+          log.info("Connected to oracle at " + leaderId);
           break;
         } catch (TTransportException e) {
           sleepRandom();
-          getLeader();
+          leaderId = getLeader();
         } catch (Exception e) {
           throw new RuntimeException(e);
         }
@@ -266,86 +305,144 @@ public class OracleClient implements AutoCloseable {
       if (transport != null && transport.isOpen()) {
         transport.close();
       }
-      try {
-        if (pathChildrenCache != null) {
-          pathChildrenCache.close();
-        }
-      } catch (IOException e) {
-        throw new RuntimeException(e);
-      }
+      transport = null;
+      connectedLeaderId = null;
+    }
+  }
 
-      if (curatorFramework != null) {
-        curatorFramework.close();
+  /**
+   * Starts watching for the oracle leader, unless another retriever already did.
+   *
+   * @return false if this client was closed
+   */
+  private synchronized boolean startLeaderWatcher() {
+    if (closed.get()) {
+      return false;
+    }
+    if (curatorFramework != null) {
+      return true;
+    }
+
+    curatorFramework = CuratorUtil.newAppCurator(env.getConfiguration());
+    CuratorCnxnListener cnxnListener = new CuratorCnxnListener();
+    curatorFramework.getConnectionStateListenable().addListener(cnxnListener);
+    curatorFramework.start();
+
+    while (!cnxnListener.isConnected()) {
+      if (closed.get()) {
+        return false;
       }
+      UtilWaitThread.sleep(200);
+    }
 
-      transport = null;
-      pathChildrenCache = null;
-      leaderLatch = null;
-      curatorFramework = null;
+    leaderLatch = new LeaderLatch(curatorFramework, ZookeeperPath.ORACLE_SERVER);
+
+    pathChildrenCache = new PathChildrenCache(curatorFramework, ZookeeperPath.ORACLE_SERVER, true);
+    pathChildrenCache.getListenable().addListener(new LeaderWatcher());
+    try {
+      pathChildrenCache.start();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
     }
+    return true;
+  }
 
-    private boolean getLeaderAttempt() {
-      Participant possibleLeader = null;
-      try {
-        possibleLeader = leaderLatch.getLeader();
-      } catch (KeeperException e) {
-        log.debug("Exception throw in getLeaderAttempt()", e);
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+  private synchronized void closeLeaderWatcher() {
+    try {
+      if (pathChildrenCache != null) {
+        pathChildrenCache.close();
       }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
 
-      if (isLeader(possibleLeader)) {
-        currentLeader = possibleLeader;
-        return true;
-      }
-      return false;
+    if (curatorFramework != null) {
+      curatorFramework.close();
     }
 
-    /**
-     * Attempt to retrieve a leader until one is found
-     */
-    private void getLeader() {
-      boolean found = getLeaderAttempt();
-      while (!found) {
-        sleepRandom();
-        found = getLeaderAttempt();
-      }
+    pathChildrenCache = null;
+    leaderLatch = null;
+    curatorFramework = null;
+    currentLeader = null;
+  }
+
+  private synchronized String getLeaderAttempt() {
+    if (leaderLatch == null) {
+      // closed
+      return null;
     }
 
-    /**
-     * Sleep a random amount of time from 100ms to 1sec
-     */
-    private void sleepRandom() {
-      UtilWaitThread.sleep(100 + (long) (1000 * Math.random()), closed);
+    Participant possibleLeader = null;
+    try {
+      possibleLeader = leaderLatch.getLeader();
+    } catch (KeeperException e) {
+      log.debug("Exception throw in getLeaderAttempt()", e);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
     }
 
-    private boolean isLeader(Participant participant) {
-      return participant != null && participant.isLeader();
+    if (isLeader(possibleLeader)) {
+      currentLeader = possibleLeader;
+      return possibleLeader.getId();
     }
+    return null;
+  }
 
-    /**
-     * NOTE: This isn't competing for leadership, so it doesn't need to be started.
-     */
-    @Override
-    public void takeLeadership(CuratorFramework curatorFramework) throws Exception {}
+  /**
+   * Attempt to retrieve a leader until one is found. The lock is not held while sleeping, so other
+   * retrievers and leader changes are not blocked.
+   */
+  private String getLeader() {
+    String leaderId = getLeaderAttempt();
+    while (leaderId == null) {
+      checkClosed();
+      sleepRandom();
+      leaderId = getLeaderAttempt();
+    }
+    return leaderId;
+  }
+
+  /**
+   * Sleep a random amount of time from 100ms to 1sec
+   */
+  private void sleepRandom() {
+    UtilWaitThread.sleep(100 + (long) (1000 * Math.random()), closed);
+  }
+
+  private static boolean isLeader(Participant participant) {
+    return participant != null && participant.isLeader();
   }
 
   private final Environment env;
   private final ArrayBlockingQueue<TimeRequest> queue = new ArrayBlockingQueue<>(10000);
-  private final Thread thread;
+  private final List<Thread> threads = new ArrayList<>();
   private AtomicBoolean closed = new AtomicBoolean(false);
-  private final TimestampRetriever timestampRetriever;
+  private final List<TimestampRetriever> timestampRetrievers = new ArrayList<>();
 
   public OracleClient(Environment env) {
     this.env = env;
     responseTimer = MetricsUtil.getTimer(env.getConfiguration(),
         env.getSharedResources().getMetricRegistry(), env.getMetricNames().getOracleResponseTime());
+    queueWaitTimer =
+        MetricsUtil.getTimer(env.getConfiguration(), env.getSharedResources().getMetricRegistry(),
+            env.getMetricNames().getOracleClientQueueWait());
     stampsHistogram = MetricsUtil.getHistogram(env.getConfiguration(),
         env.getSharedResources().getMetricRegistry(), env.getMetricNames().getOracleClientStamps());
-    timestampRetriever = new TimestampRetriever();
-    thread = new Thread(timestampRetriever);
-    thread.setDaemon(true);
-    thread.start();
+    batchWindow = new BatchWindow(FluoConfigurationImpl
+        .getOracleClientBatchWindow(env.getConfiguration(), TimeUnit.NANOSECONDS));
+
+    // Each retriever has its own connection, allowing multiple RPCs to be in flight to the oracle.
+    // This does not weaken the ordering guarantees. A request queued after a stamp is returned will
+    // always be sent after the oracle allocated that stamp.
+    int numRetrievers = FluoConfigurationImpl.getOracleClientMaxRpcs(env.getConfiguration());
+    for (int i = 0; i < numRetrievers; i++) {
+      TimestampRetriever timestampRetriever = new TimestampRetriever();
+      Thread thread = new Thread(timestampRetriever);
+      thread.setDaemon(true);
+      thread.start();
+      timestampRetrievers.add(timestampRetriever);
+      threads.add(thread);
+    }
   }
 
   /**
@@ -396,7 +493,7 @@ public class OracleClient implements AutoCloseable {
   }
 
   /**
-   * Return the oracle that the current client is connected to.
+   * Return the current oracle leader, which retrievers connect to.
    */
   public synchronized String getOracle() {
     checkClosed();
@@ -414,9 +511,12 @@ public class OracleClient implements AutoCloseable {
     if (!closed.get()) {
       closed.set(true);
       try {
-        thread.interrupt();
-        thread.join();
-        timestampRetriever.close();
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+          thread.join();
+        }
+        timestampRetrievers.forEach(TimestampRetriever::close);
+        closeLeaderWatcher();
       } catch (InterruptedException e) {
         throw new FluoException("Interrupted during close", e);
       }
@@ -38,6 +38,7 @@ import org.apache.curator.framework.recipes.leader.LeaderLatchListener;
 import org.apache.curator.framework.recipes.leader.Participant;
 import org.apache.fluo.accumulo.util.LongUtil;
 import org.apache.fluo.accumulo.util.ZookeeperPath;
+import org.apache.fluo.api.config.FluoConfiguration;
 import org.apache.fluo.core.impl.CuratorCnxnListener;
 import org.apache.fluo.core.impl.Environment;
 import org.apache.fluo.core.impl.FluoConfigurationImpl;
@@ -88,13 +89,13 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
 
   private Thread serverThread;
   private THsHaServer server;
-  private volatile long currentTs = 0;
-  private volatile long maxTs = 0;
+  private volatile TimestampAllocator allocator;
   private volatile boolean started = false;
   private int port = 0;
 
   private LeaderLatch leaderLatch;
   private ExecutorService execService;
+  private ExecutorService allocatorService;
   private PathChildrenCache pathChildrenCache;
   private CuratorFramework curatorFramework;
   private CuratorCnxnListener cnxnListener;
@@ -149,7 +150,7 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
       if (nodeFound) {
         updateAdvertisedGcTimestamp(oldestTs);
       } else {
-        updateAdvertisedGcTimestamp(currentTs);
+        updateAdvertisedGcTimestamp(allocator.getNext());
       }
     }
 
@@ -169,7 +170,7 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
       TimerTask logTask = new TimerTask() {
         @Override
         public void run() {
-          log.info("Current timestamp: {}", currentTs);
+          log.info("Current timestamp: {}", allocator.getNext());
         }
       };
 
@@ -199,24 +200,23 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
     this.oraclePath = ZookeeperPath.ORACLE_SERVER;
   }
 
-  private void allocateTimestamp() throws Exception {
+  private long allocateTimestamps(long blockSize) throws Exception {
     Stat stat = new Stat();
     byte[] d = curatorFramework.getData().storingStatIn(stat).forPath(maxTsPath);
 
     // TODO check that d is expected
     // TODO check that still server when setting
-    // TODO make num allocated variable... when a server first starts allocate a small amount... the
-    // longer it runs and the busier it is, allocate bigger blocks
 
-    long newMax = Long.parseLong(new String(d)) + 1000;
+    long newMax = Long.parseLong(new String(d)) + blockSize;
 
     curatorFramework.setData().withVersion(stat.getVersion()).forPath(maxTsPath,
         LongUtil.toByteArray(newMax));
-    maxTs = newMax;
 
     if (!isLeader) {
       throw new IllegalStateException();
     }
+
+    return newMax;
   }
 
   @Override
@@ -229,7 +229,7 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
     return new Stamps(start, gcTsTracker.advertisedGcTimetamp);
   }
 
-  private synchronized long getTimestampsImpl(String id, int num) throws TException {
+  private long getTimestampsImpl(String id, int num) throws TException {
     if (!started) {
       throw new IllegalStateException("Received timestamp request but Oracle has not started");
     }
@@ -245,14 +245,7 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
     }
 
     try {
-      while (num + currentTs >= maxTs) {
-        allocateTimestamp();
-      }
-
-      long tmp = currentTs;
-      currentTs += num;
-
-      return tmp;
+      return allocator.allocate(num);
     } catch (Exception e) {
       throw new TException(e);
     }
@@ -326,6 +319,8 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
     leaderLatch = new LeaderLatch(curatorFramework, ZookeeperPath.ORACLE_SERVER, leaderId);
     log.info("Leader ID = " + leaderId);
     execService = Executors.newSingleThreadExecutor(new FluoThreadFactory("Oracle Server Worker"));
+    allocatorService =
+        Executors.newSingleThreadExecutor(new FluoThreadFactory("Oracle Timestamp Allocator"));
     leaderLatch.addListener(new LeaderLatchListener() {
       @Override
       public void notLeader() {
@@ -381,7 +376,12 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
     try {
       synchronized (this) {
         byte[] d = curatorFramework.getData().forPath(maxTsPath);
-        currentTs = maxTs = LongUtil.fromByteArray(d);
+        FluoConfiguration conf = env.getConfiguration();
+        allocator = new TimestampAllocator(LongUtil.fromByteArray(d), this::allocateTimestamps,
+            allocatorService, FluoConfigurationImpl.getOracleMinBlockSize(conf),
+            FluoConfigurationImpl.getOracleMaxBlockSize(conf),
+            FluoConfigurationImpl.getOracleBlockPeriod(conf, TimeUnit.MILLISECONDS),
+            TimeUnit.MILLISECONDS);
       }
 
       gcTsTracker = new GcTimestampTracker();
@@ -416,8 +416,10 @@ public class OracleServer implements OracleService.Iface, PathChildrenCacheListe
         leaderLatch.close();
 
         execService.shutdown();
+        allocatorService.shutdown();
 
         execService.awaitTermination(10, TimeUnit.SECONDS);
+        allocatorService.awaitTermination(10, TimeUnit.SECONDS);
 
         curatorFramework.getConnectionStateListenable().removeListener(cnxnListener);
 
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.oracle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands out timestamps from blocks that were reserved in Zookeeper. Timestamps are allocated with
+ * an atomic increment, so requests only wait on Zookeeper when a block is exhausted before the next
+ * one is reserved. The next block is reserved in the background once the current block passes a low
+ * water mark. The size of a block adapts to the rate timestamps are requested. A server that just
+ * started reserves small blocks, a busy server reserves bigger blocks.
+ */
+class TimestampAllocator {
+
+  private static final Logger log = LoggerFactory.getLogger(TimestampAllocator.class);
+
+  interface BlockReserver {
+    /**
+     * Persists a new maximum timestamp that is blockSize past the current maximum.
+     *
+     * @return the new maximum timestamp, which is exclusive
+     */
+    long reserve(long blockSize) throws Exception;
+  }
+
+  private final AtomicLong next;
+  private volatile long max;
+  private volatile long lowWater;
+
+  private final BlockReserver reserver;
+  private final Executor executor;
+  private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+  private final long minBlockSize;
+  private final long maxBlockSize;
+  private final long blockPeriodNanos;
+
+  // following are guarded by this
+  private long blockSize;
+  private long lastReserveTime;
+  private long lastReserveNext;
+
+  /**
+   * @param start The first timestamp to hand out. All timestamps before this are assumed to be
+   *        reserved, so the first request reserves a block.
+   * @param executor Used to reserve blocks in the background
+   */
+  TimestampAllocator(long start, BlockReserver reserver, Executor executor, long minBlockSize,
+      long maxBlockSize, long blockPeriod, TimeUnit tu) {
+    Preconditions.checkArgument(minBlockSize > 0 && minBlockSize <= maxBlockSize);
+    this.next = new AtomicLong(start);
+    this.max = start;
+    this.reserver = reserver;
+    this.executor = executor;
+    this.minBlockSize = minBlockSize;
+    this.maxBlockSize = maxBlockSize;
+    this.blockPeriodNanos = tu.toNanos(blockPeriod);
+    this.blockSize = minBlockSize;
+    this.lowWater = minBlockSize / 2;
+    this.lastReserveTime = System.nanoTime();
+    this.lastReserveNext = start;
+  }
+
+  /**
+   * @return the first of num consecutive timestamps
+   */
+  long allocate(int num) throws Exception {
+    Preconditions.checkArgument(num > 0, "num must be positive");
+
+    long start = next.getAndAdd(num);
+    long end = start + num;
+
+    if (end > max) {
+      // Every later request will also be past max, so it is safe to return a stamp to a client
+      // after
+      // waiting here. Clients will always see increasing timestamps.
+      reserveUntil(end);
+    } else if (max - end < lowWater && prefetching.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::prefetch);
+      } catch (RuntimeException e) {
+        prefetching.set(false);
+        throw e;
+      }
+    }
+
+    return start;
+  }
+
+  /**
+   * @return the next timestamp that will be handed out
+   */
+  long getNext() {
+    return next.get();
+  }
+
+  long getMax() {
+    return max;
+  }
+
+  synchronized long getBlockSize() {
+    return blockSize;
+  }
+
+  private synchronized void reserveUntil(long end) throws Exception {
+    while (max < end) {
+      reserve(end);
+    }
+  }
+
+  private void prefetch() {
+    try {
+      synchronized (this) {
+        if (max - next.get() < lowWater) {
+          reserve(next.get());
+        }
+      }
+    } catch (Exception e) {
+      log.warn("Failed to reserve next block of timestamps in background", e);
+    } finally {
+      prefetching.set(false);
+    }
+  }
+
+  // caller must hold lock
+  private void reserve(long needed) throws Exception {
+    long now = System.nanoTime();
+    long elapsed = now - lastReserveTime;
+    long issued = next.get() - lastReserveNext;
+
+    if (elapsed > 0) {
+      // size the block so that at the current rate it would last the target period
+      long size = (long) ((double) issued * blockPeriodNanos / elapsed);
+      blockSize = Math.min(maxBlockSize, Math.max(minBlockSize, size));
+    }
+
+    long newMax = reserver.reserve(Math.max(blockSize, needed - max));
+    log.debug("Reserved timestamps up to {} using block size {}", newMax, blockSize);
+
+    max = newMax;
+    lowWater = blockSize / 2;
+    lastReserveTime = now;
+    lastReserveNext = next.get();
+  }
+}
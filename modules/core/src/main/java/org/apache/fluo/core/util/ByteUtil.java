@@ -23,6 +23,7 @@ import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Bytes.BytesBuilder;
+import org.apache.fluo.api.internal.InternalBytes;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableUtils;
 
@@ -33,6 +34,9 @@ public class ByteUtil {
 
   public static final byte[] EMPTY = new byte[0];
 
+  // a wrapped array may be at most this many bytes larger than the data it holds
+  private static final int MAX_WRAP_WASTE = 64;
+
   private ByteUtil() {}
 
   /**
@@ -68,6 +72,46 @@ public class ByteUtil {
     }
   }
 
+  /**
+   * Creates a Bytes object that shares the given array instead of copying it. Because Bytes is
+   * immutable, only arrays that nothing else will ever modify may be wrapped. This holds for the
+   * row, column and value arrays of the Key and Value objects returned by Accumulo scanners, which
+   * are created for each entry, sized to fit, and not reused. So the scanners and transaction gets
+   * wrap this data and return it to users without copying. Any other data, for example a Text, a
+   * reused buffer or an array passed in by a user, must be copied with
+   * {@link #toBytes(ByteSequence)} or {@link Bytes#of(byte[])}.
+   *
+   * <p>
+   * Wrapped Bytes can live long after the scan that created them, so when the array is much larger
+   * than the slice it is copied instead, to avoid keeping the rest of the array in memory.
+   */
+  public static Bytes wrap(byte[] data, int offset, int length) {
+    if (data.length - length > MAX_WRAP_WASTE) {
+      return Bytes.of(data, offset, length);
+    }
+    return InternalBytes.wrap(data, offset, length);
+  }
+
+  /**
+   * Wraps an entire array without copying, see {@link #wrap(byte[], int, int)} for when this is
+   * safe.
+   */
+  public static Bytes wrap(byte[] data) {
+    return wrap(data, 0, data.length);
+  }
+
+  /**
+   * Wraps the backing array of a ByteSequence without copying, see {@link #wrap(byte[], int, int)}
+   * for when this is safe.
+   */
+  public static Bytes wrap(ByteSequence bs) {
+    if (bs.isBackedByArray()) {
+      return wrap(bs.getBackingArray(), bs.offset(), bs.length());
+    } else {
+      return toBytes(bs);
+    }
+  }
+
   /**
    * Convert from Bytes to ByteSequence
    */
@@ -41,7 +41,7 @@ public class CachedBytesConverter implements Function<ByteSequence, Bytes> {
 
     Bytes b = bs2bCache.get(bs);
     if (b == null) {
-      return ByteUtil.toBytes(bs);
+      return ByteUtil.wrap(bs);
     }
     return b;
   }
@@ -89,9 +89,9 @@ public class CachedColumnConverter implements Function<Key, Column> {
     Column col = colCache.get(resuableKey);
 
     if (col == null) {
-      Bytes f = ByteUtil.toBytes(family);
-      Bytes q = ByteUtil.toBytes(qualifier);
-      Bytes v = ByteUtil.toBytes(vis);
+      Bytes f = ByteUtil.wrap(family);
+      Bytes q = ByteUtil.wrap(qualifier);
+      Bytes v = ByteUtil.wrap(vis);
       return new Column(f, q, v);
     }
 
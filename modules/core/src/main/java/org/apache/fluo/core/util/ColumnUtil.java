@@ -125,4 +125,15 @@ public class ColumnUtil {
     Bytes v = ByteUtil.toBytes(k.getColumnVisibilityData());
     return new Column(f, q, v);
   }
+
+  /**
+   * Converts the column of a key returned by an Accumulo scanner without copying, see
+   * {@link ByteUtil#wrap(byte[], int, int)}.
+   */
+  public static Column wrap(Key k) {
+    Bytes f = ByteUtil.wrap(k.getColumnFamilyData());
+    Bytes q = ByteUtil.wrap(k.getColumnQualifierData());
+    Bytes v = ByteUtil.wrap(k.getColumnVisibilityData());
+    return new Column(f, q, v);
+  }
 }
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.fluo.api.data.Column;
+
+/**
+ * A map of columns that stores its entries in parallel arrays, so it does not allocate an entry
+ * object per column. Up to {@value #MAX_ARRAY_SIZE} entries are stored in order and searched
+ * linearly, which is compact for the few columns a transaction usually sets or reads per row. When
+ * more columns are added the arrays become an open addressing hash table with linear probing.
+ */
+public class CompactColumnMap<V> extends AbstractMap<Column, V> {
+
+  static final int MAX_ARRAY_SIZE = 8;
+
+  // marks the slot of a removed entry in the hash table, so probing continues past it
+  private static final Column REMOVED = new Column("removed");
+
+  private Column[] columns = new Column[2];
+  private Object[] values = new Object[2];
+  private int size = 0;
+  // true when the arrays are a hash table, their length is then a power of two
+  private boolean hashed = false;
+  // slots of the hash table that are used, including removed entries
+  private int usedSlots = 0;
+
+  /**
+   * @return a set of columns backed by a compact map
+   */
+  public static Set<Column> newSet() {
+    return Collections.newSetFromMap(new CompactColumnMap<>());
+  }
+
+  private static int slot(int hash, int length) {
+    return (hash ^ (hash >>> 16)) & (length - 1);
+  }
+
+  private int indexOf(Object key) {
+    if (!(key instanceof Column)) {
+      return -1;
+    }
+
+    int hash = key.hashCode();
+    if (!hashed) {
+      for (int i = 0; i < size; i++) {
+        Column c = columns[i];
+        if (c == key || (c.hashCode() == hash && c.equals(key))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    int mask = columns.length - 1;
+    for (int i = slot(hash, columns.length);; i = (i + 1) & mask) {
+      Column c = columns[i];
+      if (c == null) {
+        return -1;
+      }
+      if (c != REMOVED && (c == key || (c.hashCode() == hash && c.equals(key)))) {
+        return i;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int index) {
+    return (V) values[index];
+  }
+
+  private void removeAt(int index) {
+    if (hashed) {
+      columns[index] = REMOVED;
+      values[index] = null;
+      size--;
+      return;
+    }
+
+    int numMoved = size - index - 1;
+    System.arraycopy(columns, index + 1, columns, index, numMoved);
+    System.arraycopy(values, index + 1, values, index, numMoved);
+    size--;
+    columns[size] = null;
+    values[size] = null;
+  }
+
+  /**
+   * Moves all entries into a new hash table that is at most half full.
+   */
+  private void rehash() {
+    Column[] oldColumns = columns;
+    Object[] oldValues = values;
+    final int oldLength = hashed ? oldColumns.length : size;
+
+    int length = Integer.highestOneBit(Math.max(size, MAX_ARRAY_SIZE) * 4 - 1);
+    columns = new Column[length];
+    values = new Object[length];
+    hashed = true;
+    usedSlots = size;
+
+    int mask = length - 1;
+    for (int i = 0; i < oldLength; i++) {
+      Column c = oldColumns[i];
+      if (c != null && c != REMOVED) {
+        int j = slot(c.hashCode(), length);
+        while (columns[j] != null) {
+          j = (j + 1) & mask;
+        }
+        columns[j] = c;
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  @Override
+  public V get(Object key) {
+    int index = indexOf(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public V put(Column key, V value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      V old = valueAt(index);
+      values[index] = value;
+      return old;
+    }
+
+    if (!hashed) {
+      if (size < MAX_ARRAY_SIZE) {
+        if (size == columns.length) {
+          int newLen = Math.min(columns.length * 2, MAX_ARRAY_SIZE);
+          columns = Arrays.copyOf(columns, newLen);
+          values = Arrays.copyOf(values, newLen);
+        }
+        columns[size] = key;
+        values[size] = value;
+        size++;
+        return null;
+      }
+      rehash();
+    } else if ((usedSlots + 1) * 4 > columns.length * 3) {
+      // keep at most three quarters of the slots used, counting removed entries
+      rehash();
+    }
+
+    int mask = columns.length - 1;
+    int i = slot(key.hashCode(), columns.length);
+    while (columns[i] != null && columns[i] != REMOVED) {
+      i = (i + 1) & mask;
+    }
+    if (columns[i] == null) {
+      usedSlots++;
+    }
+    columns[i] = key;
+    values[i] = value;
+    size++;
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    V old = valueAt(index);
+    removeAt(index);
+    return old;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    columns = new Column[2];
+    values = new Object[2];
+    size = 0;
+    hashed = false;
+    usedSlots = 0;
+  }
+
+  @Override
+  public Set<Entry<Column, V>> entrySet() {
+    return new AbstractSet<Entry<Column, V>>() {
+      @Override
+      public Iterator<Entry<Column, V>> iterator() {
+        return hashed ? new HashedIterator() : new ArrayIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private class ArrayIterator implements Iterator<Entry<Column, V>> {
+    private int next = 0;
+    private int last = -1;
+
+    @Override
+    public boolean hasNext() {
+      return next < size;
+    }
+
+    @Override
+    public Entry<Column, V> next() {
+      if (next >= size) {
+        throw new NoSuchElementException();
+      }
+      last = next++;
+      return new SimpleImmutableEntry<>(columns[last], valueAt(last));
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0) {
+        throw new IllegalStateException();
+      }
+      removeAt(last);
+      next = last;
+      last = -1;
+    }
+  }
+
+  // Removing marks a slot instead of moving entries, so removing while iterating is safe. The
+  // table is only rebuilt by put.
+  private class HashedIterator implements Iterator<Entry<Column, V>> {
+    private final Column[] table = columns;
+    private int next = advance(0);
+    private int last = -1;
+
+    private int advance(int index) {
+      while (index < table.length && (table[index] == null || table[index] == REMOVED)) {
+        index++;
+      }
+      return index;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < table.length;
+    }
+
+    @Override
+    public Entry<Column, V> next() {
+      if (next >= table.length) {
+        throw new NoSuchElementException();
+      }
+      last = next;
+      next = advance(next + 1);
+      return new SimpleImmutableEntry<>(table[last], valueAt(last));
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0 || table != columns) {
+        throw new IllegalStateException();
+      }
+      removeAt(last);
+      last = -1;
+    }
+  }
+}
@@ -18,6 +18,7 @@ package org.apache.fluo.core.util;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -48,4 +49,23 @@ public class FluoExecutors {
       }
     };
   }
+
+  /**
+   * Creates a factory for virtual threads. Reflection is used so that this code still compiles and
+   * runs on JDKs without virtual threads.
+   *
+   * @return a virtual thread factory, or null if the running JDK does not support virtual threads
+   */
+  public static ThreadFactory newVirtualThreadFactory(String name) {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder,
+          "Fluo-virtual-" + name + "-", 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // on JDK 19 and 20 ofVirtual() throws when preview features are not enabled
+      return null;
+    }
+  }
 }
@@ -15,47 +15,87 @@
 
 package org.apache.fluo.core.util;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 import com.google.common.base.Preconditions;
 
 /**
  * This class is like a semaphore, but it allows acquiring more permits than exists which then
  * causes everything else to block. The idea is to block after the limit is exceeded.
  *
+ * <p>
+ * Acquiring does not take a lock when nothing is waiting. Blocked threads are admitted in the order
+ * they arrived, so a thread acquiring a large amount can not be starved by many small ones.
  */
 public class Limit {
-  int permits;
-  int leased = 0;
+  private final long permits;
+  private final AtomicLong leased = new AtomicLong(0);
+  private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
 
-  public Limit(int permits) {
+  public Limit(long permits) {
     this.permits = permits;
   }
 
-  public synchronized void acquire(int num) {
-    Preconditions.checkArgument(num >= 0, "num < 0 : %s", num);
-    while (leased >= permits) {
-      try {
-        wait();
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
+  private boolean tryAcquire(long num) {
+    while (true) {
+      long l = leased.get();
+      if (l >= permits) {
+        return false;
+      }
+      if (leased.compareAndSet(l, l + num)) {
+        return true;
       }
     }
+  }
 
-    leased += num;
-    if (leased < permits) {
-      notify();
+  private void signalNext() {
+    if (leased.get() < permits) {
+      Thread next = waiters.peek();
+      if (next != null) {
+        LockSupport.unpark(next);
+      }
     }
   }
 
+  public void acquire(long num) {
+    Preconditions.checkArgument(num >= 0, "num < 0 : %s", num);
+
+    if (waiters.isEmpty() && tryAcquire(num)) {
+      return;
+    }
 
-  public synchronized void release(int num) {
-    Preconditions.checkArgument(num <= leased, "relasing more than leased %s > %s", num, leased);
-    leased -= num;
-    if (leased < permits) {
-      notify();
+    Thread current = Thread.currentThread();
+    waiters.add(current);
+
+    // only the thread at the head of the queue may acquire, which keeps admission fair
+    while (waiters.peek() != current || !tryAcquire(num)) {
+      LockSupport.park(this);
+      if (Thread.interrupted()) {
+        waiters.remove(current);
+        signalNext();
+        throw new RuntimeException(new InterruptedException());
+      }
+    }
+
+    waiters.remove();
+    signalNext();
+  }
+
+  public void release(long num) {
+    while (true) {
+      long l = leased.get();
+      Preconditions.checkArgument(num <= l, "relasing more than leased %s > %s", num, l);
+      if (leased.compareAndSet(l, l - num)) {
+        break;
+      }
     }
+    signalNext();
   }
 
-  public synchronized int leased() {
-    return leased;
+  public long leased() {
+    return leased.get();
   }
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set of primitive longs. Avoids the boxing and per entry node objects of a
+ * {@code HashSet<Long>}. Not thread safe.
+ */
+public class LongHashSet {
+
+  private static final long EMPTY = 0;
+
+  private long[] table;
+  private int size = 0;
+  // zero marks empty slots, so its membership is tracked separately
+  private boolean containsZero = false;
+
+  public LongHashSet() {
+    this(16);
+  }
+
+  public LongHashSet(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+    table = new long[capacity];
+  }
+
+  private static int mix(long l) {
+    long h = l * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private int slot(long l) {
+    int mask = table.length - 1;
+    int i = mix(l) & mask;
+    while (table[i] != EMPTY && table[i] != l) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  public boolean contains(long l) {
+    if (l == EMPTY) {
+      return containsZero;
+    }
+    return table[slot(l)] == l;
+  }
+
+  /**
+   * @return true if the value was not already in the set
+   */
+  public boolean add(long l) {
+    if (l == EMPTY) {
+      if (containsZero) {
+        return false;
+      }
+      containsZero = true;
+      size++;
+      return true;
+    }
+
+    int i = slot(l);
+    if (table[i] == l) {
+      return false;
+    }
+
+    table[i] = l;
+    size++;
+    // keep the load factor at or below one half
+    if (size * 2 > table.length) {
+      rehash(table.length * 2);
+    }
+    return true;
+  }
+
+  private void rehash(int capacity) {
+    long[] old = table;
+    table = new long[capacity];
+    for (long l : old) {
+      if (l != EMPTY) {
+        table[slot(l)] = l;
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(table, EMPTY);
+    size = 0;
+    containsZero = false;
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An executor that runs each task on a new thread, with a semaphore limiting how many tasks run at
+ * once. A single dispatcher thread takes tasks from the queue, so the queue decides the order tasks
+ * run in. This is intended for use with virtual threads, where blocked tasks are cheap and a thread
+ * count is a poor limit on concurrency.
+ *
+ * <p>
+ * A virtual thread that blocks inside a synchronized block or method pins its carrier thread on
+ * JDKs before 24. Observers that block while holding a monitor, for example in the notification
+ * tracker's lock stripes or inside Accumulo and Thrift clients that synchronize internally, hold a
+ * carrier while blocked. So the carrier pool, which defaults to one thread per core, rather than
+ * maxRunning, limits how many such tasks can be blocked at once.
+ */
+public class TaskPerThreadExecutor extends AbstractExecutorService {
+
+  private static final Logger log = LoggerFactory.getLogger(TaskPerThreadExecutor.class);
+
+  private final BlockingQueue<Runnable> queue;
+  private final Semaphore permits;
+  private final ThreadFactory taskThreadFactory;
+  private final Thread dispatcher;
+
+  // guarded by synchronizing on running
+  private final Set<Thread> running = new HashSet<>();
+  private boolean stopped = false;
+  private boolean dispatcherDone = false;
+  // a task the dispatcher took from the queue after shutdownNow was called
+  private Runnable undispatched = null;
+
+  private volatile boolean shutdown = false;
+
+  public TaskPerThreadExecutor(BlockingQueue<Runnable> queue, int maxRunning,
+      ThreadFactory taskThreadFactory, String name) {
+    this.queue = queue;
+    this.permits = new Semaphore(maxRunning);
+    this.taskThreadFactory = taskThreadFactory;
+    this.dispatcher = new FluoThreadFactory(name + "Dispatch").newThread(this::dispatch);
+    this.dispatcher.start();
+  }
+
+  private void dispatch() {
+    try {
+      while (!shutdown || !queue.isEmpty()) {
+        permits.acquire();
+        boolean started = false;
+        try {
+          Runnable task = queue.poll(100, TimeUnit.MILLISECONDS);
+          if (task == null) {
+            continue;
+          }
+
+          Thread thread = taskThreadFactory.newThread(() -> runTask(task));
+          synchronized (running) {
+            if (stopped) {
+              // hand the task to shutdownNow, which returns it with the tasks left in the queue
+              undispatched = task;
+              break;
+            }
+            running.add(thread);
+            thread.start();
+            started = true;
+          }
+        } finally {
+          if (!started) {
+            permits.release();
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      // shutdownNow was called
+    } finally {
+      synchronized (running) {
+        dispatcherDone = true;
+        running.notifyAll();
+      }
+    }
+  }
+
+  private void runTask(Runnable task) {
+    try {
+      task.run();
+    } catch (Exception e) {
+      log.warn("Task saw uncaught Exception", e);
+    } catch (Throwable t) {
+      // this is likely an Error. Things may be in a really bad state, so just print it instead of
+      // logging.
+      System.err.println("Task saw uncaught Throwable");
+      t.printStackTrace();
+    } finally {
+      permits.release();
+      synchronized (running) {
+        running.remove(Thread.currentThread());
+        if (running.isEmpty()) {
+          running.notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the number of tasks currently running
+   */
+  public int getRunning() {
+    synchronized (running) {
+      return running.size();
+    }
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Executor is shutdown");
+    }
+    if (!queue.offer(task)) {
+      throw new RejectedExecutionException("Queue is full");
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    synchronized (running) {
+      stopped = true;
+      dispatcher.interrupt();
+      for (Thread thread : running) {
+        thread.interrupt();
+      }
+    }
+    // the dispatcher may hold a task it took from the queue, wait for it to stop so that task is
+    // returned
+    Uninterruptibles.joinUninterruptibly(dispatcher);
+    List<Runnable> tasks = new ArrayList<>();
+    synchronized (running) {
+      if (undispatched != null) {
+        tasks.add(undispatched);
+        undispatched = null;
+      }
+    }
+    queue.drainTo(tasks);
+    return tasks;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    synchronized (running) {
+      return dispatcherDone && running.isEmpty();
+    }
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (running) {
+      while (!dispatcherDone || !running.isEmpty()) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (millis <= 0) {
+          return false;
+        }
+        running.wait(millis);
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.observer.BatchObserver;
+import org.apache.fluo.core.async.AsyncCommitObserver;
+import org.apache.fluo.core.async.AsyncTransaction;
+import org.apache.fluo.core.async.CommitManager;
+import org.apache.fluo.core.impl.Environment;
+import org.apache.fluo.core.impl.Notification;
+import org.apache.fluo.core.impl.TransactionImpl;
+import org.apache.fluo.core.log.TracingTransaction;
+import org.apache.fluo.core.observer.Observers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes weak notifications on the same column with a {@link BatchObserver} in a single
+ * transaction. If the transaction collides, each notification is requeued to be processed by
+ * itself.
+ */
+public class BatchWorkTaskAsync implements Runnable {
+
+  private static Logger log = LoggerFactory.getLogger(BatchWorkTaskAsync.class);
+
+  private Environment env;
+  private Column column;
+  private List<Notification> notifications;
+  private Observers observers;
+  private NotificationFinder notificationFinder;
+
+  private NotificationProcessor notificationProcessor;
+
+  class BatchCommitObserver implements AsyncCommitObserver {
+
+    private final List<Notification> batch;
+
+    BatchCommitObserver(List<Notification> batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void committed() {
+      batch.forEach(notificationProcessor::notificationProcessed);
+    }
+
+    @Override
+    public void failed(Throwable t) {
+      failedToProcess(batch, TxResult.ERROR);
+      log.error("Failed to process batch of {} notifications for column {}", batch.size(), column,
+          t);
+    }
+
+    @Override
+    public void alreadyAcknowledged() {
+      failedToProcess(batch, TxResult.AACKED);
+    }
+
+    @Override
+    public void commitFailed(String msg) {
+      for (Notification notification : batch) {
+        notificationProcessor.requeueNotification(notificationFinder, notification);
+      }
+    }
+  }
+
+  BatchWorkTaskAsync(NotificationProcessor notificationProcessor,
+      NotificationFinder notificationFinder, Environment env, Column column,
+      List<Notification> notifications, Observers observers) {
+    this.notificationProcessor = notificationProcessor;
+    this.notificationFinder = notificationFinder;
+    this.env = env;
+    this.column = column;
+    this.notifications = notifications;
+    this.observers = observers;
+  }
+
+  private void failedToProcess(List<Notification> batch, TxResult status) {
+    for (Notification notification : batch) {
+      notificationFinder.failedToProcess(notification, status);
+      notificationProcessor.notificationProcessed(notification);
+    }
+  }
+
+  @Override
+  public void run() {
+    // Its possible that while the notifications were in the queue the situation changed and some
+    // should no longer be processed by this worker. So ask as late as possible.
+    List<Notification> batch = new ArrayList<>(notifications.size());
+    List<Bytes> rows = new ArrayList<>(notifications.size());
+    for (Notification notification : notifications) {
+      if (notificationFinder.shouldProcess(notification)) {
+        batch.add(notification);
+        rows.add(notification.getRow());
+      } else {
+        notificationProcessor.notificationProcessed(notification);
+      }
+    }
+
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    BatchObserver observer = (BatchObserver) observers.getObserver(column);
+    String observerId = observers.getObserverId(column);
+    try {
+      AsyncTransaction atx = new TransactionImpl(env, batch);
+
+      if (TracingTransaction.isTracingEnabled()) {
+        atx = new TracingTransaction(atx, observer.getClass(), observerId);
+      }
+
+      try {
+        observer.process(atx, rows, column);
+      } catch (Exception e) {
+        failedToProcess(batch, TxResult.ERROR);
+        throw e;
+      }
+
+      CommitManager commitManager = env.getSharedResources().getCommitManager();
+      commitManager.beginCommit(atx, observerId, new BatchCommitObserver(batch));
+
+    } catch (Exception e) {
+      log.error("Failed to process batch of {} notifications for column {}", batch.size(), column,
+          e);
+    } finally {
+      observers.returnObserver(observer);
+    }
+  }
+}
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A blocking queue for a worker thread pool that keeps a separate priority queue per observer and
+ * hands tasks to threads using stride scheduling. Each observer is given a share of threads
+ * proportional to its weight, and an observer that has reached its max concurrency is skipped until
+ * one of its running tasks finishes. This keeps an observer with a large backlog from starving
+ * observers with few notifications.
+ *
+ * <p>
+ * Tasks must call {@link #taskFinished(String)} after running. For the running counts to be
+ * correct, all tasks must pass through this queue, so the pool using it should have all of its core
+ * threads started before any tasks are submitted.
+ */
+class FairObserverQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+  /**
+   * Implemented by tasks placed on this queue.
+   */
+  interface ObserverTask extends Runnable {
+    String getObserverId();
+
+    /**
+     * @return the time in nanos, as returned by {@link System#nanoTime()}, when this task was
+     *         created
+     */
+    long getCreationTime();
+  }
+
+  /**
+   * Scheduling settings and metric callbacks for an observer.
+   */
+  interface ObserverSettings {
+    int getWeight();
+
+    int getMaxConcurrency();
+
+    void queueWait(long nanos);
+  }
+
+  private static final ObserverSettings DEFAULT_SETTINGS = new ObserverSettings() {
+    @Override
+    public int getWeight() {
+      return 1;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void queueWait(long nanos) {}
+  };
+
+  private static final long STRIDE = 1L << 20;
+
+  private class ObserverQueue {
+    final PriorityQueue<Runnable> tasks = new PriorityQueue<>();
+    final ObserverSettings settings;
+    final long stride;
+    int running = 0;
+    long pass;
+
+    ObserverQueue(ObserverSettings settings) {
+      this.settings = settings;
+      this.stride = STRIDE / settings.getWeight();
+      this.pass = globalPass;
+    }
+
+    boolean isRunnable() {
+      return !tasks.isEmpty() && running < settings.getMaxConcurrency();
+    }
+  }
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition available = lock.newCondition();
+  private final Map<String, ObserverQueue> queues = new HashMap<>();
+  private final Function<ObserverTask, ObserverSettings> settingsFunction;
+  private long globalPass = 0;
+  private int size = 0;
+
+  /**
+   * @param settingsFunction called with the first task queued for each observer id
+   */
+  FairObserverQueue(Function<ObserverTask, ObserverSettings> settingsFunction) {
+    this.settingsFunction = settingsFunction;
+  }
+
+  private static String getObserverId(Object o) {
+    if (o instanceof ObserverTask) {
+      return ((ObserverTask) o).getObserverId();
+    }
+    return "";
+  }
+
+  /**
+   * Called when a task taken from this queue finishes running.
+   */
+  void taskFinished(String observerId) {
+    lock.lock();
+    try {
+      ObserverQueue oq = queues.get(observerId);
+      if (oq != null && oq.running > 0) {
+        oq.running--;
+        if (!oq.tasks.isEmpty()) {
+          available.signal();
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private ObserverQueue getQueue(Runnable task) {
+    String observerId = getObserverId(task);
+    ObserverQueue oq = queues.get(observerId);
+    if (oq == null) {
+      if (task instanceof ObserverTask) {
+        oq = new ObserverQueue(settingsFunction.apply((ObserverTask) task));
+      } else {
+        oq = new ObserverQueue(DEFAULT_SETTINGS);
+      }
+      queues.put(observerId, oq);
+    }
+    return oq;
+  }
+
+  private Runnable dequeue() {
+    ObserverQueue next = null;
+    for (ObserverQueue oq : queues.values()) {
+      if (oq.isRunnable() && (next == null || oq.pass < next.pass)) {
+        next = oq;
+      }
+    }
+
+    if (next == null) {
+      return null;
+    }
+
+    next.running++;
+    size--;
+    globalPass = next.pass;
+    next.pass += next.stride;
+
+    Runnable task = next.tasks.poll();
+
+    if (task instanceof ObserverTask) {
+      next.settings.queueWait(System.nanoTime() - ((ObserverTask) task).getCreationTime());
+    }
+
+    if (size > 0) {
+      // another thread may be able to run a task for a different observer
+      available.signal();
+    }
+
+    return task;
+  }
+
+  @Override
+  public boolean offer(Runnable task) {
+    Objects.requireNonNull(task);
+    lock.lock();
+    try {
+      ObserverQueue oq = getQueue(task);
+      if (oq.tasks.isEmpty() && oq.running == 0) {
+        // an observer that was idle should not be able to build up credit while idle
+        oq.pass = Math.max(oq.pass, globalPass);
+      }
+      oq.tasks.add(task);
+      size++;
+      available.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(Runnable task, long timeout, TimeUnit unit) {
+    return offer(task);
+  }
+
+  @Override
+  public void put(Runnable task) {
+    offer(task);
+  }
+
+  @Override
+  public Runnable take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      Runnable task;
+      while ((task = dequeue()) == null) {
+        available.await();
+      }
+      return task;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      Runnable task;
+      while ((task = dequeue()) == null) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = available.awaitNanos(nanos);
+      }
+      return task;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll() {
+    lock.lock();
+    try {
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable peek() {
+    lock.lock();
+    try {
+      ObserverQueue next = null;
+      for (ObserverQueue oq : queues.values()) {
+        if (oq.isRunnable() && (next == null || oq.pass < next.pass)) {
+          next = oq;
+        }
+      }
+      return next == null ? null : next.tasks.peek();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    lock.lock();
+    try {
+      ObserverQueue oq = queues.get(getObserverId(o));
+      if (oq != null) {
+        // PriorityQueue.remove uses equals, which may consider distinct tasks equal
+        Iterator<Runnable> iter = oq.tasks.iterator();
+        while (iter.hasNext()) {
+          if (iter.next() == o) {
+            iter.remove();
+            size--;
+            return true;
+          }
+        }
+      }
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of tasks queued for the observer
+   */
+  int size(String observerId) {
+    lock.lock();
+    try {
+      ObserverQueue oq = queues.get(observerId);
+      return oq == null ? 0 : oq.tasks.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> c, int maxElements) {
+    lock.lock();
+    try {
+      int drained = 0;
+      for (ObserverQueue oq : queues.values()) {
+        while (drained < maxElements && !oq.tasks.isEmpty()) {
+          c.add(oq.tasks.poll());
+          size--;
+          drained++;
+        }
+      }
+      return drained;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns an iterator over a snapshot of the queued tasks. Removing through the iterator removes
+   * the task from this queue.
+   */
+  @Override
+  public Iterator<Runnable> iterator() {
+    List<Runnable> snapshot = new ArrayList<>();
+    lock.lock();
+    try {
+      for (ObserverQueue oq : queues.values()) {
+        snapshot.addAll(oq.tasks);
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    Iterator<Runnable> iter = snapshot.iterator();
+    return new Iterator<Runnable>() {
+      private Runnable last;
+
+      @Override
+      public boolean hasNext() {
+        return iter.hasNext();
+      }
+
+      @Override
+      public Runnable next() {
+        last = iter.next();
+        return last;
+      }
+
+      @Override
+      public void remove() {
+        if (last == null) {
+          throw new IllegalStateException();
+        }
+        FairObserverQueue.this.remove(last);
+        last = null;
+      }
+    };
+  }
+}
@@ -15,27 +15,39 @@
 
 package org.apache.fluo.core.worker;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.apache.fluo.api.data.Column;
 import org.apache.fluo.api.data.RowColumn;
+import org.apache.fluo.api.observer.Observer.NotificationType;
 import org.apache.fluo.core.impl.Environment;
+import org.apache.fluo.core.impl.FluoConfigurationImpl;
 import org.apache.fluo.core.impl.Notification;
+import org.apache.fluo.core.metrics.MetricNames;
+import org.apache.fluo.core.metrics.MetricsUtil;
 import org.apache.fluo.core.observer.Observers;
 import org.apache.fluo.core.util.FluoExecutors;
+import org.apache.fluo.core.util.FluoThreadFactory;
 import org.apache.fluo.core.util.Hex;
+import org.apache.fluo.core.util.TaskPerThreadExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,122 +55,95 @@ public class NotificationProcessor implements AutoCloseable {
 
   private static final Logger log = LoggerFactory.getLogger(NotificationProcessor.class);
 
+  // max time a partial batch of notifications waits for more notifications before it is submitted
+  private static final long BATCH_FLUSH_DELAY_MS = 100;
+
   private NotificationTracker tracker;
-  private ThreadPoolExecutor executor;
+  private ExecutorService executor;
   private Environment env;
   private Observers observers;
-  private PriorityBlockingQueue<Runnable> queue;
+  private FairObserverQueue queue;
+  // submits partial batches and debounced notifications
+  private ScheduledExecutorService timer;
+  private long debounceMs;
+  private Set<Column> weakColumns;
 
   public NotificationProcessor(Environment env) {
     int numThreads = env.getConfiguration().getWorkerThreads();
     this.env = env;
-    this.queue = new PriorityBlockingQueue<>();
-    this.executor = FluoExecutors.newFixedThreadPool(numThreads, queue, "ntfyProc");
-    this.tracker = new NotificationTracker();
-    this.observers = env.getConfiguredObservers().getObservers(env);
-    env.getSharedResources().getMetricRegistry().register(
-        env.getMetricNames().getNotificationQueued(), (Gauge<Integer>) () -> queue.size());
-  }
-
-  // little utility class that tracks all notifications in queue
-  private class NotificationTracker {
-    private Map<RowColumn, Future<?>> queuedWork = new HashMap<>();
-    private Set<RowColumn> recentlyDeleted = new HashSet<>();
-    private long sizeInBytes = 0;
-    private Map<Long, Predicate<RowColumn>> memoryPredicates = new HashMap<>();
-    private Predicate<RowColumn> memoryPredicate = rc -> false;
-    private static final long MAX_SIZE = 1 << 24;
-    private long nextSessionId = 0;
-
-    private long size(RowColumn rowCol) {
-      Column col = rowCol.getColumn();
-      return (long) rowCol.getRow().length() + col.getFamily().length()
-          + col.getQualifier().length() + col.getVisibility().length();
-    }
-
-    public synchronized boolean add(RowColumn rowCol, Future<?> task) {
-
-      if (queuedWork.containsKey(rowCol) || recentlyDeleted.contains(rowCol)) {
-        return false;
+    this.queue = new FairObserverQueue(this::newObserverSettings);
+
+    int virtualThreads = FluoConfigurationImpl.getWorkerVirtualThreads(env.getConfiguration());
+    ThreadFactory virtualFactory = null;
+    if (virtualThreads > 0) {
+      virtualFactory = FluoExecutors.newVirtualThreadFactory("ntfyProc");
+      if (virtualFactory == null) {
+        log.warn("{} is set but this JDK does not support virtual threads, using {} threads",
+            FluoConfigurationImpl.WORKER_VIRTUAL_THREADS_PROP, numThreads);
       }
-
-      while (sizeInBytes > MAX_SIZE) {
-        try {
-          wait(1000);
-        } catch (InterruptedException e) {
-          throw new RuntimeException(e);
-        }
-      }
-
-      if (queuedWork.containsKey(rowCol) || recentlyDeleted.contains(rowCol)) {
-        return false;
-      }
-
-      queuedWork.put(rowCol, task);
-      sizeInBytes += size(rowCol);
-      return true;
     }
 
-    public synchronized void remove(RowColumn rowCol) {
-      if (queuedWork.remove(rowCol) != null) {
-        if (memoryPredicate.test(rowCol)) {
-          recentlyDeleted.add(rowCol);
-        }
-        sizeInBytes -= size(rowCol);
-        notify();
-      }
+    if (virtualFactory != null) {
+      log.info("Processing notifications on virtual threads, at most {} at once", virtualThreads);
+      this.executor = new TaskPerThreadExecutor(queue, virtualThreads, virtualFactory, "ntfyProc");
+    } else {
+      ThreadPoolExecutor tpe = FluoExecutors.newFixedThreadPool(numThreads, queue, "ntfyProc");
+      // start all threads now, so that every task passes through the queue and is counted against
+      // the concurrency limit of its observer
+      tpe.prestartAllCoreThreads();
+      this.executor = tpe;
     }
+    MetricRegistry registry = env.getSharedResources().getMetricRegistry();
+    MetricNames names = env.getMetricNames();
+    this.tracker = new NotificationTracker(
+        FluoConfigurationImpl.getWorkerNotificationMaxMemory(env.getConfiguration()), this::newTask,
+        registry.meter(names.getNotificationAdmitted()),
+        registry.meter(names.getNotificationRejected()),
+        registry.meter(names.getNotificationCoalesced()));
+    registry.register(names.getNotificationMemory(), (Gauge<Long>) tracker::getMemoryUsed);
+    this.observers = env.getConfiguredObservers().getObservers(env);
+    this.weakColumns = env.getConfiguredObservers().getObservedColumns(NotificationType.WEAK);
+    this.debounceMs =
+        FluoConfigurationImpl.getWorkerWeakDebounce(env.getConfiguration(), TimeUnit.MILLISECONDS);
+    this.timer = Executors.newScheduledThreadPool(1, new FluoThreadFactory("ntfyTimer"));
+    registry.register(names.getNotificationQueued(), (Gauge<Integer>) () -> queue.size());
+  }
 
-    public synchronized void clear() {
-      for (Future<?> task : queuedWork.values()) {
-        task.cancel(false);
+  private FairObserverQueue.ObserverSettings newObserverSettings(
+      FairObserverQueue.ObserverTask task) {
+    Column col = ((FutureNotificationTask) task).notification.getColumn();
+    String observerId = task.getObserverId();
+    int weight = observers.getWeight(col);
+    int maxConcurrency = observers.getMaxConcurrency(col);
+
+    MetricRegistry registry = env.getSharedResources().getMetricRegistry();
+    MetricNames names = env.getMetricNames();
+    Timer waitTimer = MetricsUtil.getTimer(env.getConfiguration(), registry,
+        names.getObserverQueueWait(observerId));
+    registry.register(names.getObserverQueued(observerId),
+        (Gauge<Integer>) () -> queue.size(observerId));
+
+    return new FairObserverQueue.ObserverSettings() {
+      @Override
+      public int getWeight() {
+        return weight;
       }
 
-      queuedWork.clear();
-      sizeInBytes = 0;
-      notify();
-    }
-
-    public synchronized boolean requeue(RowColumn rowCol, FutureTask<?> ft) {
-      if (!queuedWork.containsKey(rowCol)) {
-        return false;
+      @Override
+      public int getMaxConcurrency() {
+        return maxConcurrency;
       }
 
-      queuedWork.put(rowCol, ft);
-
-      return true;
-    }
-
-    private void resetMemoryPredicate() {
-      memoryPredicate = null;
-      for (Predicate<RowColumn> p : this.memoryPredicates.values()) {
-        if (memoryPredicate == null) {
-          memoryPredicate = p;
-        } else {
-          memoryPredicate = p.or(memoryPredicate);
-        }
+      @Override
+      public void queueWait(long nanos) {
+        waitTimer.update(nanos, TimeUnit.NANOSECONDS);
       }
-    }
-
-    public synchronized long beginAddingNotifications(Predicate<RowColumn> memoryPredicate) {
-      long sessionId = nextSessionId++;
-      this.memoryPredicates.put(sessionId, Objects.requireNonNull(memoryPredicate));
-      resetMemoryPredicate();
-      return sessionId;
-    }
-
-    public synchronized void finishAddingNotifications(long sessionId) {
-      this.memoryPredicates.remove(sessionId);
-      if (memoryPredicates.isEmpty()) {
-        recentlyDeleted.clear();
-        memoryPredicate = rc -> false;
-      } else {
-        resetMemoryPredicate();
-      }
-    }
-
+    };
   }
 
+  // little utility class that tracks all notifications in queue. Notifications are spread over
+  // stripes by hash so that worker threads adding and removing different notifications do not
+  // contend on a single lock.
   private class NotificationProcessingTask implements Runnable {
 
     Notification notification;
@@ -190,13 +175,39 @@ public class NotificationProcessor implements AutoCloseable {
   }
 
   private class FutureNotificationTask extends FutureTask<Void>
-      implements Comparable<FutureNotificationTask> {
+      implements Comparable<FutureNotificationTask>, FairObserverQueue.ObserverTask {
 
     private final Notification notification;
+    private final String observerId;
+    private final long creationTime = System.nanoTime();
 
     public FutureNotificationTask(Notification n, NotificationFinder nf, WorkTaskAsync wt) {
-      super(new NotificationProcessingTask(n, nf, wt), null);
+      this(n, new NotificationProcessingTask(n, nf, wt));
+    }
+
+    FutureNotificationTask(Notification n, Runnable task) {
+      super(task, null);
       this.notification = n;
+      this.observerId = Objects.toString(observers.getObserverId(n.getColumn()), "");
+    }
+
+    @Override
+    public String getObserverId() {
+      return observerId;
+    }
+
+    @Override
+    public long getCreationTime() {
+      return creationTime;
+    }
+
+    @Override
+    public void run() {
+      try {
+        super.run();
+      } finally {
+        queue.taskFinished(observerId);
+      }
     }
 
     @Override
@@ -225,44 +236,159 @@ public class NotificationProcessor implements AutoCloseable {
     }
   }
 
+  // notifications for a column observed by a batch observer that will be processed together
+  private class PendingBatch {
+    final NotificationFinder notificationFinder;
+    final List<Notification> notifications = new ArrayList<>();
+    final FutureTask<?> task;
+
+    PendingBatch(NotificationFinder notificationFinder, Notification first) {
+      this.notificationFinder = notificationFinder;
+      BatchWorkTaskAsync workTask = new BatchWorkTaskAsync(NotificationProcessor.this,
+          notificationFinder, env, first.getColumn(), notifications, observers);
+      this.task = new FutureNotificationTask(first, workTask);
+    }
+  }
+
+  /**
+   * Adds notifications found by one thread. Partial batches are submitted when the session closes,
+   * after {@link #BATCH_FLUSH_DELAY_MS}, or before the session blocks waiting for tracker memory.
+   * The last case matters because notifications in unsubmitted batches hold memory that can only be
+   * freed by processing them.
+   *
+   * <p>
+   * Pending batches are guarded by synchronizing on the session. The session lock is never held
+   * while calling into the tracker or executor, the tracker may take it while holding a stripe.
+   */
   public class Session implements AutoCloseable {
-    private long id;
+    private NotificationTracker.Deletions deletions;
+    private Map<Column, PendingBatch> pendingBatches = new HashMap<>();
 
     public Session(Predicate<RowColumn> memoryPredicate) {
-      this.id = tracker.beginAddingNotifications(memoryPredicate);
+      this.deletions = tracker.beginAddingNotifications(memoryPredicate);
     }
 
     public boolean addNotification(final NotificationFinder notificationFinder,
         final Notification notification) {
 
-      WorkTaskAsync workTask = new WorkTaskAsync(NotificationProcessor.this, notificationFinder,
-          env, notification, observers);
-      FutureTask<?> ft = new FutureNotificationTask(notification, notificationFinder, workTask);
+      int maxBatchSize = observers.getMaxBatchSize(notification.getColumn());
+      if (maxBatchSize > 1) {
+        return addToBatch(notificationFinder, notification, maxBatchSize);
+      }
+
+      FutureTask<?> ft = newTask(notificationFinder, notification);
+
+      if (!tracker.add(deletions, notificationFinder, notification, () -> ft,
+          this::submitPendingBatches)) {
+        return false;
+      }
+
+      if (debounceMs > 0 && weakColumns.contains(notification.getColumn())) {
+        debounce(notification.getRowColumn(), ft);
+      } else {
+        execute(notification.getRowColumn(), ft);
+      }
+
+      return true;
+    }
+
+    private boolean addToBatch(NotificationFinder notificationFinder, Notification notification,
+        int maxBatchSize) {
+      Column col = notification.getColumn();
+
+      PendingBatch otherFinderBatch = null;
+      synchronized (this) {
+        PendingBatch batch = pendingBatches.get(col);
+        if (batch != null && batch.notificationFinder != notificationFinder) {
+          otherFinderBatch = pendingBatches.remove(col);
+        }
+      }
+      if (otherFinderBatch != null) {
+        submit(otherFinderBatch);
+      }
 
-      if (!tracker.add(notification.getRowColumn(), ft)) {
+      // The notification is added to a batch only once the tracker is sure to track it. This is
+      // done after any wait for memory, which may have submitted the batches pending before.
+      if (!tracker.add(deletions, notificationFinder, notification,
+          () -> addToPendingBatch(notificationFinder, notification), this::submitPendingBatches)) {
         return false;
       }
 
+      PendingBatch fullBatch = null;
+      synchronized (this) {
+        PendingBatch batch = pendingBatches.get(col);
+        if (batch != null && batch.notifications.size() >= maxBatchSize) {
+          fullBatch = pendingBatches.remove(col);
+        }
+      }
+      if (fullBatch != null) {
+        submit(fullBatch);
+      }
+
+      return true;
+    }
+
+    private synchronized Future<?> addToPendingBatch(NotificationFinder notificationFinder,
+        Notification notification) {
+      Column col = notification.getColumn();
+      PendingBatch batch = pendingBatches.get(col);
+      if (batch == null) {
+        PendingBatch newBatch = new PendingBatch(notificationFinder, notification);
+        pendingBatches.put(col, newBatch);
+        timer.schedule(() -> flush(col, newBatch), BATCH_FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        batch = newBatch;
+      }
+      batch.notifications.add(notification);
+      return batch.task;
+    }
+
+    private void flush(Column col, PendingBatch batch) {
+      synchronized (this) {
+        if (pendingBatches.get(col) != batch) {
+          // already submitted
+          return;
+        }
+        pendingBatches.remove(col);
+      }
+      submit(batch);
+    }
+
+    private void submitPendingBatches() {
+      List<PendingBatch> batches;
+      synchronized (this) {
+        batches = new ArrayList<>(pendingBatches.values());
+        pendingBatches.clear();
+      }
+      for (PendingBatch batch : batches) {
+        submit(batch);
+      }
+    }
+
+    private void submit(PendingBatch batch) {
       try {
-        executor.execute(ft);
+        executor.execute(batch.task);
       } catch (RejectedExecutionException rje) {
-        tracker.remove(notification.getRowColumn());
+        for (Notification notification : batch.notifications) {
+          tracker.remove(notification.getRowColumn());
+        }
         throw rje;
       }
-
-      return true;
     }
 
     @Override
     public void close() {
-      tracker.finishAddingNotifications(id);
+      try {
+        submitPendingBatches();
+      } finally {
+        tracker.finishAddingNotifications(deletions);
+      }
     }
   }
 
   /**
    * Starts a session for adding notifications. During this session, any notifications that are
    * deleted and match the predicate will be remembered. These remembered notifications can not be
-   * added again while the session is active.
+   * added again by this session, and are forgotten when it closes. Other sessions are not affected.
    */
   public Session beginAddingNotifications(Predicate<RowColumn> memoryPredicate) {
     return new Session(memoryPredicate);
@@ -271,22 +397,53 @@ public class NotificationProcessor implements AutoCloseable {
   public void requeueNotification(final NotificationFinder notificationFinder,
       final Notification notification) {
 
+    FutureTask<?> ft =
+        tracker.requeue(notification.getRowColumn(), newTask(notificationFinder, notification));
+    if (ft != null) {
+      execute(notification.getRowColumn(), ft);
+    }
+  }
+
+  public void notificationProcessed(final Notification notification) {
+    FutureTask<?> rerun = tracker.processed(notification.getRowColumn());
+    if (rerun != null) {
+      execute(notification.getRowColumn(), rerun);
+    }
+  }
+
+  private FutureNotificationTask newTask(NotificationFinder notificationFinder,
+      Notification notification) {
     WorkTaskAsync workTask =
         new WorkTaskAsync(this, notificationFinder, env, notification, observers);
-    FutureTask<?> ft = new FutureNotificationTask(notification, notificationFinder, workTask);
+    return new FutureNotificationTask(notification, notificationFinder, workTask);
+  }
 
-    if (tracker.requeue(notification.getRowColumn(), ft)) {
-      try {
-        executor.execute(ft);
-      } catch (RejectedExecutionException rje) {
-        tracker.remove(notification.getRowColumn());
-        throw rje;
-      }
+  private void execute(RowColumn rowCol, FutureTask<?> ft) {
+    try {
+      executor.execute(ft);
+    } catch (RejectedExecutionException rje) {
+      tracker.remove(rowCol);
+      throw rje;
     }
   }
 
-  public void notificationProcessed(final Notification notification) {
-    tracker.remove(notification.getRowColumn());
+  /**
+   * Waits before executing a weak notification. If newer notifications for the same row and column
+   * arrive while waiting, only the newest is processed. Nothing is executed if the notification
+   * stopped being tracked while waiting, for example because the tracker was cleared.
+   */
+  private void debounce(RowColumn rowCol, FutureTask<?> ft) {
+    try {
+      timer.schedule(() -> {
+        FutureTask<?> newest = tracker.startDebounced(rowCol, ft);
+        if (newest != null) {
+          execute(rowCol, newest);
+        }
+      }, debounceMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException rje) {
+      tracker.remove(rowCol);
+      throw rje;
+    }
   }
 
   public int size() {
@@ -295,11 +452,12 @@ public class NotificationProcessor implements AutoCloseable {
 
   public void clear() {
     tracker.clear();
-    executor.purge();
+    queue.removeIf(task -> ((Future<?>) task).isCancelled());
   }
 
   @Override
   public void close() {
+    timer.shutdownNow();
     executor.shutdownNow();
     observers.close();
 
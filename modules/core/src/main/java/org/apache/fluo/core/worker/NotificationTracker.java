@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.codahale.metrics.Meter;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumn;
+import org.apache.fluo.core.impl.Notification;
+import org.apache.fluo.core.util.LongHashSet;
+
+/**
+ * Tracks the notifications that are queued or running in a {@link NotificationProcessor}, so that
+ * each row and column is processed by at most one task at a time, and limits the memory they use.
+ */
+class NotificationTracker {
+  private static final int NUM_STRIPES = 64;
+
+  private final Stripe[] stripes = new Stripe[NUM_STRIPES];
+  private final AtomicLong sizeInBytes = new AtomicLong(0);
+  private final long maxSize;
+  private final Object memoryLock = new Object();
+  // volatile so releasing memory only locks when a thread waits. A waiter increments this before
+  // checking memory, so either it sees the release or the releaser sees it waiting.
+  private volatile int memoryWaiters = 0;
+  private final BiFunction<NotificationFinder, Notification, FutureTask<?>> taskFactory;
+  private final Meter admitted;
+  private final Meter rejected;
+  private final Meter coalesced;
+
+  // sessions that are adding notifications, replaced on change while synchronized on this
+  private volatile Deletions[] sessions = new Deletions[0];
+
+  /**
+   * The notifications deleted while a session is adding notifications that match the session's
+   * predicate. The session can not add these again, because it may have read them before they were
+   * deleted. Forgotten when the session finishes.
+   */
+  static class Deletions {
+    private final Predicate<RowColumn> predicate;
+    // holds fingerprints of row+column bytes, so deleted notifications are not retained. Guarded by
+    // synchronizing on this, which may be done while holding a stripe lock.
+    private final LongHashSet fingerprints = new LongHashSet();
+
+    private Deletions(Predicate<RowColumn> predicate) {
+      this.predicate = Objects.requireNonNull(predicate);
+    }
+
+    private synchronized void add(long fingerprint) {
+      fingerprints.add(fingerprint);
+    }
+
+    private synchronized boolean contains(long fingerprint) {
+      return !fingerprints.isEmpty() && fingerprints.contains(fingerprint);
+    }
+
+    synchronized int size() {
+      return fingerprints.size();
+    }
+  }
+
+  // A notification that is queued or running. Newer notifications for the same row and column
+  // that arrive meanwhile are collapsed into a single task that runs after this one finishes.
+  private static class Tracked {
+    Future<?> task;
+    long timestamp;
+    FutureTask<?> rerun;
+    long rerunTimestamp;
+
+    Tracked(Future<?> task, long timestamp) {
+      this.task = task;
+      this.timestamp = timestamp;
+    }
+
+    FutureTask<?> startRerun() {
+      FutureTask<?> ft = rerun;
+      rerun = null;
+      task = ft;
+      timestamp = rerunTimestamp;
+      return ft;
+    }
+  }
+
+  private static class Stripe {
+    final Map<RowColumn, Tracked> queuedWork = new HashMap<>();
+  }
+
+  /**
+   * @param taskFactory creates the task that processes a newer notification for a row and column
+   *        that is already tracked
+   */
+  NotificationTracker(long maxSize,
+      BiFunction<NotificationFinder, Notification, FutureTask<?>> taskFactory, Meter admitted,
+      Meter rejected, Meter coalesced) {
+    this.maxSize = maxSize;
+    this.taskFactory = taskFactory;
+    this.admitted = admitted;
+    this.rejected = rejected;
+    this.coalesced = coalesced;
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  private Stripe getStripe(RowColumn rowCol) {
+    int h = rowCol.hashCode();
+    return stripes[(h ^ (h >>> 16)) & (NUM_STRIPES - 1)];
+  }
+
+  private static long size(RowColumn rowCol) {
+    Column col = rowCol.getColumn();
+    return (long) rowCol.getRow().length() + col.getFamily().length() + col.getQualifier().length()
+        + col.getVisibility().length();
+  }
+
+  /**
+   * Computes a 64 bit FNV-1a hash of the row and column. A collision can only cause a deleted
+   * notification to be ignored until the session that remembered it ends.
+   */
+  private static long fingerprint(RowColumn rowCol) {
+    Column col = rowCol.getColumn();
+    long h = 0xcbf29ce484222325L;
+    h = hash(h, rowCol.getRow());
+    h = hash(h, col.getFamily());
+    h = hash(h, col.getQualifier());
+    return hash(h, col.getVisibility());
+  }
+
+  private static long hash(long h, Bytes bytes) {
+    int len = bytes.length();
+    for (int i = 0; i < len; i++) {
+      h = (h ^ (bytes.byteAt(i) & 0xff)) * 0x100000001b3L;
+    }
+    // include the length so that the boundaries between fields matter
+    return (h ^ len) * 0x100000001b3L;
+  }
+
+  /**
+   * @return the bytes of row and column data currently tracked
+   */
+  long getMemoryUsed() {
+    return sizeInBytes.get();
+  }
+
+  /**
+   * Attempts to add size to the memory used, failing if that would exceed the max. When nothing is
+   * tracked, any size is allowed so that a single large notification can not block forever.
+   */
+  private boolean tryReserveMemory(long size) {
+    while (true) {
+      long current = sizeInBytes.get();
+      if (current != 0 && current + size > maxSize) {
+        return false;
+      }
+      if (sizeInBytes.compareAndSet(current, current + size)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Adds size to the memory used, waiting until that can be done without exceeding the max.
+   *
+   * @param beforeWait run once before waiting, must release anything the caller holds that would
+   *        keep memory from being freed
+   */
+  private void reserveMemory(long size, Runnable beforeWait) {
+    if (tryReserveMemory(size)) {
+      return;
+    }
+
+    beforeWait.run();
+
+    synchronized (memoryLock) {
+      memoryWaiters++;
+      try {
+        while (!tryReserveMemory(size)) {
+          memoryLock.wait(1000);
+        }
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      } finally {
+        memoryWaiters--;
+      }
+    }
+  }
+
+  private void releaseMemory(long size) {
+    sizeInBytes.addAndGet(-size);
+    if (memoryWaiters > 0) {
+      synchronized (memoryLock) {
+        memoryLock.notifyAll();
+      }
+    }
+  }
+
+  private static boolean contains(Stripe stripe, Deletions session, RowColumn rowCol) {
+    return stripe.queuedWork.containsKey(rowCol) || session.contains(fingerprint(rowCol));
+  }
+
+  private void reject(Stripe stripe, NotificationFinder finder, Notification notification) {
+    Tracked tracked = stripe.queuedWork.get(notification.getRowColumn());
+    if (tracked != null) {
+      long newest = tracked.rerun == null ? tracked.timestamp : tracked.rerunTimestamp;
+      if (notification.getTimestamp() > newest) {
+        tracked.rerun = taskFactory.apply(finder, notification);
+        tracked.rerunTimestamp = notification.getTimestamp();
+        coalesced.mark();
+        return;
+      }
+    }
+    rejected.mark();
+  }
+
+  /**
+   * Starts tracking a notification. If the notification is already tracked and this one is newer,
+   * it is remembered to run after the tracked one finishes.
+   *
+   * @param session the session adding the notification, it is rejected if the session remembers it
+   *        was deleted
+   * @param task called while locked, only if the notification will be tracked, to get the task that
+   *        processes it
+   * @param beforeWait run before blocking when memory is full
+   * @return true if the notification was not already tracked and the task should be executed
+   */
+  boolean add(Deletions session, NotificationFinder finder, Notification notification,
+      Supplier<Future<?>> task, Runnable beforeWait) {
+    RowColumn rowCol = notification.getRowColumn();
+    Stripe stripe = getStripe(rowCol);
+
+    synchronized (stripe) {
+      if (contains(stripe, session, rowCol)) {
+        reject(stripe, finder, notification);
+        return false;
+      }
+    }
+
+    // reserve memory before inserting, so concurrent sessions can not exceed the max
+    long size = size(rowCol);
+    reserveMemory(size, beforeWait);
+
+    synchronized (stripe) {
+      if (contains(stripe, session, rowCol)) {
+        reject(stripe, finder, notification);
+        releaseMemory(size);
+        return false;
+      }
+      stripe.queuedWork.put(rowCol, new Tracked(task.get(), notification.getTimestamp()));
+    }
+
+    admitted.mark();
+    return true;
+  }
+
+  void remove(RowColumn rowCol) {
+    remove(rowCol, false);
+  }
+
+  private FutureTask<?> remove(RowColumn rowCol, boolean allowRerun) {
+    Stripe stripe = getStripe(rowCol);
+
+    synchronized (stripe) {
+      Tracked tracked = stripe.queuedWork.get(rowCol);
+      if (tracked == null) {
+        return null;
+      }
+      if (allowRerun && tracked.rerun != null) {
+        return tracked.startRerun();
+      }
+      stripe.queuedWork.remove(rowCol);
+      // Remember while locked, so an add for the same row and column that locks the stripe after
+      // this sees the deletion.
+      for (Deletions session : sessions) {
+        if (session.predicate.test(rowCol)) {
+          session.add(fingerprint(rowCol));
+        }
+      }
+    }
+
+    releaseMemory(size(rowCol));
+    return null;
+  }
+
+  /**
+   * Stops tracking a processed notification, unless a newer notification for the same row and
+   * column arrived while it was queued or running.
+   *
+   * @return a task for the newer notification that must be executed, or null
+   */
+  FutureTask<?> processed(RowColumn rowCol) {
+    return remove(rowCol, true);
+  }
+
+  /**
+   * Gets the task to execute once a debounced task is done waiting. If a newer notification for the
+   * same row and column arrived while waiting, its task replaces the debounced one.
+   *
+   * @return null if the debounced task is no longer tracked, because it was cleared or replaced
+   */
+  FutureTask<?> startDebounced(RowColumn rowCol, FutureTask<?> ft) {
+    Stripe stripe = getStripe(rowCol);
+
+    synchronized (stripe) {
+      Tracked tracked = stripe.queuedWork.get(rowCol);
+      if (tracked == null || tracked.task != ft) {
+        return null;
+      }
+      if (tracked.rerun != null) {
+        return tracked.startRerun();
+      }
+      return ft;
+    }
+  }
+
+  void clear() {
+    for (Stripe stripe : stripes) {
+      long size = 0;
+      synchronized (stripe) {
+        for (Entry<RowColumn, Tracked> entry : stripe.queuedWork.entrySet()) {
+          entry.getValue().task.cancel(false);
+          size += size(entry.getKey());
+        }
+        stripe.queuedWork.clear();
+      }
+      releaseMemory(size);
+    }
+  }
+
+  /**
+   * Replaces the task of a tracked notification that needs to be processed again. If a newer
+   * notification for the same row and column arrived, its task is used instead.
+   *
+   * @return the task to execute, or null if the notification is no longer tracked
+   */
+  FutureTask<?> requeue(RowColumn rowCol, FutureTask<?> ft) {
+    Stripe stripe = getStripe(rowCol);
+
+    synchronized (stripe) {
+      Tracked tracked = stripe.queuedWork.get(rowCol);
+      if (tracked == null) {
+        return null;
+      }
+      if (tracked.rerun != null) {
+        return tracked.startRerun();
+      }
+      tracked.task = ft;
+    }
+
+    return ft;
+  }
+
+  /**
+   * Starts a session for adding notifications. Until the session finishes, notifications that are
+   * deleted and match the predicate are remembered, and the session can not add them again.
+   */
+  synchronized Deletions beginAddingNotifications(Predicate<RowColumn> memoryPredicate) {
+    Deletions session = new Deletions(memoryPredicate);
+    Deletions[] newSessions = Arrays.copyOf(sessions, sessions.length + 1);
+    newSessions[sessions.length] = session;
+    sessions = newSessions;
+    return session;
+  }
+
+  /**
+   * Finishes a session, forgetting the deletions it remembered. Deletions remembered by other
+   * sessions are kept until those finish.
+   */
+  synchronized void finishAddingNotifications(Deletions session) {
+    sessions = Arrays.stream(sessions).filter(s -> s != session).toArray(Deletions[]::new);
+  }
+}
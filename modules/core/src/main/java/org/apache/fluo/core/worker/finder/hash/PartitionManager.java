@@ -19,8 +19,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
@@ -34,6 +37,7 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.NodeCache;
 import org.apache.curator.framework.recipes.cache.PathChildrenCache;
 import org.apache.curator.framework.recipes.cache.PathChildrenCache.StartMode;
 import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
@@ -49,7 +53,9 @@ import org.apache.fluo.core.impl.FluoConfigurationImpl;
 import org.apache.fluo.core.impl.Notification;
 import org.apache.fluo.core.util.ByteUtil;
 import org.apache.fluo.core.util.FluoThreadFactory;
+import org.apache.fluo.core.worker.finder.hash.SerializedLoads.Weights;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,8 +78,12 @@ public class PartitionManager {
   private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
 
   public static final String ZK_FINDER_PREFIX = "f-";
+  static final String SPLITS_NODE = "splits";
 
   private final PathChildrenCache childrenCache;
+  // the weights are kept outside of the finders node, so updating load reports and weights does not
+  // trigger the finders listener on every worker
+  private final NodeCache weightsCache;
   private final PersistentNode myESNode;
   private final int groupSize;
   private long paritionSetTime;
@@ -90,6 +100,11 @@ public class PartitionManager {
 
   private static final long STABILIZE_TIME = TimeUnit.SECONDS.toMillis(60);
 
+  // hysteresis for reassigning tablets by load, see checkLoadBalance()
+  private static final double REBALANCE_THRESHOLD = 1.5;
+  private static final double REBALANCE_MIN_GAIN = 0.8;
+  private static final long REBALANCE_MIN_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
   private class FindersListener implements PathChildrenCacheListener {
 
     @Override
@@ -108,6 +123,11 @@ public class PartitionManager {
 
   static PartitionInfo getGroupInfo(String me, SortedSet<String> children,
       Collection<TableRange> tablets, int groupSize) {
+    return getGroupInfo(me, children, tablets, groupSize, Collections.emptyMap());
+  }
+
+  static PartitionInfo getGroupInfo(String me, SortedSet<String> children,
+      Collection<TableRange> tablets, int groupSize, Map<Bytes, Long> tabletLoads) {
 
     int numGroups = Math.max(1, children.size() / groupSize);
     int[] groupSizes = new int[numGroups];
@@ -124,6 +144,24 @@ public class PartitionManager {
       count = (count + 1) % numGroups;
     }
 
+    List<TableRange> groupsTablets = assignTablets(tablets, numGroups, tabletLoads).get(myGroupId);
+
+    return new PartitionInfo(myId, myGroupId, groupSizes[myGroupId], numGroups, children.size(),
+        groupsTablets);
+  }
+
+  private static long getLoad(Map<Bytes, Long> tabletLoads, TableRange tablet) {
+    return tabletLoads.getOrDefault(tablet.getEndRow(), 0L);
+  }
+
+  /**
+   * Divides tablets among groups. Without load information tablets are dealt out evenly. With load
+   * information every tablet costs the average load, for scanning it, plus its own notification
+   * load, and the most expensive tablets are placed first on the group with the lowest cost. Only
+   * integer arithmetic is used, so all workers compute the same assignment.
+   */
+  static List<List<TableRange>> assignTablets(Collection<TableRange> tablets, int numGroups,
+      Map<Bytes, Long> tabletLoads) {
     List<TableRange> rangesCopy = new ArrayList<>(tablets);
     Collections.sort(rangesCopy);
 
@@ -136,18 +174,65 @@ public class PartitionManager {
     // group having a 10% more tablets would lead to uneven utilization.
     Collections.shuffle(rangesCopy, new Random(42));
 
-    List<TableRange> groupsTablets = new ArrayList<>();
+    List<List<TableRange>> groupsTablets = new ArrayList<>(numGroups);
+    for (int i = 0; i < numGroups; i++) {
+      groupsTablets.add(new ArrayList<>());
+    }
 
-    count = 0;
+    long totalLoad = 0;
     for (TableRange tr : rangesCopy) {
-      if (count == myGroupId) {
-        groupsTablets.add(tr);
+      totalLoad += getLoad(tabletLoads, tr);
+    }
+
+    if (totalLoad == 0) {
+      int count = 0;
+      for (TableRange tr : rangesCopy) {
+        groupsTablets.get(count).add(tr);
+        count = (count + 1) % numGroups;
       }
-      count = (count + 1) % numGroups;
+      return groupsTablets;
     }
 
-    return new PartitionInfo(myId, myGroupId, groupSizes[myGroupId], numGroups, children.size(),
-        groupsTablets);
+    // the sort is stable, so tablets with the same load keep the shuffled order
+    rangesCopy.sort(Comparator.comparingLong(tr -> -getLoad(tabletLoads, tr)));
+
+    long numTablets = rangesCopy.size();
+    long[] groupCosts = new long[numGroups];
+    for (TableRange tr : rangesCopy) {
+      int best = 0;
+      for (int g = 1; g < numGroups; g++) {
+        if (groupCosts[g] < groupCosts[best] || (groupCosts[g] == groupCosts[best]
+            && groupsTablets.get(g).size() < groupsTablets.get(best).size())) {
+          best = g;
+        }
+      }
+      groupCosts[best] += totalLoad + numTablets * getLoad(tabletLoads, tr);
+      groupsTablets.get(best).add(tr);
+    }
+
+    return groupsTablets;
+  }
+
+  /**
+   * @return the ratio of the busiest group's load to the average group load
+   */
+  static double getImbalance(List<List<TableRange>> groupsTablets, Map<Bytes, Long> tabletLoads) {
+    long total = 0;
+    long max = 0;
+    for (List<TableRange> groupTablets : groupsTablets) {
+      long groupLoad = 0;
+      for (TableRange tr : groupTablets) {
+        groupLoad += getLoad(tabletLoads, tr);
+      }
+      total += groupLoad;
+      max = Math.max(max, groupLoad);
+    }
+
+    if (total == 0) {
+      return 1.0;
+    }
+
+    return max * (double) groupsTablets.size() / total;
   }
 
   private void updatePartitionInfo() {
@@ -164,9 +249,9 @@ public class PartitionManager {
       Set<String> groupSizes = new HashSet<>();
       for (ChildData childData : childrenCache.getCurrentData()) {
         String node = ZKPaths.getNodeFromPath(childData.getPath());
-        if (node.equals("splits")) {
+        if (node.equals(SPLITS_NODE)) {
           zkSplitData = childData.getData();
-        } else {
+        } else if (node.startsWith(ZK_FINDER_PREFIX)) {
           children.add(node);
           groupSizes.add(new String(childData.getData(), UTF_8));
         }
@@ -200,7 +285,8 @@ public class PartitionManager {
       SerializedSplits.deserialize(zkSplits::add, zkSplitData);
 
       Collection<TableRange> tableRanges = TableRange.fromBytes(zkSplits);
-      PartitionInfo newPI = getGroupInfo(me, children, tableRanges, groupSize);
+      Map<Bytes, Long> tabletLoads = getWeights().getLoads();
+      PartitionInfo newPI = getGroupInfo(me, children, tableRanges, groupSize, tabletLoads);
 
       setPartitionInfo(newPI);
     } catch (InterruptedException e) {
@@ -236,16 +322,17 @@ public class PartitionManager {
 
         String me2 = me;
         boolean imFirst = childrenCache.getCurrentData().stream().map(ChildData::getPath)
-            .map(ZKPaths::getNodeFromPath).sorted().findFirst().map(s -> s.equals(me2))
-            .orElse(false);
+            .map(ZKPaths::getNodeFromPath).filter(s -> s.startsWith(ZK_FINDER_PREFIX)).sorted()
+            .findFirst().map(s -> s.equals(me2)).orElse(false);
 
         if (imFirst) {
 
-          ChildData childData = childrenCache.getCurrentData(ZookeeperPath.FINDERS + "/splits");
+          ChildData childData =
+              childrenCache.getCurrentData(ZookeeperPath.FINDERS + "/" + SPLITS_NODE);
           if (childData == null) {
             byte[] currSplitData = SerializedSplits.serializeTableSplits(env);
 
-            curator.create().forPath(ZookeeperPath.FINDERS + "/splits", currSplitData);
+            curator.create().forPath(ZookeeperPath.FINDERS + "/" + SPLITS_NODE, currSplitData);
           } else {
             HashSet<Bytes> zkSplits = new HashSet<>();
             SerializedSplits.deserialize(zkSplits::add, childData.getData());
@@ -255,9 +342,11 @@ public class PartitionManager {
             SerializedSplits.deserialize(currentSplits::add, currSplitData);
 
             if (!currentSplits.equals(zkSplits)) {
-              curator.setData().forPath(ZookeeperPath.FINDERS + "/splits", currSplitData);
+              curator.setData().forPath(ZookeeperPath.FINDERS + "/" + SPLITS_NODE, currSplitData);
             }
           }
+
+          checkLoadBalance();
         }
       } catch (InterruptedException e) {
         log.debug("Interrupted while checking table split points.", e);
@@ -267,6 +356,96 @@ public class PartitionManager {
     }
   }
 
+  /**
+   * Called by the first worker to decide if tablets should be reassigned to groups based on the
+   * notification load reported by all workers. Every change pauses notification processing while
+   * the partitioning stabilizes, so this only happens when the busiest group is well above average,
+   * the new assignment is clearly better and the last change was a while ago.
+   */
+  private void checkLoadBalance() throws Exception {
+    ChildData splitsData = childrenCache.getCurrentData(ZookeeperPath.FINDERS + "/" + SPLITS_NODE);
+    if (splitsData == null) {
+      return;
+    }
+
+    int numWorkers = 0;
+    for (ChildData childData : childrenCache.getCurrentData()) {
+      if (ZKPaths.getNodeFromPath(childData.getPath()).startsWith(ZK_FINDER_PREFIX)) {
+        numWorkers++;
+      }
+    }
+
+    Weights currentWeights = getWeights();
+    int numGroups = Math.max(1, numWorkers / groupSize);
+    if (numGroups == 1
+        || System.currentTimeMillis() - currentWeights.getRebalanceTime() < REBALANCE_MIN_PERIOD) {
+      return;
+    }
+
+    Map<Bytes, Long> measuredLoads = new HashMap<>();
+    List<String> reports;
+    try {
+      reports = curator.getChildren().forPath(ZookeeperPath.FINDER_BALANCE_LOADS);
+    } catch (KeeperException.NoNodeException e) {
+      return;
+    }
+    for (String report : reports) {
+      try {
+        byte[] data = curator.getData().forPath(ZookeeperPath.FINDER_BALANCE_LOADS + "/" + report);
+        SerializedLoads.deserialize(data)
+            .forEach((endRow, load) -> measuredLoads.merge(endRow, load, Long::sum));
+      } catch (KeeperException.NoNodeException e) {
+        // the worker went away
+      }
+    }
+
+    List<Bytes> zkSplits = new ArrayList<>();
+    SerializedSplits.deserialize(zkSplits::add, splitsData.getData());
+    Collection<TableRange> tablets = TableRange.fromBytes(zkSplits);
+
+    double currentImbalance =
+        getImbalance(assignTablets(tablets, numGroups, currentWeights.getLoads()), measuredLoads);
+    if (currentImbalance < REBALANCE_THRESHOLD) {
+      return;
+    }
+
+    double newImbalance =
+        getImbalance(assignTablets(tablets, numGroups, measuredLoads), measuredLoads);
+    if (newImbalance < currentImbalance * REBALANCE_MIN_GAIN) {
+      log.info("Reassigning tablets to worker groups by notification load, imbalance {} -> {}",
+          String.format("%.2f", currentImbalance), String.format("%.2f", newImbalance));
+      curator.create().orSetData().creatingParentsIfNeeded().forPath(
+          ZookeeperPath.FINDER_BALANCE_WEIGHTS,
+          SerializedLoads.serializeWeights(System.currentTimeMillis(), measuredLoads));
+    }
+  }
+
+  private Weights getWeights() {
+    ChildData weightsData = weightsCache.getCurrentData();
+    if (weightsData == null) {
+      return new Weights(0, Collections.emptyMap());
+    }
+    return SerializedLoads.deserializeWeights(weightsData.getData());
+  }
+
+  /**
+   * Publishes the notification load this worker saw per tablet, keyed by the tablet's end row.
+   */
+  void reportLoad(Map<Bytes, Long> tabletLoads) {
+    String me = myESNode.getActualPath();
+    if (me == null) {
+      return;
+    }
+
+    String path = ZookeeperPath.FINDER_BALANCE_LOADS + "/" + ZKPaths.getNodeFromPath(me);
+    try {
+      curator.create().orSetData().creatingParentsIfNeeded().withMode(CreateMode.EPHEMERAL)
+          .forPath(path, SerializedLoads.serialize(tabletLoads));
+    } catch (Exception e) {
+      log.debug("Failed to report notification load", e);
+    }
+  }
+
   PartitionManager(Environment env, long minSleepTime, long maxSleepTime) {
     try {
       this.curator = env.getSharedResources().getCurator();
@@ -293,6 +472,10 @@ public class PartitionManager {
       schedExecutor.scheduleWithFixedDelay(new CheckTabletsTask(), 0, maxSleepTime,
           TimeUnit.MILLISECONDS);
 
+      weightsCache = new NodeCache(curator, ZookeeperPath.FINDER_BALANCE_WEIGHTS);
+      weightsCache.getListenable().addListener(this::scheduleUpdate);
+      weightsCache.start(true);
+
       scheduleUpdate();
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -346,6 +529,11 @@ public class PartitionManager {
     } catch (IOException e) {
       log.debug("Error closing finder children cache", e);
     }
+    try {
+      weightsCache.close();
+    } catch (IOException e) {
+      log.debug("Error closing finder weights cache", e);
+    }
 
     schedExecutor.shutdownNow();
   }
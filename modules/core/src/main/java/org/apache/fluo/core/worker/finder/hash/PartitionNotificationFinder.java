@@ -15,6 +15,7 @@
 
 package org.apache.fluo.core.worker.finder.hash;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.fluo.core.impl.Environment;
@@ -22,12 +23,15 @@ import org.apache.fluo.core.impl.FluoConfigurationImpl;
 import org.apache.fluo.core.impl.Notification;
 import org.apache.fluo.core.worker.NotificationFinder;
 import org.apache.fluo.core.worker.NotificationProcessor;
+import org.apache.fluo.core.worker.NotificationProcessor.Session;
 import org.apache.fluo.core.worker.TxResult;
 
 public class PartitionNotificationFinder implements NotificationFinder {
 
   private PartitionManager partitionManager;
   private Thread scanThread;
+  private Thread pushThread;
+  private PushTask pushTask;
   private NotificationProcessor processor;
   private Environment env;
   private AtomicBoolean stopped;
@@ -51,20 +55,50 @@ public class PartitionNotificationFinder implements NotificationFinder {
 
     partitionManager = new PartitionManager(env, minSleepTime, maxSleepTime);
 
-    scanThread = new Thread(
-        new ScanTask(this, processor, partitionManager, env, stopped, minSleepTime, maxSleepTime));
+    int scanThreads =
+        FluoConfigurationImpl.getNotificationFinderScanThreads(env.getConfiguration());
+
+    scanThread = new Thread(new ScanTask(this, processor, partitionManager, env, stopped,
+        minSleepTime, maxSleepTime, scanThreads));
     scanThread.setName(getClass().getSimpleName() + " " + ScanTask.class.getSimpleName());
     scanThread.setDaemon(true);
     scanThread.start();
+
+    int pushQueueSize = FluoConfigurationImpl.getNotificationPushQueueSize(env.getConfiguration());
+    if (pushQueueSize > 0) {
+      pushTask = new PushTask(env.getFluoApplicationID(), partitionManager::shouldProcess,
+          this::addPushedNotifications, stopped, pushQueueSize);
+      pushThread = new Thread(pushTask);
+      pushThread.setName(getClass().getSimpleName() + " " + PushTask.class.getSimpleName());
+      pushThread.setDaemon(true);
+      pushThread.start();
+    }
+  }
+
+  private void addPushedNotifications(List<Notification> notifications) {
+    // these notifications are not read from the table, so the session has nothing to remember
+    try (Session session = processor.beginAddingNotifications(rc -> false)) {
+      for (Notification notification : notifications) {
+        session.addNotification(this, notification);
+      }
+    }
   }
 
   @Override
   public void stop() {
     stopped.set(true);
 
+    if (pushTask != null) {
+      // the push task unsubscribes from the notification bus when it stops
+      pushThread.interrupt();
+    }
+
     scanThread.interrupt();
     try {
       scanThread.join();
+      if (pushThread != null) {
+        pushThread.join();
+      }
     } catch (InterruptedException e) {
       throw new RuntimeException(e);
     }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker.finder.hash;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.apache.fluo.core.impl.Notification;
+import org.apache.fluo.core.impl.NotificationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues notifications published by transactions committed in this process and adds the ones this
+ * worker owns to the processor. When the queue is full notifications are dropped, they will still
+ * be found by {@link ScanTask}. The task is subscribed to the {@link NotificationBus} while it
+ * runs.
+ */
+class PushTask implements Runnable, Consumer<Collection<Notification>> {
+
+  private static final Logger log = LoggerFactory.getLogger(PushTask.class);
+
+  private final String fluoAppId;
+  private final Predicate<Notification> shouldProcess;
+  private final Consumer<List<Notification>> processor;
+  private final AtomicBoolean stopped;
+  private final BlockingQueue<Notification> queue;
+
+  /**
+   * @param shouldProcess decides if this worker owns a notification
+   * @param processor adds a batch of owned notifications to the notification processor
+   */
+  PushTask(String fluoAppId, Predicate<Notification> shouldProcess,
+      Consumer<List<Notification>> processor, AtomicBoolean stopped, int queueSize) {
+    this.fluoAppId = fluoAppId;
+    this.shouldProcess = shouldProcess;
+    this.processor = processor;
+    this.stopped = stopped;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+  }
+
+  @Override
+  public void accept(Collection<Notification> notifications) {
+    for (Notification notification : notifications) {
+      if (!queue.offer(notification)) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public void run() {
+    NotificationBus.subscribe(fluoAppId, this);
+    try {
+      processPushed();
+    } finally {
+      NotificationBus.unsubscribe(fluoAppId, this);
+    }
+  }
+
+  private void processPushed() {
+    List<Notification> batch = new ArrayList<>();
+    List<Notification> owned = new ArrayList<>();
+    while (!stopped.get()) {
+      try {
+        batch.add(queue.take());
+        queue.drainTo(batch);
+
+        for (Notification notification : batch) {
+          if (shouldProcess.test(notification)) {
+            owned.add(notification);
+          }
+        }
+
+        if (!owned.isEmpty()) {
+          processor.accept(owned);
+        }
+      } catch (InterruptedException e) {
+        log.debug("Interrupted while waiting for pushed notifications", e);
+      } catch (Exception e) {
+        log.error("Error while adding pushed notifications", e);
+      } finally {
+        batch.clear();
+        owned.clear();
+      }
+    }
+  }
+}
@@ -17,13 +17,21 @@ package org.apache.fluo.core.worker.finder.hash;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.client.IteratorSetting;
@@ -33,9 +41,10 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.fluo.accumulo.iterators.NotificationHashFilter;
+import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.core.impl.Environment;
 import org.apache.fluo.core.impl.Notification;
-import org.apache.fluo.core.util.UtilWaitThread;
+import org.apache.fluo.core.util.FluoExecutors;
 import org.apache.fluo.core.worker.NotificationFinder;
 import org.apache.fluo.core.worker.NotificationProcessor;
 import org.apache.fluo.core.worker.NotificationProcessor.Session;
@@ -54,15 +63,21 @@ public class ScanTask implements Runnable {
   private final Map<TableRange, TabletData> rangeData;
   private final Environment env;
 
+  private final ExecutorService scanExecutor;
+
+  private final int scanThreads;
   private long minSleepTime;
   private long maxSleepTime;
+  private long lastLoadReport = System.currentTimeMillis();
+
+  private static final long LOAD_REPORT_PERIOD = TimeUnit.SECONDS.toMillis(60);
 
   private static final Map<String, String> SCAN_EXEC_HINTS =
       Collections.singletonMap("scan_type", "fluo-ntfy");
 
   ScanTask(NotificationFinder finder, NotificationProcessor proccessor,
       PartitionManager partitionManager, Environment env, AtomicBoolean stopped, long minSleepTime,
-      long maxSleepTime) {
+      long maxSleepTime, int scanThreads) {
     this.finder = finder;
     this.rangeData = new HashMap<>();
 
@@ -74,86 +89,79 @@ public class ScanTask implements Runnable {
 
     this.minSleepTime = minSleepTime;
     this.maxSleepTime = maxSleepTime;
+
+    this.scanThreads = scanThreads;
+    this.scanExecutor = FluoExecutors.newFixedThreadPool(scanThreads, "ntfyScan");
   }
 
   @Override
   public void run() {
+    try {
+      runScans();
+    } finally {
+      scanExecutor.shutdownNow();
+    }
+  }
 
-    List<TableRange> ranges = new ArrayList<>();
-    Set<TableRange> rangeSet = new HashSet<>();
+  private void runScans() {
 
-    int qSize = proccessor.size();
+    CompletionService<ScanCounts> completions = new ExecutorCompletionService<>(scanExecutor);
+    Map<TableRange, Future<ScanCounts>> running = new HashMap<>();
+    List<TableRange> ranges = new ArrayList<>();
+    PartitionInfo lastPartition = null;
+    ScanThrottle throttle = new ScanThrottle();
 
     while (!stopped.get()) {
       try {
-        ranges.clear();
-        rangeSet.clear();
-
         PartitionInfo partition = partitionManager.waitForPartitionInfo();
 
-        while (proccessor.size() > qSize / 2 && !stopped.get()) {
-          UtilWaitThread.sleep(50, stopped);
-        }
-
-        partition.getMyGroupsRanges().forEach(t -> {
-          ranges.add(t);
-          rangeSet.add(t);
-        });
-        Collections.shuffle(ranges, rand);
-        rangeData.keySet().retainAll(rangeSet);
-
-        long minRetryTime = maxSleepTime + System.currentTimeMillis();
-        ScanCounts ntfyCounts = new ScanCounts();
-        int tabletsScanned = 0;
-        try {
-          for (TableRange tabletRange : ranges) {
-            TabletData tabletData = rangeData.computeIfAbsent(tabletRange, tr -> new TabletData());
-            if (System.currentTimeMillis() >= tabletData.retryTime) {
-              ScanCounts counts;
-              PartitionInfo pi = partitionManager.getPartitionInfo();
-              if (partition.equals(pi)) {
-                try (Session session =
-                    proccessor.beginAddingNotifications(rc -> tabletRange.contains(rc.getRow()))) {
-                  // notifications could have been asynchronously queued for deletion. Let that
-                  // happen 1st before scanning
-                  env.getSharedResources().getBatchWriter().waitForAsyncFlush();
-
-                  counts = scan(session, partition, tabletRange.getRange());
-                  tabletsScanned++;
-                }
-              } else {
-                break;
-              }
-              tabletData.updateScanCount(counts.added, maxSleepTime);
-              ntfyCounts.added += counts.added;
-              ntfyCounts.seen += counts.seen;
-              if (stopped.get()) {
-                break;
-              }
-            }
-
-            minRetryTime = Math.min(tabletData.retryTime, minRetryTime);
-          }
-        } catch (PartitionInfoChangedException mpce) {
-          // nothing to do
+        if (!partition.equals(lastPartition)) {
+          ranges.clear();
+          partition.getMyGroupsRanges().forEach(ranges::add);
+          Collections.shuffle(ranges, rand);
+          rangeData.keySet().retainAll(new HashSet<>(ranges));
+          ranges.forEach(tr -> rangeData.computeIfAbsent(tr, k -> new TabletData()));
+          lastPartition = partition;
         }
 
-        long sleepTime;
-        if (!partition.equals(partitionManager.getPartitionInfo())) {
-          sleepTime = minSleepTime;
-        } else {
-          sleepTime = Math.max(minSleepTime, minRetryTime - System.currentTimeMillis());
+        ScanCounts finished = collectFinishedScans(running);
+        if (finished != null) {
+          throttle.scansFinished(finished.added, proccessor.size(), System.currentTimeMillis());
         }
 
-        qSize = proccessor.size();
+        reportLoad();
 
-        log.debug("Scanned {} of {} tablets. Notifications added: {} seen: {} queued: {}",
-            tabletsScanned, ranges.size(), ntfyCounts.added, ntfyCounts.seen, qSize);
+        long waitTime;
+        if (throttle.shouldWait(proccessor.size(), System.currentTimeMillis(), maxSleepTime)) {
+          // let the processor catch up before looking for more notifications
+          waitTime = 50;
+        } else {
+          long now = System.currentTimeMillis();
+          for (TableRange tabletRange : getDueTablets(ranges, rangeData, running.keySet(), now)) {
+            if (running.size() >= scanThreads) {
+              break;
+            }
+            running.put(tabletRange, completions.submit(() -> scanTablet(partition, tabletRange)));
+          }
 
-        if (!stopped.get()) {
-          UtilWaitThread.sleep(sleepTime, stopped);
+          if (running.size() >= scanThreads) {
+            // a finishing scan wakes this thread
+            waitTime = maxSleepTime;
+          } else {
+            long nextRetryTime = now + minSleepTime;
+            for (TableRange tabletRange : ranges) {
+              if (!running.containsKey(tabletRange)) {
+                nextRetryTime = Math.min(rangeData.get(tabletRange).retryTime, nextRetryTime);
+              }
+            }
+            waitTime = Math.max(1, nextRetryTime - now);
+          }
         }
 
+        // wait for a scan to finish or for a tablet to become due, each tablet is rescanned as
+        // soon as it is due instead of waiting for the slowest scan of a round
+        completions.poll(waitTime, TimeUnit.MILLISECONDS);
+
       } catch (Exception e) {
         if (isInterruptedException(e)) {
           log.debug("Error while looking for notifications", e);
@@ -164,7 +172,116 @@ public class ScanTask implements Runnable {
     }
   }
 
-  private boolean isInterruptedException(Exception e) {
+  /**
+   * Removes finished scans and updates the hit history of their tablets. Only the thread running
+   * this task touches {@link TabletData}.
+   *
+   * @return the notifications added by the scans that finished, or null if none finished
+   */
+  private ScanCounts collectFinishedScans(Map<TableRange, Future<ScanCounts>> running) {
+    ScanCounts ntfyCounts = new ScanCounts();
+    int tabletsScanned = 0;
+    boolean finished = false;
+
+    Iterator<Entry<TableRange, Future<ScanCounts>>> iter = running.entrySet().iterator();
+    while (iter.hasNext()) {
+      Entry<TableRange, Future<ScanCounts>> entry = iter.next();
+      if (!entry.getValue().isDone()) {
+        continue;
+      }
+      iter.remove();
+      finished = true;
+
+      try {
+        ScanCounts counts = entry.getValue().get();
+        TabletData tabletData = rangeData.get(entry.getKey());
+        // the tablet may no longer belong to this worker
+        if (counts != null && tabletData != null) {
+          tabletData.updateScanCount(counts.added, System.currentTimeMillis(), minSleepTime,
+              maxSleepTime);
+          tabletData.seen += counts.seen;
+          ntfyCounts.added += counts.added;
+          ntfyCounts.seen += counts.seen;
+          tabletsScanned++;
+        }
+      } catch (ExecutionException e) {
+        if (!(e.getCause() instanceof PartitionInfoChangedException)) {
+          if (isInterruptedException(e)) {
+            log.debug("Error while looking for notifications", e.getCause());
+          } else {
+            log.error("Error while looking for notifications", e.getCause());
+          }
+        }
+      } catch (InterruptedException e) {
+        // the future is done, so get() does not wait
+        throw new IllegalStateException(e);
+      }
+    }
+
+    if (tabletsScanned > 0) {
+      log.debug("Scanned {} tablets. Notifications added: {} seen: {} queued: {}", tabletsScanned,
+          ntfyCounts.added, ntfyCounts.seen, proccessor.size());
+    }
+
+    return finished ? ntfyCounts : null;
+  }
+
+  /**
+   * Returns the tablets that are not being scanned and whose retry time has passed, ordered by
+   * descending hit rate. The sort is stable, so tablets with the same hit history keep the order of
+   * {@code ranges}.
+   */
+  static List<TableRange> getDueTablets(List<TableRange> ranges,
+      Map<TableRange, TabletData> rangeData, Set<TableRange> running, long now) {
+    List<TableRange> due = new ArrayList<>();
+    for (TableRange tabletRange : ranges) {
+      if (!running.contains(tabletRange) && now >= rangeData.get(tabletRange).retryTime) {
+        due.add(tabletRange);
+      }
+    }
+    due.sort(Comparator.comparingDouble(tr -> -rangeData.get(tr).hitRate));
+    return due;
+  }
+
+  private void reportLoad() {
+    long elapsed = System.currentTimeMillis() - lastLoadReport;
+    if (elapsed < LOAD_REPORT_PERIOD) {
+      return;
+    }
+
+    // notifications seen per minute, summed over a group's workers this is the tablet's load
+    Map<Bytes, Long> tabletLoads = new HashMap<>();
+    rangeData.forEach((tabletRange, tabletData) -> {
+      if (tabletData.seen > 0) {
+        tabletLoads.put(tabletRange.getEndRow(), tabletData.seen * 60_000 / elapsed);
+        tabletData.seen = 0;
+      }
+    });
+    partitionManager.reportLoad(tabletLoads);
+    lastLoadReport = System.currentTimeMillis();
+  }
+
+  /**
+   * Scans a single tablet for notifications using its own session, so the memory predicate only
+   * covers the tablet. Returns null if the tablet was not scanned.
+   */
+  private ScanCounts scanTablet(PartitionInfo partition, TableRange tabletRange)
+      throws TableNotFoundException {
+    if (stopped.get() || !partition.equals(partitionManager.getPartitionInfo())) {
+      return null;
+    }
+
+    try (Session session =
+        proccessor.beginAddingNotifications(rc -> tabletRange.contains(rc.getRow()))) {
+      // notifications could have been asynchronously queued for deletion. Let that happen 1st
+      // before scanning
+      env.getSharedResources().getBatchWriter().waitForAsyncFlush();
+
+      return scan(session, partition, tabletRange.getRange());
+    }
+  }
+
+  private boolean isInterruptedException(Throwable e) {
     boolean wasInt = false;
     Throwable cause = e;
     while (cause != null) {
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker.finder.hash;
+
+/**
+ * Decides when scanning waits so the processor can catch up on the notifications that scans queued.
+ * Pushed notifications are also queued in the processor, so they are not allowed to hold off
+ * scanning. Scans only wait after they added notifications, and never for longer than the max sleep
+ * time, so the periodic scan still finds notifications that were never pushed or whose push was
+ * dropped.
+ */
+class ScanThrottle {
+  // queue size when scans last finished
+  private int queued = 0;
+  // notifications added by the scans that last finished
+  private int added = 0;
+  private long finishedTime = 0;
+
+  /**
+   * Records that scans finished.
+   *
+   * @param added notifications the finished scans added to the processor
+   * @param queued the size of the processor's queue after the scans finished
+   */
+  void scansFinished(int added, int queued, long now) {
+    this.added = added;
+    this.queued = queued;
+    this.finishedTime = now;
+  }
+
+  /**
+   * @return true if scanning should wait because the processor has not yet worked through half of
+   *         what the last scans queued
+   */
+  boolean shouldWait(int queued, long now, long maxSleep) {
+    return added > 0 && queued > this.queued / 2 && now - finishedTime < maxSleep;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker.finder.hash;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Bytes.BytesBuilder;
+
+/**
+ * Serializes notification load per tablet, keyed by the tablet's end row. The last tablet has a
+ * null end row.
+ */
+public class SerializedLoads {
+
+  // keep the busiest tablets when there are more, the rest are treated as having no load
+  static final int MAX_ENTRIES = 10000;
+
+  /**
+   * The loads used to assign tablets to groups and the time they were chosen.
+   */
+  public static class Weights {
+    private final long rebalanceTime;
+    private final Map<Bytes, Long> loads;
+
+    Weights(long rebalanceTime, Map<Bytes, Long> loads) {
+      this.rebalanceTime = rebalanceTime;
+      this.loads = loads;
+    }
+
+    public long getRebalanceTime() {
+      return rebalanceTime;
+    }
+
+    public Map<Bytes, Long> getLoads() {
+      return loads;
+    }
+  }
+
+  private static DataInputStream newInput(byte[] data) throws IOException {
+    return new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)));
+  }
+
+  private static Map<Bytes, Long> readLoads(DataInputStream dis) throws IOException {
+    int numLoads = dis.readInt();
+
+    Map<Bytes, Long> loads = new HashMap<>();
+    BytesBuilder builder = Bytes.builder();
+
+    for (int i = 0; i < numLoads; i++) {
+      Bytes endRow = null;
+      if (dis.readBoolean()) {
+        int len = dis.readInt();
+        builder.setLength(0);
+        builder.append(dis, len);
+        endRow = builder.toBytes();
+      }
+      loads.put(endRow, dis.readLong());
+    }
+
+    return loads;
+  }
+
+  public static Map<Bytes, Long> deserialize(byte[] serializedLoads) {
+    try (DataInputStream dis = newInput(serializedLoads)) {
+      return readLoads(dis);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static Weights deserializeWeights(byte[] serializedWeights) {
+    try (DataInputStream dis = newInput(serializedWeights)) {
+      long rebalanceTime = dis.readLong();
+      return new Weights(rebalanceTime, readLoads(dis));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private interface Writer {
+    void write(DataOutputStream dos) throws IOException;
+  }
+
+  private static byte[] toBytes(Writer writer) {
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      GZIPOutputStream gzOut = new GZIPOutputStream(baos);
+      BufferedOutputStream bos = new BufferedOutputStream(gzOut, 1 << 16);
+      DataOutputStream dos = new DataOutputStream(bos);
+
+      writer.write(dos);
+
+      dos.close();
+
+      return baos.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeLoads(DataOutputStream dos, Map<Bytes, Long> loads) throws IOException {
+    List<Entry<Bytes, Long>> entries = new ArrayList<>(loads.entrySet());
+    if (entries.size() > MAX_ENTRIES) {
+      entries.sort(Entry.<Bytes, Long>comparingByValue().reversed());
+      entries = entries.subList(0, MAX_ENTRIES);
+    }
+
+    dos.writeInt(entries.size());
+    for (Entry<Bytes, Long> entry : entries) {
+      Bytes endRow = entry.getKey();
+      dos.writeBoolean(endRow != null);
+      if (endRow != null) {
+        dos.writeInt(endRow.length());
+        endRow.writeTo(dos);
+      }
+      dos.writeLong(entry.getValue());
+    }
+  }
+
+  public static byte[] serialize(Map<Bytes, Long> loads) {
+    return toBytes(dos -> writeLoads(dos, loads));
+  }
+
+  /**
+   * The rebalance time is stored with the weights instead of relying on the ZooKeeper modification
+   * time, which comes from a different clock than the workers that compare against it.
+   */
+  public static byte[] serializeWeights(long rebalanceTime, Map<Bytes, Long> loads) {
+    return toBytes(dos -> {
+      dos.writeLong(rebalanceTime);
+      writeLoads(dos, loads);
+    });
+  }
+}
@@ -18,12 +18,23 @@ package org.apache.fluo.core.worker.finder.hash;
 class TabletData {
   long retryTime = 0;
   long sleepTime = 0;
+  // exponentially decaying average of notifications added per scan, tablets that recently had
+  // notifications are scanned first
+  double hitRate = 0;
+  // notifications seen since the load was last reported to the partition manager
+  long seen = 0;
+
+  /**
+   * Updates the hit history and retry time of a tablet after a scan that added {@code count}
+   * notifications. A tablet is rescanned no sooner than {@code minSleep} after a scan.
+   */
+  public void updateScanCount(int count, long now, long minSleep, long maxSleep) {
+    hitRate = (hitRate + count) / 2;
 
-  public void updateScanCount(int count, long maxSleep) {
     if (count == 0) {
       // remember if a tablet is empty an do not retry it for a bit... the more times empty, the
       // longer the retry
-      retryTime = sleepTime + System.currentTimeMillis();
+      retryTime = Math.max(minSleep, sleepTime) + now;
       if (sleepTime == 0) {
         sleepTime = 100;
       } else {
@@ -32,7 +43,7 @@ class TabletData {
         }
       }
     } else {
-      retryTime = 0;
+      retryTime = minSleep + now;
       sleepTime = 0;
     }
   }
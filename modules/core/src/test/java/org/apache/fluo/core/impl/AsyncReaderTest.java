@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumn;
+import org.apache.fluo.core.util.FluoExecutors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncReaderTest {
+
+  @Test
+  public void testMoreTransactionsThanThreads() throws Exception {
+    int numTx = 20;
+    ExecutorService executor = FluoExecutors.newFixedThreadPool(2, "test-reads");
+    try {
+      AtomicInteger reading = new AtomicInteger();
+      AtomicInteger maxReading = new AtomicInteger();
+
+      List<CompletableFuture<String>> futures = new ArrayList<>();
+      for (int i = 0; i < numTx; i++) {
+        String val = "v" + i;
+        AsyncReader reader = new AsyncReader(rowColumns -> {
+          maxReading.accumulateAndGet(reading.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          reading.decrementAndGet();
+          Map<RowColumn, Bytes> results = new HashMap<>();
+          rowColumns.forEach(rc -> results.put(rc, Bytes.of(val)));
+          return results;
+        }, executor);
+        futures.add(reader.gets("r" + i, new Column("f", "q")));
+      }
+
+      // reads beyond the thread count wait in the queue, no more threads are started for them
+      for (int i = 0; i < numTx; i++) {
+        Assert.assertEquals("v" + i, futures.get(i).get(30, TimeUnit.SECONDS));
+      }
+      Assert.assertTrue(maxReading.get() <= 2);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testGetsAreBatched() throws Exception {
+    ExecutorService executor = FluoExecutors.newFixedThreadPool(1, "test-reads");
+    try {
+      CountDownLatch firstRead = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      List<Integer> readSizes = new ArrayList<>();
+
+      AsyncReader reader = new AsyncReader(rowColumns -> {
+        synchronized (readSizes) {
+          readSizes.add(rowColumns.size());
+        }
+        firstRead.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return new HashMap<>();
+      }, executor);
+
+      Column col = new Column("f", "q");
+      CompletableFuture<String> f1 = reader.gets("r1", col, "d");
+      firstRead.await();
+      // queued while the first read is running, so should be read together
+      CompletableFuture<String> f2 = reader.gets("r2", col, "d");
+      CompletableFuture<String> f3 = reader.gets("r3", col, "d");
+      release.countDown();
+
+      Assert.assertEquals("d", f1.get(30, TimeUnit.SECONDS));
+      Assert.assertEquals("d", f2.get(30, TimeUnit.SECONDS));
+      Assert.assertEquals("d", f3.get(30, TimeUnit.SECONDS));
+      synchronized (readSizes) {
+        Assert.assertEquals(2, readSizes.size());
+        Assert.assertEquals(1, (int) readSizes.get(0));
+        Assert.assertEquals(2, (int) readSizes.get(1));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.impl;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReadCacheTest {
+
+  private static final Column COL = new Column("f", "q");
+
+  @Test
+  public void testAbsent() {
+    ReadCache cache = new ReadCache(10);
+
+    Assert.assertNull(cache.get(Bytes.of("r1"), COL));
+
+    cache.put(Bytes.of("r1"), COL, null);
+    cache.put(Bytes.of("r2"), COL, Bytes.of("v2"));
+
+    Assert.assertSame(ReadCache.ABSENT, cache.get(Bytes.of("r1"), COL));
+    Assert.assertEquals(Bytes.of("v2"), cache.get(Bytes.of("r2"), COL));
+    Assert.assertNull(cache.get(Bytes.of("r2"), new Column("f", "q2")));
+  }
+
+  @Test
+  public void testEviction() {
+    ReadCache cache = new ReadCache(3);
+
+    cache.put(Bytes.of("r1"), COL, Bytes.of("v1"));
+    cache.put(Bytes.of("r2"), COL, Bytes.of("v2"));
+    cache.put(Bytes.of("r3"), COL, Bytes.of("v3"));
+
+    // accessing r1 should cause r2 to be evicted instead of r1
+    Assert.assertEquals(Bytes.of("v1"), cache.get(Bytes.of("r1"), COL));
+    cache.put(Bytes.of("r4"), COL, Bytes.of("v4"));
+
+    Assert.assertEquals(3, cache.size());
+    Assert.assertEquals(Bytes.of("v1"), cache.get(Bytes.of("r1"), COL));
+    Assert.assertNull(cache.get(Bytes.of("r2"), COL));
+    Assert.assertEquals(Bytes.of("v3"), cache.get(Bytes.of("r3"), COL));
+    Assert.assertEquals(Bytes.of("v4"), cache.get(Bytes.of("r4"), COL));
+  }
+
+  @Test
+  public void testDisabled() {
+    ReadCache cache = new ReadCache(0);
+    cache.put(Bytes.of("r1"), COL, Bytes.of("v1"));
+    Assert.assertEquals(0, cache.size());
+    Assert.assertNull(cache.get(Bytes.of("r1"), COL));
+  }
+}
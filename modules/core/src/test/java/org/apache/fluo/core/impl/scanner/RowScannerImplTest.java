@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.impl.scanner;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.fluo.api.client.scanner.ColumnScanner;
+import org.apache.fluo.api.data.ColumnValue;
+import org.apache.hadoop.io.Text;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RowScannerImplTest {
+
+  private static Entry<Key, Value> newEntry(String row, String qual) {
+    return new AbstractMap.SimpleImmutableEntry<>(new Key(row, "f", qual),
+        new Value(("v" + qual).getBytes()));
+  }
+
+  private static List<Entry<Key, Value>> newData() {
+    List<Entry<Key, Value>> data = new ArrayList<>();
+    for (int r = 0; r < 4; r++) {
+      for (int q = 0; q < 3; q++) {
+        data.add(newEntry("r" + r, "q" + q));
+      }
+    }
+    return data;
+  }
+
+  @Test
+  public void testRows() {
+    RowScannerImpl scanner = new RowScannerImpl(newData(), Collections.emptyList());
+
+    int rows = 0;
+    for (ColumnScanner cs : scanner) {
+      Assert.assertEquals("r" + rows, cs.getsRow());
+      int cols = 0;
+      for (ColumnValue cv : cs) {
+        Assert.assertEquals("q" + cols, cv.getColumn().getsQualifier());
+        Assert.assertEquals("vq" + cols, cv.getsValue());
+        cols++;
+      }
+      Assert.assertEquals(3, cols);
+      rows++;
+    }
+    Assert.assertEquals(4, rows);
+  }
+
+  @Test
+  public void testPartiallyConsumedRows() {
+    RowScannerImpl scanner = new RowScannerImpl(newData(), Collections.emptyList());
+
+    List<String> rows = new ArrayList<>();
+    int rowNum = 0;
+    for (ColumnScanner cs : scanner) {
+      rows.add(cs.getsRow());
+      // read a different number of columns from each row, none for the first
+      Iterator<ColumnValue> iter = cs.iterator();
+      for (int i = 0; i < rowNum; i++) {
+        Assert.assertEquals("q" + i, iter.next().getColumn().getsQualifier());
+      }
+      rowNum++;
+    }
+
+    Assert.assertEquals(Arrays.asList("r0", "r1", "r2", "r3"), rows);
+  }
+
+  /**
+   * Counts calls to {@link Key#getRow()}, which copies the row into a new Text.
+   */
+  private static class RowCopyCountingKey extends Key {
+    private final AtomicInteger rowCopies;
+
+    RowCopyCountingKey(String row, String qual, AtomicInteger rowCopies) {
+      super(row, "f", qual);
+      this.rowCopies = rowCopies;
+    }
+
+    @Override
+    public Text getRow() {
+      rowCopies.incrementAndGet();
+      return super.getRow();
+    }
+
+    @Override
+    public Text getRow(Text r) {
+      rowCopies.incrementAndGet();
+      return super.getRow(r);
+    }
+  }
+
+  @Test
+  public void testRowsAreNotCopiedOrReadAhead() {
+    int numCols = 1000;
+    AtomicInteger pulled = new AtomicInteger();
+    AtomicInteger rowCopies = new AtomicInteger();
+
+    // entries are generated on demand, so the test can see how far the scanner has read
+    Iterable<Entry<Key, Value>> wideRow = () -> new Iterator<Entry<Key, Value>>() {
+      @Override
+      public boolean hasNext() {
+        return pulled.get() <= numCols;
+      }
+
+      @Override
+      public Entry<Key, Value> next() {
+        int count = pulled.getAndIncrement();
+        Key key;
+        if (count < numCols) {
+          key = new RowCopyCountingKey("r", String.format("%07d", count), rowCopies);
+        } else {
+          key = new RowCopyCountingKey("s", "0", rowCopies);
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(key, new Value("v".getBytes()));
+      }
+    };
+
+    Iterator<ColumnScanner> rows = new RowScannerImpl(wideRow, Collections.emptyList()).iterator();
+
+    ColumnScanner cs = rows.next();
+    Assert.assertEquals("r", cs.getsRow());
+    Iterator<ColumnValue> cols = cs.iterator();
+    for (int i = 0; i < numCols; i++) {
+      Assert.assertEquals(String.format("%07d", i), cols.next().getColumn().getsQualifier());
+      // reading a column must not read the first entry of the next row
+      Assert.assertEquals(i + 1, pulled.get());
+    }
+    Assert.assertFalse(cols.hasNext());
+    Assert.assertEquals(numCols + 1, pulled.get());
+
+    Assert.assertEquals("s", rows.next().getsRow());
+    Assert.assertFalse(rows.hasNext());
+
+    // rows are compared in place, never copied into a Text
+    Assert.assertEquals(0, rowCopies.get());
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.observer.v2;
+
+import java.util.Collections;
+
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.observer.Observer;
+import org.apache.fluo.api.observer.ObserverProvider.Registry.IdentityOption;
+import org.apache.fluo.api.observer.ObserverProvider.Registry.ObserverArgument;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.apache.fluo.api.observer.Observer.NotificationType.WEAK;
+
+public class ObserverRegistryTest {
+
+  private static final Column COL = new Column("f", "q");
+
+  @Test
+  public void testWithIdSignature() throws Exception {
+    // observer providers compiled against 1.1.0 call withId expecting this return type
+    Assert.assertEquals(ObserverArgument.class,
+        IdentityOption.class.getMethod("withId", String.class).getReturnType());
+  }
+
+  @Test
+  public void testSchedulingOptions() {
+    ObserverRegistry registry =
+        new ObserverRegistry(Collections.emptySet(), Collections.singleton(COL));
+    Observer observer = (tx, row, col) -> {
+    };
+
+    registry.forColumn(COL, WEAK).withWeight(3).withMaxConcurrency(2).withId("obs1")
+        .useObserver(observer);
+
+    Assert.assertEquals("obs1", registry.aliases.get(COL));
+    Assert.assertEquals(3, (int) registry.weights.get(COL));
+    Assert.assertEquals(2, (int) registry.maxConcurrency.get(COL));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadWeight() {
+    new ObserverRegistry(Collections.emptySet(), Collections.singleton(COL)).forColumn(COL, WEAK)
+        .withWeight(0);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.oracle;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchWindowTest {
+
+  @Test
+  public void testNoSamples() {
+    BatchWindow bw = new BatchWindow(500_000);
+    Assert.assertEquals(0, bw.getWindowNanos());
+    bw.batchSent(1, 0);
+    bw.responseReceived(1_000_000);
+    // need two batches to know the arrival rate
+    Assert.assertEquals(0, bw.getWindowNanos());
+  }
+
+  @Test
+  public void testDenseArrivals() {
+    BatchWindow bw = new BatchWindow(500_000);
+    bw.batchSent(1, 0);
+    // 100 requests arrived in 1ms
+    bw.batchSent(100, 1_000_000);
+    bw.responseReceived(600_000);
+    Assert.assertEquals(300_000, bw.getWindowNanos());
+
+    bw.responseReceived(10_000_000);
+    Assert.assertEquals(500_000, bw.getWindowNanos());
+  }
+
+  @Test
+  public void testSparseArrivals() {
+    BatchWindow bw = new BatchWindow(500_000);
+    bw.batchSent(1, 0);
+    // one request every 10ms will not benefit from waiting
+    bw.batchSent(1, 10_000_000);
+    bw.responseReceived(1_000_000);
+    Assert.assertEquals(0, bw.getWindowNanos());
+  }
+
+  @Test
+  public void testDisabled() {
+    BatchWindow bw = new BatchWindow(0);
+    bw.batchSent(1, 0);
+    bw.batchSent(100, 1_000_000);
+    bw.responseReceived(1_000_000);
+    Assert.assertEquals(0, bw.getWindowNanos());
+  }
+}
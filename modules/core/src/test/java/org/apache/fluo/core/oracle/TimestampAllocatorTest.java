@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.oracle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampAllocatorTest {
+
+  private static class TestReserver implements TimestampAllocator.BlockReserver {
+    final AtomicLong persistedMax;
+    final AtomicLong calls = new AtomicLong();
+    final AtomicBoolean fail = new AtomicBoolean(false);
+
+    TestReserver(long start) {
+      persistedMax = new AtomicLong(start);
+    }
+
+    @Override
+    public long reserve(long blockSize) throws Exception {
+      if (fail.get()) {
+        throw new IllegalStateException("zookeeper down");
+      }
+      calls.incrementAndGet();
+      return persistedMax.addAndGet(blockSize);
+    }
+  }
+
+  @Test
+  public void testUniqueAndReserved() throws Exception {
+    TestReserver reserver = new TestReserver(100);
+    ExecutorService bgService = Executors.newSingleThreadExecutor();
+    ExecutorService clients = Executors.newFixedThreadPool(8);
+    TimestampAllocator allocator =
+        new TimestampAllocator(100, reserver, bgService, 10, 1000, 1, TimeUnit.MILLISECONDS);
+
+    try {
+      List<Future<List<long[]>>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(clients.submit(() -> {
+          List<long[]> ranges = new ArrayList<>();
+          for (int i = 0; i < 1000; i++) {
+            int num = 1 + i % 7;
+            long start = allocator.allocate(num);
+            // every timestamp handed out must have been persisted first
+            Assert.assertTrue(start + num <= reserver.persistedMax.get());
+            ranges.add(new long[] {start, start + num});
+          }
+          return ranges;
+        }));
+      }
+
+      List<long[]> all = new ArrayList<>();
+      for (Future<List<long[]>> future : futures) {
+        all.addAll(future.get());
+      }
+
+      all.sort((r1, r2) -> Long.compare(r1[0], r2[0]));
+      Assert.assertEquals(100, all.get(0)[0]);
+      for (int i = 1; i < all.size(); i++) {
+        Assert.assertTrue(all.get(i - 1)[1] <= all.get(i)[0]);
+      }
+    } finally {
+      clients.shutdownNow();
+      bgService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testBlockSizeGrows() throws Exception {
+    TestReserver reserver = new TestReserver(0);
+    TimestampAllocator allocator =
+        new TimestampAllocator(0, reserver, Runnable::run, 10, 5000, 1, TimeUnit.HOURS);
+
+    Assert.assertEquals(10, allocator.getBlockSize());
+
+    for (int i = 0; i < 100; i++) {
+      allocator.allocate(5);
+    }
+
+    // any rate over the last few milliseconds would exhaust a block in less than an hour
+    Assert.assertEquals(5000, allocator.getBlockSize());
+    Assert.assertTrue(reserver.calls.get() < 10);
+  }
+
+  @Test
+  public void testPrefetch() throws Exception {
+    TestReserver reserver = new TestReserver(0);
+    TimestampAllocator allocator =
+        new TimestampAllocator(0, reserver, Runnable::run, 100, 100, 1, TimeUnit.SECONDS);
+
+    Assert.assertEquals(0, allocator.allocate(10));
+    Assert.assertEquals(100, allocator.getMax());
+    Assert.assertEquals(1, reserver.calls.get());
+
+    // passing the low water mark should reserve the next block before this one runs out
+    Assert.assertEquals(10, allocator.allocate(45));
+    Assert.assertEquals(200, allocator.getMax());
+    Assert.assertEquals(2, reserver.calls.get());
+  }
+
+  @Test
+  public void testReserveFailure() throws Exception {
+    TestReserver reserver = new TestReserver(0);
+    TimestampAllocator allocator =
+        new TimestampAllocator(0, reserver, Runnable::run, 100, 100, 1, TimeUnit.SECONDS);
+
+    reserver.fail.set(true);
+    try {
+      allocator.allocate(10);
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    reserver.fail.set(false);
+    Assert.assertEquals(10, allocator.allocate(10));
+    Assert.assertEquals(100, allocator.getMax());
+  }
+
+  @Test
+  public void testRequestLargerThanBlock() throws Exception {
+    TestReserver reserver = new TestReserver(0);
+    TimestampAllocator allocator =
+        new TimestampAllocator(0, reserver, Runnable::run, 10, 10, 1, TimeUnit.SECONDS);
+
+    Assert.assertEquals(0, allocator.allocate(25));
+    Assert.assertTrue(allocator.getMax() >= 25);
+    Assert.assertEquals(25, allocator.allocate(1));
+  }
+}
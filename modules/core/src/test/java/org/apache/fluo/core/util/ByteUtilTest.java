@@ -15,6 +15,8 @@
 
 package org.apache.fluo.core.util;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.apache.accumulo.core.data.ArrayByteSequence;
@@ -48,6 +50,26 @@ public class ByteUtilTest {
     Assert.assertEquals(bs2, ByteUtil.toByteSequence(b2));
   }
 
+  @Test
+  public void testWrap() {
+    byte[] data = "test3".getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(Bytes.of("test3"), ByteUtil.wrap(data, 0, data.length));
+    Assert.assertEquals(Bytes.of("es"), ByteUtil.wrap(new ArrayByteSequence(data, 1, 2)));
+    Assert.assertSame(Bytes.EMPTY, ByteUtil.wrap(new byte[0], 0, 0));
+
+    // the byte buffer view spans the whole backing array, showing that it was not copied
+    ByteBuffer bb = ByteUtil.wrap(new ArrayByteSequence(data, 1, 2)).toByteBuffer();
+    Assert.assertEquals(data.length, bb.capacity());
+    Assert.assertEquals(1, bb.position());
+    Assert.assertEquals(2,
+        ByteUtil.toBytes(new ArrayByteSequence(data, 1, 2)).toByteBuffer().capacity());
+
+    // a small slice of a large array is copied, so it does not keep the whole array in memory
+    byte[] large = new byte[1000];
+    Assert.assertEquals(10, ByteUtil.wrap(large, 5, 10).toByteBuffer().capacity());
+    Assert.assertEquals(1000, ByteUtil.wrap(large).toByteBuffer().capacity());
+  }
+
   @Test
   public void testConcatSplit() {
 
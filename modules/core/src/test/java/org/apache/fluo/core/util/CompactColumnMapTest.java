@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.fluo.api.data.Column;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactColumnMapTest {
+
+  @Test
+  public void testBasic() {
+    Map<Column, String> map = new CompactColumnMap<>();
+    Assert.assertTrue(map.isEmpty());
+
+    Assert.assertNull(map.put(new Column("f1", "q1"), "v1"));
+    Assert.assertNull(map.put(new Column("f1", "q2"), "v2"));
+    Assert.assertEquals("v1", map.put(new Column("f1", "q1"), "v3"));
+
+    Assert.assertEquals(2, map.size());
+    Assert.assertEquals("v3", map.get(new Column("f1", "q1")));
+    Assert.assertTrue(map.containsKey(new Column("f1", "q2")));
+    Assert.assertFalse(map.containsKey(new Column("f1", "q3")));
+    Assert.assertFalse(map.containsKey("f1"));
+
+    Assert.assertEquals("v2", map.remove(new Column("f1", "q2")));
+    Assert.assertNull(map.remove(new Column("f1", "q2")));
+    Assert.assertEquals(1, map.size());
+
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    Map<Column, Integer> map = new CompactColumnMap<>();
+    for (int i = 0; i < 6; i++) {
+      map.put(new Column("f", "q" + i), i);
+    }
+
+    Iterator<Entry<Column, Integer>> iter = map.entrySet().iterator();
+    while (iter.hasNext()) {
+      if (iter.next().getValue() % 2 == 0) {
+        iter.remove();
+      }
+    }
+
+    Assert.assertEquals(3, map.size());
+    for (int i = 0; i < 6; i++) {
+      Assert.assertEquals(i % 2 == 1, map.containsKey(new Column("f", "q" + i)));
+    }
+  }
+
+  @Test
+  public void testManyColumns() {
+    Map<Column, Integer> map = new CompactColumnMap<>();
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertNull(map.put(new Column("f", "q" + i), i));
+    }
+    Assert.assertEquals(1000, map.size());
+
+    // removes while iterating the hash table
+    Iterator<Entry<Column, Integer>> iter = map.entrySet().iterator();
+    int seen = 0;
+    while (iter.hasNext()) {
+      seen++;
+      if (iter.next().getValue() % 3 != 0) {
+        iter.remove();
+      }
+    }
+    Assert.assertEquals(1000, seen);
+    Assert.assertEquals(334, map.size());
+
+    // removed slots are reused or dropped when the table is rebuilt
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(i % 3 == 0 ? (Integer) i : null, map.put(new Column("f", "q" + i), -i));
+    }
+    Assert.assertEquals(1000, map.size());
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(-i, (int) map.get(new Column("f", "q" + i)));
+    }
+  }
+
+  @Test
+  public void testRandom() {
+    Random rand = new Random(42);
+
+    for (int t = 0; t < 100; t++) {
+      Map<Column, Integer> expected = new HashMap<>();
+      Map<Column, Integer> actual = new CompactColumnMap<>();
+      int numCols = rand.nextInt(20 * CompactColumnMap.MAX_ARRAY_SIZE) + 1;
+
+      for (int i = 0; i < 1000; i++) {
+        Column col = new Column("f", "q" + rand.nextInt(numCols));
+        if (rand.nextInt(4) == 0) {
+          Assert.assertEquals(expected.remove(col), actual.remove(col));
+        } else {
+          Assert.assertEquals(expected.put(col, i), actual.put(col, i));
+        }
+        Assert.assertEquals(expected.size(), actual.size());
+      }
+
+      Assert.assertEquals(expected, actual);
+      Assert.assertEquals(actual, expected);
+    }
+  }
+
+  @Test
+  public void testSet() {
+    Set<Column> set = CompactColumnMap.newSet();
+    Assert.assertTrue(set.add(new Column("f", "q")));
+    Assert.assertFalse(set.add(new Column("f", "q")));
+    Assert.assertTrue(set.contains(new Column("f", "q")));
+    Assert.assertEquals(1, set.size());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LimitTest {
+
+  @Test
+  public void testOverLimit() throws Exception {
+    Limit limit = new Limit(100);
+
+    limit.acquire(60);
+    // can go over the limit when under it
+    limit.acquire(60);
+    Assert.assertEquals(120, limit.leased());
+
+    Thread t = new Thread(() -> limit.acquire(10));
+    t.start();
+    t.join(100);
+    Assert.assertTrue(t.isAlive());
+
+    limit.release(60);
+    t.join(5000);
+    Assert.assertFalse(t.isAlive());
+    Assert.assertEquals(70, limit.leased());
+
+    limit.release(70);
+    Assert.assertEquals(0, limit.leased());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReleaseTooMuch() {
+    Limit limit = new Limit(100);
+    limit.acquire(10);
+    limit.release(11);
+  }
+
+  @Test
+  public void testConcurrent() throws Exception {
+    Limit limit = new Limit(1000);
+    AtomicLong maxSeen = new AtomicLong(0);
+    ExecutorService es = Executors.newFixedThreadPool(16);
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int i = 0; i < 16; i++) {
+      futures.add(es.submit(() -> {
+        for (int j = 0; j < 1000; j++) {
+          limit.acquire(100);
+          maxSeen.accumulateAndGet(limit.leased(), Math::max);
+          limit.release(100);
+        }
+      }));
+    }
+
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    es.shutdown();
+
+    Assert.assertEquals(0, limit.leased());
+    // at most one acquire can push leased past the limit
+    Assert.assertTrue(maxSeen.get() <= 1100);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongHashSetTest {
+
+  @Test
+  public void testBasic() {
+    LongHashSet set = new LongHashSet();
+    Assert.assertTrue(set.isEmpty());
+
+    Assert.assertTrue(set.add(5));
+    Assert.assertTrue(set.add(0));
+    Assert.assertTrue(set.add(-5));
+    Assert.assertFalse(set.add(5));
+    Assert.assertFalse(set.add(0));
+
+    Assert.assertEquals(3, set.size());
+    Assert.assertTrue(set.contains(5));
+    Assert.assertTrue(set.contains(0));
+    Assert.assertTrue(set.contains(-5));
+    Assert.assertFalse(set.contains(6));
+
+    set.clear();
+    Assert.assertTrue(set.isEmpty());
+    Assert.assertFalse(set.contains(5));
+    Assert.assertFalse(set.contains(0));
+  }
+
+  @Test
+  public void testRandom() {
+    Random rand = new Random(42);
+    LongHashSet set = new LongHashSet(4);
+    Set<Long> expected = new HashSet<>();
+
+    for (int i = 0; i < 10_000; i++) {
+      long l = rand.nextInt(20_000) - 10_000L;
+      Assert.assertEquals(expected.add(l), set.add(l));
+    }
+
+    Assert.assertEquals(expected.size(), set.size());
+    for (long l = -10_000; l < 10_000; l++) {
+      Assert.assertEquals(expected.contains(l), set.contains(l));
+    }
+  }
+}
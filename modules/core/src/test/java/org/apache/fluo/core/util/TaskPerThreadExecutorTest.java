@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TaskPerThreadExecutorTest {
+
+  @Test
+  public void testMaxRunning() throws Exception {
+    TaskPerThreadExecutor executor = new TaskPerThreadExecutor(new LinkedBlockingQueue<>(), 3,
+        new FluoThreadFactory("test"), "test");
+
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    AtomicInteger finished = new AtomicInteger();
+
+    for (int i = 0; i < 10; i++) {
+      executor.execute(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        running.decrementAndGet();
+        finished.incrementAndGet();
+      });
+    }
+
+    while (executor.getRunning() < 3) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(100);
+    Assert.assertEquals(3, executor.getRunning());
+
+    release.countDown();
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertTrue(executor.isTerminated());
+    Assert.assertEquals(10, finished.get());
+    Assert.assertEquals(3, maxRunning.get());
+  }
+
+  @Test
+  public void testShutdownNow() throws Exception {
+    TaskPerThreadExecutor executor = new TaskPerThreadExecutor(new LinkedBlockingQueue<>(), 1,
+        new FluoThreadFactory("test"), "test");
+
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicInteger interrupted = new AtomicInteger();
+    executor.execute(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(60000);
+      } catch (InterruptedException e) {
+        interrupted.incrementAndGet();
+      }
+    });
+    executor.execute(() -> {
+    });
+
+    started.await();
+    Assert.assertEquals(1, executor.shutdownNow().size());
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertEquals(1, interrupted.get());
+
+    try {
+      executor.execute(() -> {
+      });
+      Assert.fail();
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testShutdownNowWhileDispatching() throws Exception {
+    ThreadFactory threadFactory = new FluoThreadFactory("test");
+    AtomicInteger created = new AtomicInteger();
+    CountDownLatch dispatching = new CountDownLatch(1);
+
+    // blocks the dispatcher after it took the second task from the queue, until shutdownNow
+    // interrupts it
+    ThreadFactory blockingFactory = r -> {
+      if (created.incrementAndGet() == 2) {
+        dispatching.countDown();
+        try {
+          Thread.sleep(60000);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return threadFactory.newThread(r);
+    };
+
+    TaskPerThreadExecutor executor =
+        new TaskPerThreadExecutor(new LinkedBlockingQueue<>(), 2, blockingFactory, "test");
+
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        // expected
+      }
+    });
+    Runnable second = () -> {
+    };
+    Runnable third = () -> {
+    };
+    executor.execute(second);
+    executor.execute(third);
+
+    dispatching.await();
+    List<Runnable> notRun = executor.shutdownNow();
+    Assert.assertEquals(Arrays.asList(second, third), notRun);
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertEquals(2, created.get());
+  }
+
+  @Test
+  public void testVirtualThreadFactory() throws Exception {
+    // only supported on newer JDKs, but should never fail
+    if (FluoExecutors.newVirtualThreadFactory("test") == null) {
+      return;
+    }
+    TaskPerThreadExecutor executor = new TaskPerThreadExecutor(new LinkedBlockingQueue<>(), 1000,
+        FluoExecutors.newVirtualThreadFactory("test"), "test");
+    AtomicInteger count = new AtomicInteger();
+    for (int i = 0; i < 10000; i++) {
+      executor.execute(count::incrementAndGet);
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertEquals(10000, count.get());
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FairObserverQueueTest {
+
+  private static class TestTask implements FairObserverQueue.ObserverTask, Comparable<TestTask> {
+    final String observerId;
+    final int seq;
+
+    TestTask(String observerId, int seq) {
+      this.observerId = observerId;
+      this.seq = seq;
+    }
+
+    @Override
+    public String getObserverId() {
+      return observerId;
+    }
+
+    @Override
+    public long getCreationTime() {
+      return System.nanoTime();
+    }
+
+    @Override
+    public void run() {}
+
+    @Override
+    public int compareTo(TestTask o) {
+      return Integer.compare(seq, o.seq);
+    }
+  }
+
+  private static FairObserverQueue.ObserverSettings settings(int weight, int maxConcurrency) {
+    return new FairObserverQueue.ObserverSettings() {
+      @Override
+      public int getWeight() {
+        return weight;
+      }
+
+      @Override
+      public int getMaxConcurrency() {
+        return maxConcurrency;
+      }
+
+      @Override
+      public void queueWait(long nanos) {}
+    };
+  }
+
+  private static FairObserverQueue newQueue(Map<String, FairObserverQueue.ObserverSettings> sm) {
+    return new FairObserverQueue(
+        task -> sm.getOrDefault(task.getObserverId(), settings(1, Integer.MAX_VALUE)));
+  }
+
+  private static Map<String, Integer> takeCounts(FairObserverQueue queue, int num) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < num; i++) {
+      TestTask task = (TestTask) queue.poll();
+      counts.merge(task.observerId, 1, Integer::sum);
+      queue.taskFinished(task.observerId);
+    }
+    return counts;
+  }
+
+  @Test
+  public void testFairness() {
+    FairObserverQueue queue = newQueue(new HashMap<>());
+
+    // a large backlog for one observer queued before a few notifications for another
+    for (int i = 0; i < 1000; i++) {
+      queue.offer(new TestTask("big", i));
+    }
+    for (int i = 0; i < 10; i++) {
+      queue.offer(new TestTask("small", i));
+    }
+
+    Assert.assertEquals(1010, queue.size());
+    Assert.assertEquals(10, queue.size("small"));
+
+    Map<String, Integer> counts = takeCounts(queue, 20);
+    Assert.assertEquals(10, (int) counts.get("big"));
+    Assert.assertEquals(10, (int) counts.get("small"));
+    Assert.assertEquals(990, queue.size());
+  }
+
+  @Test
+  public void testWeights() {
+    Map<String, FairObserverQueue.ObserverSettings> sm = new HashMap<>();
+    sm.put("heavy", settings(3, Integer.MAX_VALUE));
+    FairObserverQueue queue = newQueue(sm);
+
+    for (int i = 0; i < 100; i++) {
+      queue.offer(new TestTask("heavy", i));
+      queue.offer(new TestTask("light", i));
+    }
+
+    Map<String, Integer> counts = takeCounts(queue, 40);
+    Assert.assertEquals(30, (int) counts.get("heavy"));
+    Assert.assertEquals(10, (int) counts.get("light"));
+  }
+
+  @Test
+  public void testOrderWithinObserver() {
+    FairObserverQueue queue = newQueue(new HashMap<>());
+    queue.offer(new TestTask("o1", 3));
+    queue.offer(new TestTask("o1", 1));
+    queue.offer(new TestTask("o1", 2));
+
+    for (int i = 1; i <= 3; i++) {
+      Assert.assertEquals(i, ((TestTask) queue.poll()).seq);
+    }
+    Assert.assertNull(queue.poll());
+  }
+
+  @Test
+  public void testIdleObserverGainsNoCredit() {
+    FairObserverQueue queue = newQueue(new HashMap<>());
+
+    queue.offer(new TestTask("o1", 0));
+    takeCounts(queue, 1);
+
+    // o2 runs alone for a while, o1 should not be able to monopolize the queue when it returns
+    for (int i = 0; i < 100; i++) {
+      queue.offer(new TestTask("o2", i));
+    }
+    takeCounts(queue, 50);
+    for (int i = 0; i < 100; i++) {
+      queue.offer(new TestTask("o1", i));
+    }
+
+    Map<String, Integer> counts = takeCounts(queue, 20);
+    Assert.assertTrue(counts.toString(), Math.abs(counts.get("o1") - counts.get("o2")) <= 2);
+  }
+
+  @Test
+  public void testMaxConcurrency() throws Exception {
+    Map<String, FairObserverQueue.ObserverSettings> sm = new HashMap<>();
+    sm.put("limited", settings(1, 2));
+    FairObserverQueue queue = newQueue(sm);
+
+    for (int i = 0; i < 5; i++) {
+      queue.offer(new TestTask("limited", i));
+    }
+
+    Assert.assertNotNull(queue.poll());
+    Assert.assertNotNull(queue.poll());
+    // the observer has two tasks running, so nothing else can be taken even though tasks are
+    // queued
+    Assert.assertNull(queue.poll());
+    Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    Assert.assertEquals(3, queue.size());
+
+    queue.offer(new TestTask("other", 0));
+    Assert.assertEquals("other", ((TestTask) queue.poll()).observerId);
+
+    queue.taskFinished("limited");
+    Assert.assertEquals("limited", ((TestTask) queue.take()).observerId);
+    Assert.assertNull(queue.poll());
+  }
+
+  @Test
+  public void testRemoveAndDrain() {
+    FairObserverQueue queue = newQueue(new HashMap<>());
+    TestTask t1 = new TestTask("o1", 1);
+    TestTask t2 = new TestTask("o2", 1);
+    queue.offer(t1);
+    queue.offer(t2);
+    queue.offer(new TestTask("o2", 2));
+
+    Assert.assertTrue(queue.remove(t2));
+    Assert.assertFalse(queue.remove(t2));
+    Assert.assertEquals(2, queue.size());
+
+    queue.removeIf(r -> r == t1);
+    Assert.assertEquals(1, queue.size());
+
+    List<Runnable> drained = new ArrayList<>();
+    Assert.assertEquals(1, queue.drainTo(drained));
+    Assert.assertEquals(0, queue.size());
+    Assert.assertNull(queue.poll());
+  }
+}
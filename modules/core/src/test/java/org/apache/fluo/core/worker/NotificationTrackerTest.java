@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+
+import com.codahale.metrics.Meter;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumn;
+import org.apache.fluo.core.impl.Notification;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NotificationTrackerTest {
+
+  private static final Column COL = new Column("f", "q");
+
+  private final Meter rejected = new Meter();
+  private final Meter coalesced = new Meter();
+  // the notifications that the tracker created rerun tasks for
+  private final List<Notification> reruns = new ArrayList<>();
+
+  private NotificationTracker newTracker() {
+    return new NotificationTracker(1 << 20, (finder, n) -> {
+      reruns.add(n);
+      return newTask();
+    }, new Meter(), rejected, coalesced);
+  }
+
+  private static FutureTask<?> newTask() {
+    return new FutureTask<>(() -> {
+    }, null);
+  }
+
+  private static Notification newNotification(String row, long ts) {
+    return new Notification(Bytes.of(row), COL, ts);
+  }
+
+  private static boolean add(NotificationTracker tracker, NotificationTracker.Deletions session,
+      Notification notification) {
+    return add(tracker, session, notification, newTask());
+  }
+
+  private static boolean add(NotificationTracker tracker, NotificationTracker.Deletions session,
+      Notification notification, FutureTask<?> task) {
+    return tracker.add(session, null, notification, () -> task, () -> {
+    });
+  }
+
+  @Test
+  public void testOverlappingSessions() {
+    NotificationTracker tracker = newTracker();
+    Notification n1 = newNotification("r1", 5);
+    RowColumn rc1 = n1.getRowColumn();
+
+    NotificationTracker.Deletions scan1 = tracker.beginAddingNotifications(rc -> true);
+    NotificationTracker.Deletions push = tracker.beginAddingNotifications(rc -> true);
+    NotificationTracker.Deletions other =
+        tracker.beginAddingNotifications(rc -> rc.getRow().toString().equals("r2"));
+
+    Assert.assertTrue(add(tracker, scan1, n1));
+    Assert.assertNull(tracker.processed(rc1));
+
+    // the scan may have read the notification before it was deleted, so it can not add it again
+    Assert.assertFalse(add(tracker, scan1, newNotification("r1", 5)));
+    Assert.assertEquals(1, scan1.size());
+    Assert.assertEquals(1, push.size());
+    Assert.assertEquals(0, other.size());
+
+    // the next scan of the same tablet starts while the push session is still open
+    tracker.finishAddingNotifications(scan1);
+    NotificationTracker.Deletions scan2 = tracker.beginAddingNotifications(rc -> true);
+    Assert.assertTrue(add(tracker, scan2, newNotification("r1", 7)));
+    Assert.assertEquals(0, scan2.size());
+
+    // a session whose predicate does not match never remembers the deletion
+    Assert.assertNull(tracker.processed(rc1));
+    Assert.assertEquals(1, scan2.size());
+    Assert.assertTrue(add(tracker, other, newNotification("r1", 9)));
+    Assert.assertNull(tracker.processed(rc1));
+
+    tracker.finishAddingNotifications(push);
+    tracker.finishAddingNotifications(scan2);
+    tracker.finishAddingNotifications(other);
+
+    NotificationTracker.Deletions scan3 = tracker.beginAddingNotifications(rc -> true);
+    Assert.assertTrue(add(tracker, scan3, newNotification("r1", 11)));
+    Assert.assertEquals(0, scan3.size());
+    tracker.finishAddingNotifications(scan3);
+    Assert.assertNull(tracker.processed(rc1));
+    Assert.assertEquals(0, tracker.getMemoryUsed());
+  }
+
+  @Test
+  public void testRerunAfterProcessed() {
+    NotificationTracker tracker = newTracker();
+    NotificationTracker.Deletions session = tracker.beginAddingNotifications(rc -> true);
+    RowColumn rc = new RowColumn("r1", COL);
+    FutureTask<?> task = newTask();
+
+    Assert.assertTrue(add(tracker, session, newNotification("r1", 5), task));
+    // newer notifications that arrive while the first is tracked collapse into one rerun
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 7)));
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 9)));
+    // older ones are dropped
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 8)));
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 5)));
+    Assert.assertEquals(2, coalesced.getCount());
+    Assert.assertEquals(2, rejected.getCount());
+    Assert.assertEquals(9, reruns.get(reruns.size() - 1).getTimestamp());
+
+    FutureTask<?> rerun = tracker.processed(rc);
+    Assert.assertNotNull(rerun);
+    Assert.assertNotSame(task, rerun);
+    Assert.assertTrue(tracker.getMemoryUsed() > 0);
+
+    // the rerun is now the tracked task, so a notification as new as it is dropped
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 9)));
+    Assert.assertEquals(3, rejected.getCount());
+
+    Assert.assertNull(tracker.processed(rc));
+    Assert.assertEquals(0, tracker.getMemoryUsed());
+    tracker.finishAddingNotifications(session);
+  }
+
+  @Test
+  public void testRerunReplacesRequeue() {
+    NotificationTracker tracker = newTracker();
+    NotificationTracker.Deletions session = tracker.beginAddingNotifications(rc -> false);
+    RowColumn rc = new RowColumn("r1", COL);
+
+    Assert.assertTrue(add(tracker, session, newNotification("r1", 5)));
+
+    // without a newer notification the requeued task replaces the tracked one
+    FutureTask<?> requeued = newTask();
+    Assert.assertSame(requeued, tracker.requeue(rc, requeued));
+    Assert.assertSame(requeued, tracker.startDebounced(rc, requeued));
+
+    // a newer notification runs instead of processing the old one again
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 7)));
+    FutureTask<?> rerun = tracker.requeue(rc, newTask());
+    Assert.assertNotNull(rerun);
+    Assert.assertNotSame(requeued, rerun);
+    Assert.assertEquals(7, reruns.get(0).getTimestamp());
+
+    Assert.assertNull(tracker.processed(rc));
+    // nothing is requeued once the notification is no longer tracked
+    Assert.assertNull(tracker.requeue(rc, newTask()));
+    Assert.assertEquals(0, tracker.getMemoryUsed());
+    tracker.finishAddingNotifications(session);
+  }
+
+  @Test
+  public void testDebounceSupersededByNewer() {
+    NotificationTracker tracker = newTracker();
+    NotificationTracker.Deletions session = tracker.beginAddingNotifications(rc -> false);
+    RowColumn rc = new RowColumn("r1", COL);
+    FutureTask<?> debounced = newTask();
+
+    Assert.assertTrue(add(tracker, session, newNotification("r1", 5), debounced));
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 8)));
+
+    // once the wait is over the newest notification runs instead
+    FutureTask<?> newest = tracker.startDebounced(rc, debounced);
+    Assert.assertNotNull(newest);
+    Assert.assertNotSame(debounced, newest);
+
+    // a second callback for the replaced task does nothing
+    Assert.assertNull(tracker.startDebounced(rc, debounced));
+
+    Assert.assertNull(tracker.processed(rc));
+    Assert.assertNull(tracker.startDebounced(rc, newest));
+    Assert.assertEquals(0, tracker.getMemoryUsed());
+    tracker.finishAddingNotifications(session);
+  }
+
+  @Test
+  public void testClearDuringDebounce() {
+    NotificationTracker tracker = newTracker();
+    NotificationTracker.Deletions session = tracker.beginAddingNotifications(rc -> false);
+    RowColumn rc = new RowColumn("r1", COL);
+    FutureTask<?> debounced = newTask();
+
+    Assert.assertTrue(add(tracker, session, newNotification("r1", 5), debounced));
+    tracker.clear();
+    Assert.assertTrue(debounced.isCancelled());
+    Assert.assertEquals(0, tracker.getMemoryUsed());
+
+    // the notification is found again and starts its own wait
+    FutureTask<?> debounced2 = newTask();
+    Assert.assertTrue(add(tracker, session, newNotification("r1", 6), debounced2));
+    Assert.assertFalse(add(tracker, session, newNotification("r1", 9)));
+
+    // the callback of the cleared wait must not take the rerun of the new entry
+    Assert.assertNull(tracker.startDebounced(rc, debounced));
+    FutureTask<?> newest = tracker.startDebounced(rc, debounced2);
+    Assert.assertNotNull(newest);
+    Assert.assertNotSame(debounced2, newest);
+
+    Assert.assertNull(tracker.processed(rc));
+    Assert.assertEquals(0, tracker.getMemoryUsed());
+    tracker.finishAddingNotifications(session);
+  }
+}
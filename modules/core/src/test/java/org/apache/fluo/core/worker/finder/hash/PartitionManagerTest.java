@@ -16,9 +16,11 @@
 package org.apache.fluo.core.worker.finder.hash;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IntSummaryStatistics;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -98,4 +100,63 @@ public class PartitionManagerTest {
       }
     }
   }
+
+  @Test
+  public void testLoadAwareGrouping() {
+    IntFunction<String> nff = i -> String.format("f-%04d", i);
+    int numWorkers = 12;
+    int groupSize = 3;
+
+    TreeSet<String> children = new TreeSet<>();
+    IntStream.range(0, numWorkers).mapToObj(nff).forEach(children::add);
+
+    List<Bytes> rows = IntStream.range(0, 99).mapToObj(i -> String.format("r%06d", i))
+        .map(Bytes::of).collect(toList());
+    List<TableRange> tablets = TableRange.fromBytes(rows);
+
+    // a few hot tablets, including the last one which has no end row
+    Map<Bytes, Long> loads = new HashMap<>();
+    loads.put(rows.get(3), 10000L);
+    loads.put(rows.get(4), 9000L);
+    loads.put(rows.get(5), 8000L);
+    loads.put(null, 7000L);
+    loads.put(rows.get(50), 100L);
+
+    loads = SerializedLoads.deserialize(SerializedLoads.serialize(loads));
+    Assert.assertEquals(7000L, (long) loads.get(null));
+
+    SerializedLoads.Weights weights =
+        SerializedLoads.deserializeWeights(SerializedLoads.serializeWeights(123456789L, loads));
+    Assert.assertEquals(123456789L, weights.getRebalanceTime());
+    Assert.assertEquals(loads, weights.getLoads());
+
+    List<List<TableRange>> even =
+        PartitionManager.assignTablets(tablets, 4, Collections.emptyMap());
+    List<List<TableRange>> balanced = PartitionManager.assignTablets(tablets, 4, loads);
+    Assert.assertTrue(PartitionManager.getImbalance(balanced, loads) < 1.2);
+    Assert.assertTrue(PartitionManager.getImbalance(balanced, loads) <= PartitionManager
+        .getImbalance(even, loads));
+
+    // every worker must compute the same disjoint assignment
+    Map<Integer, RangeSet> groupTablets = new HashMap<>();
+    for (int i = 0; i < numWorkers; i++) {
+      PartitionInfo pi =
+          PartitionManager.getGroupInfo(nff.apply(i), children, tablets, groupSize, loads);
+      RangeSet prev = groupTablets.putIfAbsent(pi.getMyGroupId(), pi.getMyGroupsRanges());
+      if (prev != null) {
+        Assert.assertEquals(prev, pi.getMyGroupsRanges());
+      }
+    }
+
+    HashSet<TableRange> allTabletsFromGroups = new HashSet<>();
+    for (RangeSet tabletSet : groupTablets.values()) {
+      tabletSet.forEach(tr -> Assert.assertTrue(allTabletsFromGroups.add(tr)));
+    }
+    Assert.assertEquals(new HashSet<>(tablets), allTabletsFromGroups);
+
+    // tablets without load are still spread over the groups
+    IntSummaryStatistics summaryStats =
+        groupTablets.values().stream().mapToInt(RangeSet::size).summaryStatistics();
+    Assert.assertTrue(summaryStats.getMin() > 15);
+  }
 }
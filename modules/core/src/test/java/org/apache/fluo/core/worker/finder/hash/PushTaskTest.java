@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker.finder.hash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.core.impl.Notification;
+import org.apache.fluo.core.impl.NotificationBus;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PushTaskTest {
+
+  private static final Column COL = new Column("f", "q");
+
+  private static Notification newNotification(int row) {
+    return new Notification(Bytes.of("r" + row), COL, 5);
+  }
+
+  private static List<Notification> newNotifications(int... rows) {
+    List<Notification> notifications = new ArrayList<>();
+    for (int row : rows) {
+      notifications.add(newNotification(row));
+    }
+    return notifications;
+  }
+
+  private static void stop(AtomicBoolean stopped, Thread thread) throws InterruptedException {
+    stopped.set(true);
+    thread.interrupt();
+    thread.join();
+  }
+
+  @Test
+  public void testOwnedNotificationsAreProcessed() throws Exception {
+    AtomicBoolean stopped = new AtomicBoolean(false);
+    BlockingQueue<Notification> processed = new LinkedBlockingQueue<>();
+
+    // this worker only owns the even rows
+    PushTask pushTask = new PushTask("testOwned", n -> n.getRow().toString().matches("r[02468]"),
+        processed::addAll, stopped, 100);
+    Thread thread = new Thread(pushTask);
+    thread.start();
+
+    pushTask.accept(newNotifications(0, 1, 2, 3));
+    pushTask.accept(newNotifications(4, 5));
+
+    List<String> actual = new ArrayList<>();
+    while (actual.size() < 3) {
+      Notification n = processed.poll(30, TimeUnit.SECONDS);
+      Assert.assertNotNull(n);
+      actual.add(n.getRow().toString());
+    }
+
+    stop(stopped, thread);
+
+    Assert.assertEquals(Arrays.asList("r0", "r2", "r4"), actual);
+    Assert.assertTrue(processed.isEmpty());
+  }
+
+  @Test
+  public void testDropWhenFull() throws Exception {
+    AtomicBoolean stopped = new AtomicBoolean(false);
+    BlockingQueue<Notification> processed = new LinkedBlockingQueue<>();
+
+    PushTask pushTask = new PushTask("testDrop", n -> true, processed::addAll, stopped, 3);
+
+    // nothing is taking from the queue yet, so only the first three fit
+    pushTask.accept(newNotifications(0, 1, 2, 3, 4));
+    pushTask.accept(newNotifications(5));
+
+    Thread thread = new Thread(pushTask);
+    thread.start();
+
+    List<String> actual = new ArrayList<>();
+    while (actual.size() < 3) {
+      Notification n = processed.poll(30, TimeUnit.SECONDS);
+      Assert.assertNotNull(n);
+      actual.add(n.getRow().toString());
+    }
+
+    stop(stopped, thread);
+
+    Assert.assertEquals(Arrays.asList("r0", "r1", "r2"), actual);
+    Assert.assertTrue(processed.isEmpty());
+  }
+
+  @Test
+  public void testUnsubscribeOnStop() throws Exception {
+    String appId = "testUnsubscribe";
+    AtomicBoolean stopped = new AtomicBoolean(false);
+
+    PushTask pushTask = new PushTask(appId, n -> true, notifications -> {
+    }, stopped, 10);
+    Thread thread = new Thread(pushTask);
+
+    Assert.assertFalse(NotificationBus.hasSubscribers(appId));
+    thread.start();
+    while (!NotificationBus.hasSubscribers(appId)) {
+      Thread.sleep(10);
+    }
+
+    stop(stopped, thread);
+    Assert.assertFalse(NotificationBus.hasSubscribers(appId));
+  }
+}
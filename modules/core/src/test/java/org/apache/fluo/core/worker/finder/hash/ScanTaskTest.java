@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.core.worker.finder.hash;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.fluo.api.data.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScanTaskTest {
+
+  private static TableRange newRange(String per, String er) {
+    return new TableRange(per == null ? null : Bytes.of(per), er == null ? null : Bytes.of(er));
+  }
+
+  @Test
+  public void testDueTabletOrder() {
+    TableRange t1 = newRange(null, "c");
+    TableRange t2 = newRange("c", "f");
+    TableRange t3 = newRange("f", "m");
+    TableRange t4 = newRange("m", null);
+    List<TableRange> ranges = Arrays.asList(t1, t2, t3, t4);
+
+    Map<TableRange, TabletData> rangeData = new HashMap<>();
+    ranges.forEach(tr -> rangeData.put(tr, new TabletData()));
+
+    // no history, so the given order is kept
+    Assert.assertEquals(ranges,
+        ScanTask.getDueTablets(ranges, rangeData, Collections.emptySet(), 1000));
+
+    rangeData.get(t3).updateScanCount(8, 1000, 10, 60000);
+    rangeData.get(t2).updateScanCount(2, 1000, 10, 60000);
+    rangeData.get(t1).updateScanCount(0, 1000, 10, 60000);
+    rangeData.get(t4).updateScanCount(0, 1000, 10, 60000);
+
+    // nothing is due until the min sleep has passed
+    Assert.assertEquals(Collections.emptyList(),
+        ScanTask.getDueTablets(ranges, rangeData, Collections.emptySet(), 1009));
+
+    // hottest tablets first, tablets without hits keep their order
+    Assert.assertEquals(Arrays.asList(t3, t2, t1, t4),
+        ScanTask.getDueTablets(ranges, rangeData, Collections.emptySet(), 1010));
+
+    // tablets being scanned are never due
+    Assert.assertEquals(Arrays.asList(t2, t1, t4),
+        ScanTask.getDueTablets(ranges, rangeData, Collections.singleton(t3), 1010));
+  }
+
+  @Test
+  public void testRetryTimes() {
+    TabletData td = new TabletData();
+
+    // a tablet with notifications is retried after the min sleep
+    td.updateScanCount(5, 1000, 10, 60000);
+    Assert.assertEquals(1010, td.retryTime);
+    Assert.assertEquals(2.5, td.hitRate, 0.0);
+
+    // the first empty scan also waits the min sleep, later ones back off further each time
+    td.updateScanCount(0, 2000, 10, 60000);
+    Assert.assertEquals(2010, td.retryTime);
+    Assert.assertEquals(1.25, td.hitRate, 0.0);
+
+    td.updateScanCount(0, 3000, 10, 60000);
+    Assert.assertEquals(3100, td.retryTime);
+
+    long prevDelay = 100;
+    for (int i = 0; i < 30; i++) {
+      td.updateScanCount(0, 4000, 10, 60000);
+      long delay = td.retryTime - 4000;
+      Assert.assertTrue(delay >= prevDelay);
+      prevDelay = delay;
+    }
+    // growth stops once the max sleep is reached, but the last step may overshoot it
+    Assert.assertTrue(prevDelay >= 60000 && prevDelay < 150000);
+
+    // a hit resets the back off
+    td.updateScanCount(1, 5000, 10, 60000);
+    Assert.assertEquals(5010, td.retryTime);
+    td.updateScanCount(0, 6000, 10, 60000);
+    Assert.assertEquals(6010, td.retryTime);
+  }
+
+  @Test
+  public void testContinuousPushesDoNotStopScans() {
+    ScanThrottle throttle = new ScanThrottle();
+
+    // a quiet round of scans, after which pushes keep the processor's queue busy
+    throttle.scansFinished(0, 0, 1000);
+    for (long now = 1000; now < 100000; now += 50) {
+      Assert.assertFalse(throttle.shouldWait(500, now, 60000));
+    }
+
+    // scans that queued a lot wait for the processor to work through half of it
+    throttle.scansFinished(1000, 1200, 100000);
+    Assert.assertTrue(throttle.shouldWait(1200, 100050, 60000));
+    Assert.assertTrue(throttle.shouldWait(601, 100050, 60000));
+    Assert.assertFalse(throttle.shouldWait(600, 100050, 60000));
+
+    // pushes keeping the queue full can only hold off scanning for the max sleep time
+    Assert.assertTrue(throttle.shouldWait(1200, 159999, 60000));
+    Assert.assertFalse(throttle.shouldWait(1200, 160000, 60000));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.integration.impl;
+
+import java.util.Collection;
+
+import org.apache.fluo.api.client.LoaderExecutor;
+import org.apache.fluo.api.client.Snapshot;
+import org.apache.fluo.api.client.TransactionBase;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.observer.BatchObserver;
+import org.apache.fluo.api.observer.ObserverProvider;
+import org.apache.fluo.integration.ITBaseMini;
+import org.apache.fluo.integration.TestUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.apache.fluo.api.observer.Observer.NotificationType.STRONG;
+import static org.apache.fluo.api.observer.Observer.NotificationType.WEAK;
+
+public class BatchObserverIT extends ITBaseMini {
+  @Rule
+  public Timeout globalTimeout = Timeout.seconds(getTestTimeout());
+
+  private static final Column COUNT = new Column("agg", "count");
+  private static final Column TOTAL = new Column("agg", "total");
+
+  // sums the counts of all rows in a batch into one total, so every batch collides with any other
+  // batch running at the same time
+  public static class SumObserver implements BatchObserver {
+    @Override
+    public void process(TransactionBase tx, Collection<Bytes> rows, Column col) throws Exception {
+      int sum = 0;
+      for (Bytes row : rows) {
+        String count = tx.gets(row.toString(), COUNT);
+        if (count != null) {
+          sum += Integer.parseInt(count);
+          tx.delete(row, COUNT);
+        }
+      }
+
+      if (sum != 0) {
+        TestUtil.increment(tx, "total", TOTAL, sum);
+      }
+    }
+  }
+
+  public static class BatchObserverITProvider implements ObserverProvider {
+    @Override
+    public void provide(Registry or, Context ctx) {
+      or.forColumn(COUNT, WEAK).useBatchObserver(new SumObserver(), 10);
+    }
+  }
+
+  @Override
+  protected Class<? extends ObserverProvider> getObserverProviderClass() {
+    return BatchObserverITProvider.class;
+  }
+
+  @Test
+  public void testBatches() throws Exception {
+    int expected = 0;
+    try (LoaderExecutor le = client.newLoaderExecutor()) {
+      for (int i = 0; i < 100; i++) {
+        String row = String.format("r%03d", i);
+        int count = i + 1;
+        expected += count;
+        le.execute((tx, ctx) -> {
+          tx.set(row, COUNT, count + "");
+          tx.setWeakNotification(row, COUNT);
+        });
+      }
+    }
+
+    miniFluo.waitForObservers();
+
+    try (Snapshot snap = client.newSnapshot()) {
+      Assert.assertEquals(expected + "", snap.gets("total", TOTAL));
+      Assert.assertEquals(0, snap.scanner().fetch(COUNT).build().stream().count());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoStrong() {
+    ObserverProvider provider = (or, ctx) -> or.forColumn(new Column("agg", "strong"), STRONG)
+        .useBatchObserver(new SumObserver(), 10);
+    provider.provideColumns((col, nt) -> {
+    }, null);
+  }
+}
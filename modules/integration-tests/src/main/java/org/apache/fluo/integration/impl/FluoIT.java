@@ -211,6 +211,42 @@ public class FluoIT extends ITBaseImpl {
     tx5.done();
   }
 
+  @Test
+  public void testReadCache() throws Exception {
+    final TestTransaction tx = new TestTransaction(env);
+
+    tx.set("bob", BALANCE, "10");
+    tx.set("joe", BALANCE, "20");
+
+    tx.done();
+
+    final TestTransaction tx1 = new TestTransaction(env);
+    final TestTransaction tx2 = new TestTransaction(env);
+
+    Assert.assertEquals("10", tx1.gets("bob", BALANCE));
+    Assert.assertNull(tx1.gets("jill", BALANCE));
+    Assert.assertEquals(0, tx1.getStats().getCacheHits());
+
+    TestUtil.increment(tx2, "bob", BALANCE, 5);
+    tx2.done();
+
+    // cached reads should be answered at the transactions start time
+    Assert.assertEquals("10", tx1.gets("bob", BALANCE));
+    Assert.assertNull(tx1.gets("jill", BALANCE));
+    Assert.assertEquals(2, tx1.getStats().getCacheHits());
+
+    // reads should see writes made by the transaction
+    tx1.set("bob", BALANCE, "11");
+    tx1.delete("joe", BALANCE);
+    tx1.set("jill", BALANCE, "7");
+    Assert.assertEquals("11", tx1.gets("bob", BALANCE));
+    Assert.assertNull(tx1.gets("joe", BALANCE));
+    Assert.assertEquals(ImmutableMap.of("bob", ImmutableMap.of(BALANCE, "11"), "jill",
+        ImmutableMap.of(BALANCE, "7")),
+        tx1.gets(Arrays.asList("bob", "joe", "jill"), ImmutableSet.of(BALANCE)));
+    tx1.close();
+  }
+
   @Test
   public void testAck() throws Exception {
     // when two transactions run against the same observed column, only one should commit
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.integration.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.fluo.api.client.Snapshot;
+import org.apache.fluo.api.client.Transaction;
+import org.apache.fluo.api.client.TransactionBase;
+import org.apache.fluo.api.client.scanner.CellScanner;
+import org.apache.fluo.api.config.FluoConfiguration;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumnValue;
+import org.apache.fluo.api.observer.Observer;
+import org.apache.fluo.api.observer.ObserverProvider;
+import org.apache.fluo.core.impl.FluoConfigurationImpl;
+import org.apache.fluo.integration.ITBaseMini;
+import org.apache.fluo.integration.TestUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.apache.fluo.api.observer.Observer.NotificationType.WEAK;
+
+/**
+ * Tests that a burst of weak notifications for the same row and column is processed fewer times
+ * than it was set, when weak notifications are debounced.
+ */
+public class NotificationCoalescingIT extends ITBaseMini {
+  @Rule
+  public Timeout globalTimeout = Timeout.seconds(getTestTimeout());
+
+  private static final Column STAT_TOTAL = new Column("stat", "total");
+  private static final Column STAT_CHECK = new Column("stat", "check");
+
+  private static final AtomicInteger processCount = new AtomicInteger();
+
+  public static class SumObserver implements Observer {
+    @Override
+    public void process(TransactionBase tx, Bytes row, Column col) throws Exception {
+      processCount.incrementAndGet();
+
+      CellScanner cellScanner = tx.scanner().over(row, new Column(Bytes.of("stats"))).build();
+
+      int sum = 0;
+      for (RowColumnValue rcv : cellScanner) {
+        sum += Integer.parseInt(rcv.getValue().toString());
+        tx.delete(row, rcv.getColumn());
+      }
+
+      if (sum != 0) {
+        sum += TestUtil.getOrDefault(tx, row.toString(), STAT_TOTAL, 0);
+        tx.set(row.toString(), STAT_TOTAL, sum + "");
+      }
+    }
+  }
+
+  public static class CoalescingObserverProvider implements ObserverProvider {
+    @Override
+    public void provide(Registry or, Context ctx) {
+      or.forColumn(STAT_CHECK, WEAK).useObserver(new SumObserver());
+    }
+  }
+
+  @Override
+  protected Class<? extends ObserverProvider> getObserverProviderClass() {
+    return CoalescingObserverProvider.class;
+  }
+
+  @Override
+  protected void setConfig(FluoConfiguration config) {
+    config.setProperty(FluoConfigurationImpl.WORKER_WEAK_DEBOUNCE_PROP, "2000");
+  }
+
+  @Test
+  public void testBurst() throws Exception {
+    processCount.set(0);
+
+    int expected = 0;
+    for (int i = 0; i < 20; i++) {
+      try (Transaction tx = client.newTransaction()) {
+        tx.set("r1", new Column("stats", String.format("%04d", i)), (i + 1) + "");
+        tx.setWeakNotification("r1", STAT_CHECK);
+        tx.commit();
+      }
+      expected += i + 1;
+    }
+
+    miniFluo.waitForObservers();
+
+    try (Snapshot snap = client.newSnapshot()) {
+      Assert.assertEquals(expected + "", snap.gets("r1", STAT_TOTAL));
+    }
+
+    // the burst was set faster than the debounce window, so most notifications should have been
+    // collapsed into a later one
+    Assert.assertTrue("processed " + processCount.get() + " times", processCount.get() < 10);
+  }
+}
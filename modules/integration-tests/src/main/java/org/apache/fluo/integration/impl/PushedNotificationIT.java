@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package org.apache.fluo.integration.impl;
+
+import org.apache.fluo.api.client.Snapshot;
+import org.apache.fluo.api.client.Transaction;
+import org.apache.fluo.api.client.TransactionBase;
+import org.apache.fluo.api.config.FluoConfiguration;
+import org.apache.fluo.api.data.Bytes;
+import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.observer.Observer;
+import org.apache.fluo.api.observer.ObserverProvider;
+import org.apache.fluo.core.impl.FluoConfigurationImpl;
+import org.apache.fluo.integration.ITBaseMini;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import static org.apache.fluo.api.observer.Observer.NotificationType.STRONG;
+
+/**
+ * Tests that notifications written by transactions committed in the worker's process are processed
+ * without scanning for them. The finder only scans every ten minutes, much longer than the test
+ * timeout, so the chain of observers can only finish if every hop is pushed.
+ */
+public class PushedNotificationIT extends ITBaseMini {
+  @Rule
+  public Timeout globalTimeout = Timeout.seconds(getTestTimeout());
+
+  private static final Column HOP1 = new Column("chain", "hop1");
+  private static final Column HOP2 = new Column("chain", "hop2");
+  private static final Column HOP3 = new Column("chain", "hop3");
+
+  public static class HopObserver implements Observer {
+    private final Column next;
+
+    HopObserver(Column next) {
+      this.next = next;
+    }
+
+    @Override
+    public void process(TransactionBase tx, Bytes row, Column col) throws Exception {
+      tx.set(row, next, tx.get(row, col));
+    }
+  }
+
+  public static class ChainObserverProvider implements ObserverProvider {
+    @Override
+    public void provide(Registry or, Context ctx) {
+      or.forColumn(HOP1, STRONG).useObserver(new HopObserver(HOP2));
+      or.forColumn(HOP2, STRONG).useObserver(new HopObserver(HOP3));
+    }
+  }
+
+  @Override
+  protected Class<? extends ObserverProvider> getObserverProviderClass() {
+    return ChainObserverProvider.class;
+  }
+
+  @Override
+  protected void setConfig(FluoConfiguration config) {
+    config.setProperty(FluoConfigurationImpl.NTFY_FINDER_MIN_SLEEP_TIME_PROP, 10 * 60 * 1000);
+    // the partitions are stable after the max sleep time, pushed notifications are dropped before
+    config.setProperty(FluoConfigurationImpl.NTFY_FINDER_MAX_SLEEP_TIME_PROP, 1000);
+  }
+
+  @Test
+  public void testChainIsPushed() throws Exception {
+    // give the worker time to take ownership of the table's partitions
+    Thread.sleep(3000);
+
+    for (int i = 0; i < 10; i++) {
+      try (Transaction tx = client.newTransaction()) {
+        tx.set("r" + i, HOP1, "v" + i);
+        tx.commit();
+      }
+    }
+
+    miniFluo.waitForObservers();
+
+    try (Snapshot snap = client.newSnapshot()) {
+      for (int i = 0; i < 10; i++) {
+        Assert.assertEquals("v" + i, snap.gets("r" + i, HOP3));
+      }
+    }
+  }
+}
@@ -20,6 +20,7 @@ import java.util.Iterator;
 import java.util.Set;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import org.apache.fluo.api.client.Snapshot;
 import org.apache.fluo.api.client.Transaction;
 import org.apache.fluo.api.client.scanner.CellScanner;
@@ -93,6 +94,39 @@ public class ScannerIT extends ITBaseImpl {
 
   }
 
+  @Test
+  public void testServerSideFilters() {
+    Set<RowColumnValue> expected = genData();
+
+    try (Snapshot snap = client.newSnapshot()) {
+      HashSet<RowColumnValue> actual = new HashSet<>();
+      Iterables.addAll(actual, snap.scanner().filterQualifierPrefix("q1").build());
+      Assert.assertEquals(
+          Sets.filter(expected, rcv -> rcv.getColumn().getsQualifier().equals("q1")), actual);
+
+      actual.clear();
+      Iterables.addAll(actual, snap.scanner().filterQualifierRegex("q[23]").build());
+      Assert.assertEquals(Sets.filter(expected,
+          rcv -> rcv.getColumn().getsQualifier().matches("q[23]")), actual);
+
+      actual.clear();
+      Iterables.addAll(actual, snap.scanner().filterValuePrefix("v4").build());
+      Assert.assertEquals(Sets.filter(expected, rcv -> rcv.getsValue().equals("v4")), actual);
+
+      actual.clear();
+      Iterables.addAll(actual, snap.scanner().filterValueMaxSize(1).build());
+      Assert.assertEquals(0, actual.size());
+
+      actual.clear();
+      Iterables.addAll(actual, snap.scanner().over("r2").keysOnly().build());
+      HashSet<RowColumnValue> expectedKeys = new HashSet<>();
+      for (RowColumnValue rcv : Sets.filter(expected, rcv -> rcv.getsRow().equals("r2"))) {
+        expectedKeys.add(new RowColumnValue(rcv.getRow(), rcv.getColumn(), Bytes.EMPTY));
+      }
+      Assert.assertEquals(expectedKeys, actual);
+    }
+  }
+
   @Test
   public void testSame() {
     Set<RowColumnValue> expected = genData();
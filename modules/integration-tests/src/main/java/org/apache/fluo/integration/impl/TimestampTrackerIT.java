@@ -18,6 +18,7 @@ package org.apache.fluo.integration.impl;
 import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.fluo.accumulo.util.LongUtil;
@@ -132,6 +133,33 @@ public class TimestampTrackerIT extends ITBaseImpl {
     tr3.close();
   }
 
+  @Test
+  public void testLeasedTimestamps() throws Exception {
+    TimestampTracker tracker = new TimestampTracker(env, new TransactorID(env));
+    final long ts1 = tracker.allocateTimestamp(1, TimeUnit.HOURS).getTxTimestamp();
+    final long ts2 = tracker.allocateTimestamp(1, TimeUnit.HOURS).getTxTimestamp();
+    Assert.assertEquals(ts1, ts2);
+    Assert.assertEquals(ts1, tracker.getStamp(1, TimeUnit.HOURS).getTxTimestamp());
+
+    // a leased timestamp must be removed once per allocation
+    tracker.removeTimestamp(ts1);
+    Assert.assertFalse(tracker.isEmpty());
+    Assert.assertEquals(ts1, tracker.getOldestActiveTimestamp());
+    tracker.removeTimestamp(ts2);
+    Assert.assertTrue(tracker.isEmpty());
+
+    // lease can be reused while the timestamp is not newer than what is advertised in ZK
+    final long ts3 = tracker.allocateTimestamp(1, TimeUnit.HOURS).getTxTimestamp();
+    Assert.assertEquals(ts1, ts3);
+    tracker.removeTimestamp(ts3);
+
+    Thread.sleep(5);
+    final long ts4 = tracker.allocateTimestamp(1, TimeUnit.MILLISECONDS).getTxTimestamp();
+    Assert.assertTrue(ts4 > ts1);
+    tracker.removeTimestamp(ts4);
+    tracker.close();
+  }
+
   private long getOldestTs() throws Exception {
 
     CuratorFramework curator = env.getSharedResources().getCurator();
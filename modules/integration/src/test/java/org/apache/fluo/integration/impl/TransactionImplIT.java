@@ -15,11 +15,14 @@
 
 package org.apache.fluo.integration.impl;
 
+import java.util.Arrays;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.apache.fluo.api.client.Transaction;
 import org.apache.fluo.api.data.Bytes;
 import org.apache.fluo.api.data.Column;
+import org.apache.fluo.api.data.RowColumn;
 import org.apache.fluo.integration.ITBaseImpl;
 import org.junit.Assert;
 import org.junit.Test;
@@ -85,5 +88,30 @@ public class TransactionImplIT extends ITBaseImpl {
     }
   }
 
+  @Test
+  public void testgetAsyncRowColumns() throws Exception {
+    RowColumn rc1 = new RowColumn("row1", new Column("col1"));
+    RowColumn rc2 = new RowColumn("row2", new Column("col2"));
+    RowColumn rc3 = new RowColumn("row3", new Column("col3"));
+
+    try (Transaction tx = client.newTransaction()) {
+      tx.set(rc1.getRow(), rc1.getColumn(), Bytes.of("val1"));
+      tx.set(rc2.getRow(), rc2.getColumn(), Bytes.of("val2"));
 
+      tx.commit();
+    }
+
+    try (Transaction tx = client.newTransaction()) {
+      CompletableFuture<Map<RowColumn, Bytes>> res1 = tx.getAsync(Arrays.asList(rc1, rc3));
+      CompletableFuture<Map<RowColumn, Bytes>> res2 = tx.getAsync(Arrays.asList(rc1, rc2));
+      CompletableFuture<Bytes> res3 = tx.getAsync(rc2.getRow(), rc2.getColumn());
+
+      Assert.assertEquals(1, res1.get().size());
+      Assert.assertEquals(Bytes.of("val1"), res1.get().get(rc1));
+      Assert.assertEquals(2, res2.get().size());
+      Assert.assertEquals(Bytes.of("val1"), res2.get().get(rc1));
+      Assert.assertEquals(Bytes.of("val2"), res2.get().get(rc2));
+      Assert.assertEquals(Bytes.of("val2"), res3.get());
+    }
+  }
 }
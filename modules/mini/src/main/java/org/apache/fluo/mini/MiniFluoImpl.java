@@ -84,8 +84,13 @@ public class MiniFluoImpl implements MiniFluo {
         startMiniAccumulo();
       }
 
-      config.setProperty(FluoConfigurationImpl.NTFY_FINDER_MIN_SLEEP_TIME_PROP, 50);
-      config.setProperty(FluoConfigurationImpl.NTFY_FINDER_MAX_SLEEP_TIME_PROP, 100);
+      // scan for notifications often, unless configured otherwise
+      if (!config.containsKey(FluoConfigurationImpl.NTFY_FINDER_MIN_SLEEP_TIME_PROP)) {
+        config.setProperty(FluoConfigurationImpl.NTFY_FINDER_MIN_SLEEP_TIME_PROP, 50);
+      }
+      if (!config.containsKey(FluoConfigurationImpl.NTFY_FINDER_MAX_SLEEP_TIME_PROP)) {
+        config.setProperty(FluoConfigurationImpl.NTFY_FINDER_MAX_SLEEP_TIME_PROP, 100);
+      }
 
       env = new Environment(config);
 